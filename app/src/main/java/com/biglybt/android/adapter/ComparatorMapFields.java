@@ -17,14 +17,16 @@
 package com.biglybt.android.adapter;
 
 import java.math.BigDecimal;
-import java.util.Arrays;
-import java.util.Comparator;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.Future;
 
 import com.biglybt.android.client.AndroidUtils;
 
 import android.util.Log;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
 public abstract class ComparatorMapFields<T>
 	implements Comparator<T>
 {
@@ -130,39 +132,7 @@ public abstract class ComparatorMapFields<T>
 					} // else == drops to next sort field
 
 				} else {
-					int comp;
-
-					if ((oLHS instanceof String) && (oRHS instanceof String)) {
-						comp = ((String) oLHS).compareToIgnoreCase((String) oRHS);
-					} else if (oRHS instanceof Number && oLHS instanceof Number) {
-						if (oRHS instanceof BigDecimal && oLHS instanceof BigDecimal) {
-							comp = oLHS.compareTo(oRHS);
-						} else if (oRHS instanceof Double || oLHS instanceof Double
-								|| oRHS instanceof Float || oLHS instanceof Float
-								|| oRHS instanceof BigDecimal || oLHS instanceof BigDecimal) {
-							double dRHS = ((Number) oRHS).doubleValue();
-							double dLHS = ((Number) oLHS).doubleValue();
-							comp = Double.compare(dLHS, dRHS);
-						} else {
-							// convert to long so we can compare Integer and Long objects
-							long lRHS = ((Number) oRHS).longValue();
-							long lLHS = ((Number) oLHS).longValue();
-							// Not available until API 19
-							// comp = sortOrderAsc[i] ? Long.compare(lLHS, lRHS) :Long.compare(lRHS, lLHS);
-							comp = lLHS > lRHS ? 1 : lLHS == lRHS ? 0 : -1;
-						}
-					} else {
-						if (AndroidUtils.DEBUG) {
-							if (!((oLHS instanceof Boolean) && (oRHS instanceof Boolean))) {
-								Log.d("CMP", "compare using generic " + oLHS.getClass());
-							}
-						}
-						try {
-							comp = oLHS.compareTo(oRHS);
-						} catch (Throwable t) {
-							comp = reportError(oLHS, oRHS, t);
-						}
-					}
+					int comp = compareValues(oLHS, oRHS);
 					if (comp != 0) {
 						if (isAsc != sortDefinition.sortOrderNatural[i]) {
 							return -comp;
@@ -176,7 +146,438 @@ public abstract class ComparatorMapFields<T>
 		}
 	}
 
+	@SuppressWarnings({
+		"unchecked",
+		"rawtypes"
+	})
+	private int compareValues(@NonNull Comparable oLHS, @NonNull Comparable oRHS) {
+		if ((oLHS instanceof String) && (oRHS instanceof String)) {
+			return ((String) oLHS).compareToIgnoreCase((String) oRHS);
+		}
+		if (oRHS instanceof Number && oLHS instanceof Number) {
+			if (oRHS instanceof BigDecimal && oLHS instanceof BigDecimal) {
+				return oLHS.compareTo(oRHS);
+			}
+			if (!isIntegral(oRHS) || !isIntegral(oLHS)) {
+				double dRHS = ((Number) oRHS).doubleValue();
+				double dLHS = ((Number) oLHS).doubleValue();
+				return Double.compare(dLHS, dRHS);
+			}
+			// convert to long so we can compare Integer and Long objects
+			long lRHS = ((Number) oRHS).longValue();
+			long lLHS = ((Number) oLHS).longValue();
+			// Not available until API 19
+			// comp = sortOrderAsc[i] ? Long.compare(lLHS, lRHS) :Long.compare(lRHS, lLHS);
+			return compareLongs(lLHS, lRHS);
+		}
+		if (AndroidUtils.DEBUG) {
+			if (!((oLHS instanceof Boolean) && (oRHS instanceof Boolean))) {
+				Log.d("CMP", "compare using generic " + oLHS.getClass());
+			}
+		}
+		try {
+			return oLHS.compareTo(oRHS);
+		} catch (Throwable t) {
+			return reportError(oLHS, oRHS, t);
+		}
+	}
+
+	private static int compareLongs(long lLHS, long lRHS) {
+		return lLHS > lRHS ? 1 : lLHS == lRHS ? 0 : -1;
+	}
+
+	private static boolean isIntegral(Object o) {
+		return !(o instanceof Double || o instanceof Float
+				|| o instanceof BigDecimal);
+	}
+
 	public Comparable modifyField(String fieldID, Map<?, ?> map, Comparable o) {
 		return o;
 	}
+
+	/**
+	 * Reads one sort field as a long, without boxing it
+	 */
+	public interface LongKeyReader
+	{
+		/**
+		 * @return false if map has no value for the field; sorts like null
+		 */
+		boolean has(@NonNull Map<?, ?> map);
+
+		/**
+		 * @return Value, with any {@link ComparatorMapFields#modifyField}
+		 * change already made
+		 */
+		long get(@NonNull Map<?, ?> map);
+	}
+
+	/**
+	 * Lets {@link #sort(List)} read an integral field straight from maps with
+	 * typed storage
+	 *
+	 * @return null to read fieldID through {@link Map#get(Object)} and
+	 * {@link #modifyField(String, Map, Comparable)}
+	 */
+	@Nullable
+	protected LongKeyReader getLongKeyReader(@NonNull String fieldID) {
+		return null;
+	}
+
+	/**
+	 * Sorts items in the same order as {@link Collections#sort(List, Comparator)}
+	 * with this comparator would, but reads each item's sort fields only once.
+	 * <p/>
+	 * Values are pulled into per-field arrays (longs, doubles, case folded
+	 * strings), an index permutation is sorted against those, and items are
+	 * reordered to match.  {@link #compare(Object, Object)} does a map lookup
+	 * and {@link #modifyField(String, Map, Comparable)} per field on both sides
+	 * of every comparison.
+	 */
+	public void sort(@NonNull List<T> items) {
+		int num = items.size();
+		if (num < 2) {
+			return;
+		}
+		if (sortDefinition == null) {
+			if (comparator != null) {
+				Collections.sort(items, this);
+			}
+			return;
+		}
+
+		String[] fieldIDs = sortDefinition.sortFieldIDs;
+		boolean[] noMap = new boolean[num];
+		LongKeyReader[] readers = new LongKeyReader[fieldIDs.length];
+		long[][] longKeys = new long[fieldIDs.length][];
+		boolean[][] missing = new boolean[fieldIDs.length][];
+		Comparable[][] values = new Comparable[fieldIDs.length][];
+		for (int f = 0; f < fieldIDs.length; f++) {
+			readers[f] = getLongKeyReader(fieldIDs[f]);
+			if (readers[f] == null) {
+				values[f] = new Comparable[num];
+			} else {
+				longKeys[f] = new long[num];
+				missing[f] = new boolean[num];
+			}
+		}
+		// Large lists read their keys on several threads
+		ParallelWork.forEachRange(num, (chunk, from, to) -> {
+			for (int row = from; row < to; row++) {
+				Map<?, ?> map = mapGetter(items.get(row));
+				if (map == null) {
+					noMap[row] = true;
+					continue;
+				}
+				for (int f = 0; f < fieldIDs.length; f++) {
+					LongKeyReader reader = readers[f];
+					if (reader != null) {
+						if (reader.has(map)) {
+							longKeys[f][row] = reader.get(map);
+						} else {
+							missing[f][row] = true;
+						}
+						continue;
+					}
+					String fieldID = fieldIDs[f];
+					values[f][row] = modifyField(fieldID, map,
+							(Comparable) map.get(fieldID));
+				}
+			}
+		});
+
+		SortColumn[] columns = new SortColumn[fieldIDs.length];
+		for (int f = 0; f < fieldIDs.length; f++) {
+			boolean reversed = isAsc != sortDefinition.sortOrderNatural[f];
+			columns[f] = readers[f] == null
+					? new SortColumn(this, values[f], reversed)
+					: new SortColumn(this, longKeys[f], missing[f], reversed);
+		}
+
+		int[] order = new int[num];
+		for (int i = 0; i < num; i++) {
+			order[i] = i;
+		}
+		int[] tmp = new int[num];
+		int numRanges = ParallelWork.getNumRanges(num);
+		if (numRanges <= 1) {
+			mergeSort(order, tmp, 0, num, columns, noMap);
+		} else {
+			parallelMergeSort(order, tmp, numRanges, columns, noMap);
+		}
+
+		List<T> sorted = new ArrayList<>(num);
+		for (int i = 0; i < num; i++) {
+			sorted.add(items.get(order[i]));
+		}
+		for (int i = 0; i < num; i++) {
+			items.set(i, sorted.get(i));
+		}
+	}
+
+	private int compareRows(int lhs, int rhs, @NonNull SortColumn[] columns,
+			@NonNull boolean[] noMap) {
+		if (noMap[lhs] || noMap[rhs]) {
+			return 0;
+		}
+		for (SortColumn column : columns) {
+			int comp = column.compare(lhs, rhs);
+			if (comp != 0) {
+				return comp;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Stable, like {@link Collections#sort(List)}
+	 */
+	private void mergeSort(@NonNull int[] order, @NonNull int[] tmp, int from,
+			int to, @NonNull SortColumn[] columns, @NonNull boolean[] noMap) {
+		int len = to - from;
+		if (len < 8) {
+			// insertion sort
+			for (int i = from + 1; i < to; i++) {
+				int row = order[i];
+				int j = i - 1;
+				while (j >= from && compareRows(order[j], row, columns, noMap) > 0) {
+					order[j + 1] = order[j];
+					j--;
+				}
+				order[j + 1] = row;
+			}
+			return;
+		}
+		int mid = (from + to) >>> 1;
+		mergeSort(order, tmp, from, mid, columns, noMap);
+		mergeSort(order, tmp, mid, to, columns, noMap);
+		merge(order, tmp, from, mid, to, columns, noMap);
+	}
+
+	/**
+	 * Sorts each of numRanges ranges on its own thread, then merges
+	 * neighbouring runs, also in parallel, until one is left.  Merging
+	 * neighbours left to right keeps the sort stable, so the order is the
+	 * same as {@link #mergeSort}'s.
+	 */
+	private void parallelMergeSort(@NonNull int[] order, @NonNull int[] tmp,
+			int numRanges, @NonNull SortColumn[] columns, @NonNull boolean[] noMap) {
+		int num = order.length;
+		int[] runStarts = new int[numRanges + 1];
+		for (int i = 0; i <= numRanges; i++) {
+			runStarts[i] = ParallelWork.rangeStart(i, numRanges, num);
+		}
+		ParallelWork.forEachRange(num, (chunk, from, to) -> mergeSort(order, tmp,
+				from, to, columns, noMap));
+
+		int numRuns = numRanges;
+		while (numRuns > 1) {
+			int numPairs = numRuns / 2;
+			int[] starts = runStarts;
+			// Each pair merge touches only its own slice of order and tmp
+			List<Future<?>> futures = new ArrayList<>(numPairs);
+			for (int pair = 0; pair < numPairs; pair++) {
+				int from = starts[pair * 2];
+				int mid = starts[pair * 2 + 1];
+				int to = starts[pair * 2 + 2];
+				if (pair == numPairs - 1) {
+					merge(order, tmp, from, mid, to, columns, noMap);
+				} else {
+					futures.add(ParallelWork.submit(
+							() -> merge(order, tmp, from, mid, to, columns, noMap)));
+				}
+			}
+			ParallelWork.waitFor(futures);
+
+			int newNumRuns = (numRuns + 1) / 2;
+			int[] newStarts = new int[newNumRuns + 1];
+			for (int i = 0; i < newNumRuns; i++) {
+				newStarts[i] = starts[i * 2];
+			}
+			newStarts[newNumRuns] = num;
+			runStarts = newStarts;
+			numRuns = newNumRuns;
+		}
+	}
+
+	/**
+	 * Merges sorted runs [from, mid) and [mid, to) of order
+	 */
+	private void merge(@NonNull int[] order, @NonNull int[] tmp, int from,
+			int mid, int to, @NonNull SortColumn[] columns,
+			@NonNull boolean[] noMap) {
+		if (compareRows(order[mid - 1], order[mid], columns, noMap) <= 0) {
+			return;
+		}
+		System.arraycopy(order, from, tmp, from, to - from);
+		int i = from;
+		int j = mid;
+		for (int k = from; k < to; k++) {
+			if (j >= to || (i < mid
+					&& compareRows(tmp[i], tmp[j], columns, noMap) <= 0)) {
+				order[k] = tmp[i++];
+			} else {
+				order[k] = tmp[j++];
+			}
+		}
+	}
+
+	/**
+	 * One sort field's values, in the cheapest form that still compares the
+	 * same as {@link #compareValues(Comparable, Comparable)}
+	 */
+	private static final class SortColumn
+	{
+		private static final int TYPE_LONG = 0;
+
+		private static final int TYPE_NUMBER = 1;
+
+		private static final int TYPE_STRING = 2;
+
+		private static final int TYPE_GENERIC = 3;
+
+		@NonNull
+		private final ComparatorMapFields<?> owner;
+
+		private final boolean reversed;
+
+		private final boolean[] nulls;
+
+		private int type;
+
+		private long[] longs;
+
+		private double[] doubles;
+
+		/** Only for TYPE_NUMBER; rows compared as long when both are */
+		private boolean[] integral;
+
+		private String[] folded;
+
+		private Comparable[] generic;
+
+		SortColumn(@NonNull ComparatorMapFields<?> owner, @NonNull long[] longs,
+				@NonNull boolean[] nulls, boolean reversed) {
+			this.owner = owner;
+			this.reversed = reversed;
+			this.nulls = nulls;
+			this.longs = longs;
+			type = TYPE_LONG;
+		}
+
+		SortColumn(@NonNull ComparatorMapFields<?> owner,
+				@NonNull Comparable[] values, boolean reversed) {
+			this.owner = owner;
+			this.reversed = reversed;
+			int num = values.length;
+			nulls = new boolean[num];
+			boolean allIntegral = true;
+			boolean allNumbers = true;
+			boolean allStrings = true;
+			boolean hasBigDecimal = false;
+			for (int row = 0; row < num; row++) {
+				Comparable o = values[row];
+				if (o == null) {
+					nulls[row] = true;
+					continue;
+				}
+				if (o instanceof Number) {
+					allStrings = false;
+					if (o instanceof BigDecimal) {
+						hasBigDecimal = true;
+					}
+					if (!isIntegral(o)) {
+						allIntegral = false;
+					}
+				} else {
+					allNumbers = false;
+					allIntegral = false;
+					if (!(o instanceof String)) {
+						allStrings = false;
+					}
+				}
+			}
+
+			if (allNumbers && !hasBigDecimal) {
+				type = allIntegral ? TYPE_LONG : TYPE_NUMBER;
+				longs = new long[num];
+				if (!allIntegral) {
+					doubles = new double[num];
+					integral = new boolean[num];
+				}
+				for (int row = 0; row < num; row++) {
+					Number n = (Number) values[row];
+					if (n == null) {
+						continue;
+					}
+					longs[row] = n.longValue();
+					if (!allIntegral) {
+						doubles[row] = n.doubleValue();
+						integral[row] = isIntegral(n);
+					}
+				}
+			} else if (allStrings) {
+				type = TYPE_STRING;
+				folded = new String[num];
+				for (int row = 0; row < num; row++) {
+					if (values[row] != null) {
+						folded[row] = foldCase((String) values[row]);
+					}
+				}
+			} else {
+				type = TYPE_GENERIC;
+				generic = values;
+			}
+		}
+
+		int compare(int lhs, int rhs) {
+			if (nulls[lhs] || nulls[rhs]) {
+				if (nulls[lhs] == nulls[rhs]) {
+					return 0;
+				}
+				// like compare(), nulls first regardless of direction
+				return nulls[lhs] ? -1 : 1;
+			}
+			int comp;
+			switch (type) {
+				case TYPE_LONG:
+					comp = compareLongs(longs[lhs], longs[rhs]);
+					break;
+				case TYPE_NUMBER:
+					comp = integral[lhs] && integral[rhs]
+							? compareLongs(longs[lhs], longs[rhs])
+							: Double.compare(doubles[lhs], doubles[rhs]);
+					break;
+				case TYPE_STRING:
+					comp = folded[lhs].compareTo(folded[rhs]);
+					break;
+				default:
+					comp = owner.compareValues(generic[lhs], generic[rhs]);
+					break;
+			}
+			return reversed ? -comp : comp;
+		}
+	}
+
+	/**
+	 * @return s with each char mapped the way
+	 * {@link String#compareToIgnoreCase(String)} maps them, so plain
+	 * compareTo gives the same result
+	 */
+	@NonNull
+	private static String foldCase(@NonNull String s) {
+		int len = s.length();
+		for (int i = 0; i < len; i++) {
+			char c = s.charAt(i);
+			if (Character.toLowerCase(Character.toUpperCase(c)) != c) {
+				char[] chars = s.toCharArray();
+				for (int j = i; j < len; j++) {
+					chars[j] = Character.toLowerCase(
+							Character.toUpperCase(chars[j]));
+				}
+				return new String(chars);
+			}
+		}
+		return s;
+	}
 }
\ No newline at end of file
@@ -322,10 +322,18 @@ public abstract class DelayedFilter
 					oldState);
 		}
 		if (scheduledRefilter && filterState == FILTERSTATE_IDLE) {
-			refilter(false);
+			refilterScheduled();
 		}
 	}
 
+	/**
+	 * Runs the refilter that was asked for while a pass was running.
+	 * Whatever asked for it has already recorded what needs redoing.
+	 */
+	protected void refilterScheduled() {
+		refilter(false);
+	}
+
 	public interface PerformingFilteringListener
 	{
 		@AnyThread
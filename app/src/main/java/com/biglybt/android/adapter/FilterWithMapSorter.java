@@ -72,7 +72,7 @@ public abstract class FilterWithMapSorter<T>
 		// java.lang.IllegalArgumentException: Comparison method violates its
 		// general contract!
 		try {
-			Collections.sort(items, sorter);
+			sorter.sort(items);
 		} catch (Throwable t) {
 			log(TAG, "doSort: ", t);
 		}
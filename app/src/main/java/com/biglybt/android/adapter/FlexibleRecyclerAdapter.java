@@ -33,7 +33,7 @@ import android.widget.RelativeLayout;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.UiThread;
-import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.AdapterListUpdateCallback;
 import androidx.recyclerview.widget.ListUpdateCallback;
 import androidx.recyclerview.widget.RecyclerView;
 
@@ -388,12 +388,28 @@ public abstract class FlexibleRecyclerAdapter<ADAPTERTYPE extends RecyclerView.A
 	@Override
 	public final void onBindViewHolder(@NonNull VH holder, int position,
 			@NonNull List<Object> payloads) {
+		if (!payloads.isEmpty()
+				&& onBindFlexibleViewHolder(holder, position, payloads)) {
+			return;
+		}
 		super.onBindViewHolder(holder, position, payloads);
 		//log(TAG, "onBindViewHolder: " + (++countB));
 		// super calls onBindViewHolder(VH, int), we don't have to
 		//onBindFlexibleViewHolder(holder, position);
 	}
 
+	/**
+	 * Partial rebind of a holder already showing the item at position.
+	 *
+	 * @param payloads From {@link SetItemsCallBack#getChangePayload}, or
+	 *                 notifyItemChanged.  Never empty
+	 * @return false to do a full {@link #onBindFlexibleViewHolder(RecyclerView.ViewHolder, int)}
+	 */
+	public boolean onBindFlexibleViewHolder(@NonNull VH holder, int position,
+			@NonNull List<Object> payloads) {
+		return false;
+	}
+
 	@NonNull
 	public abstract VH onCreateFlexibleViewHolder(@NonNull ViewGroup parent,
 			@NonNull LayoutInflater inflater, int viewType);
@@ -575,6 +591,39 @@ public abstract class FlexibleRecyclerAdapter<ADAPTERTYPE extends RecyclerView.A
 		triggerOnSetItemsCompleteListeners();
 	}
 
+	/**
+	 * Inserts items as one range, starting at position
+	 */
+	public void addItems(int position, @NonNull final List<T> items) {
+		if (items.isEmpty()) {
+			return;
+		}
+		if (!AndroidUtilsUI.isUIThread()) {
+			final int finalPosition = position;
+			new Handler(Looper.getMainLooper()).post(
+					() -> addItems(finalPosition, items));
+			return;
+		}
+		if (position < 0) {
+			log(Log.WARN, TAG, "Cannot addItems on negative position");
+			return;
+		}
+		synchronized (mLock) {
+			if (position > mItems.size()) {
+				position = mItems.size();
+			}
+			mItems.addAll(position, items);
+			if (selectedPosition >= position) {
+				selectedPosition += items.size();
+			}
+		}
+		if (AndroidUtils.DEBUG_ADAPTER) {
+			log(TAG, "addItems: " + items.size() + " at " + position);
+		}
+		notifyItemRangeInserted(position, items.size());
+		triggerOnSetItemsCompleteListeners();
+	}
+
 	@SuppressWarnings({
 		"WeakerAccess",
 		"unused"
@@ -738,6 +787,25 @@ public abstract class FlexibleRecyclerAdapter<ADAPTERTYPE extends RecyclerView.A
 		 * @return True if the contents of the items are the same or false if they are different.
 		 */
 		boolean areContentsTheSame(T oldItem, T newItem);
+
+		/**
+		 * Called for items where {@link #areContentsTheSame(Object, Object)}
+		 * returned false.
+		 *
+		 * @return Passed to {@link FlexibleRecyclerAdapter#onBindFlexibleViewHolder(RecyclerView.ViewHolder, int, List)}
+		 * so only what changed is rebound.  null for a full rebind
+		 */
+		@Nullable
+		default Object getChangePayload(T oldItem, T newItem) {
+			return null;
+		}
+
+		/**
+		 * Called on the UI thread once the items this callback was passed with
+		 * are in place
+		 */
+		default void onItemsSet() {
+		}
 	}
 
 	private class SetItemsAsyncTask
@@ -755,7 +823,7 @@ public abstract class FlexibleRecyclerAdapter<ADAPTERTYPE extends RecyclerView.A
 		final SetItemsCallBack<T> callback;
 
 		@Thunk
-		DiffUtil.DiffResult diffResult;
+		ItemListDiff diffResult;
 
 		@Thunk
 		List<T> notifyUncheckedList;
@@ -801,34 +869,7 @@ public abstract class FlexibleRecyclerAdapter<ADAPTERTYPE extends RecyclerView.A
 				newCount = newItems.size();
 			}
 
-			diffResult = DiffUtil.calculateDiff(new DiffUtil.Callback() {
-				@Override
-				public int getOldListSize() {
-					return oldItems.size();
-				}
-
-				@Override
-				public int getNewListSize() {
-					return newItems.size();
-				}
-
-				@Override
-				public boolean areItemsTheSame(int oldItemPosition,
-						int newItemPosition) {
-					// oldItems.get(oldItemPosition).compareTo(items.get(newItemPosition)) == 0
-					// is slower than the code below
-					T oldItem = oldItems.get(oldItemPosition);
-					T newItem = newItems.get(newItemPosition);
-					return oldItem != null && oldItem.equals(newItem);
-				}
-
-				@Override
-				public boolean areContentsTheSame(int oldItemPosition,
-						int newItemPosition) {
-					return callback.areContentsTheSame(oldItems.get(oldItemPosition),
-							newItems.get(newItemPosition));
-				}
-			});
+			diffResult = ItemListDiff.calculate(oldItems, newItems, callback);
 
 			if (isCancelled()) {
 				if (AndroidUtils.DEBUG_ADAPTER) {
@@ -841,7 +882,8 @@ public abstract class FlexibleRecyclerAdapter<ADAPTERTYPE extends RecyclerView.A
 			if (AndroidUtils.DEBUG_ADAPTER) {
 				log(TAG,
 						"SetItemsAsyncTask: oldCount=" + oldCount + ";new=" + newCount + ";"
-								+ this + " in " + (System.currentTimeMillis() - start) + "ms");
+								+ diffResult + ";" + this + " in "
+								+ (System.currentTimeMillis() - start) + "ms");
 
 				StringBuilder sb = new StringBuilder();
 				diffResult.dispatchUpdatesTo(new ListUpdateCallback() {
@@ -928,6 +970,7 @@ public abstract class FlexibleRecyclerAdapter<ADAPTERTYPE extends RecyclerView.A
 
 				notifyUncheckedList = relinkCheckedItems();
 			}
+			callback.onItemsSet();
 
 			if (selector != null) {
 				for (T item : notifyUncheckedList) {
@@ -943,7 +986,7 @@ public abstract class FlexibleRecyclerAdapter<ADAPTERTYPE extends RecyclerView.A
 				}
 
 				boolean isAtTop = recyclerView.computeVerticalScrollOffset() == 0;
-				diffResult.dispatchUpdatesTo(adapter);
+				diffResult.dispatchUpdatesTo(new AdapterListUpdateCallback(adapter));
 				if (isAtTop) {
 					// it's really confusing when you are at the top, flip sort,
 					// and nothing changes (the scrollbar does, but who notices that?)
@@ -1327,6 +1370,17 @@ public abstract class FlexibleRecyclerAdapter<ADAPTERTYPE extends RecyclerView.A
 		}
 	}
 
+	/**
+	 * @param payload See {@link #onBindFlexibleViewHolder(RecyclerView.ViewHolder, int, List)}
+	 */
+	public void safeNotifyItemChanged(int position, @Nullable Object payload) {
+		if (recyclerView != null && recyclerView.isComputingLayout()) {
+			AndroidUtilsUI.postDelayed(() -> notifyItemChanged(position, payload));
+		} else {
+			notifyItemChanged(position, payload);
+		}
+	}
+
 	@SuppressWarnings("BooleanMethodIsAlwaysInverted")
 	public boolean isItemCheckable(int position) {
 		return true;
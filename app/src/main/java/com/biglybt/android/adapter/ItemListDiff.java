@@ -0,0 +1,221 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.biglybt.android.adapter;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.BatchingListUpdateCallback;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import com.biglybt.android.adapter.FlexibleRecyclerAdapter.SetItemsCallBack;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Updates needed to turn one item list into another.
+ * <p/>
+ * The leading and trailing runs of the same items (by equals, which is the
+ * stable id for our adapters) are only checked for content changes.  Only
+ * the part between them goes through {@link DiffUtil}, with move detection
+ * off when that part is bigger than {@link #MAX_MOVE_DETECTION_ITEMS}.
+ * A refresh that doesn't reorder anything never runs DiffUtil at all.
+ */
+class ItemListDiff
+{
+	/**
+	 * Move detection is O(removed * inserted); above this, moved items are
+	 * reported as a remove and an insert instead
+	 */
+	static final int MAX_MOVE_DETECTION_ITEMS = 1000;
+
+	private final int oldSize;
+
+	private final int prefix;
+
+	private final int suffix;
+
+	/** Positions (in the old list) of same items whose contents changed */
+	private int[] changedPositions = new int[0];
+
+	private Object[] changedPayloads = new Object[0];
+
+	private int numChanged;
+
+	@Nullable
+	private final DiffUtil.DiffResult middle;
+
+	private ItemListDiff(int oldSize, int prefix, int suffix,
+			@Nullable DiffUtil.DiffResult middle) {
+		this.oldSize = oldSize;
+		this.prefix = prefix;
+		this.suffix = suffix;
+		this.middle = middle;
+	}
+
+	@NonNull
+	static <T> ItemListDiff calculate(@NonNull List<T> oldItems,
+			@NonNull List<T> newItems, @NonNull SetItemsCallBack<T> callback) {
+		int oldSize = oldItems.size();
+		int newSize = newItems.size();
+		int max = Math.min(oldSize, newSize);
+
+		int prefix = 0;
+		while (prefix < max
+				&& isSameItem(oldItems.get(prefix), newItems.get(prefix))) {
+			prefix++;
+		}
+		int suffix = 0;
+		while (suffix < max - prefix && isSameItem(
+				oldItems.get(oldSize - 1 - suffix), newItems.get(newSize - 1 - suffix))) {
+			suffix++;
+		}
+
+		int oldMiddle = oldSize - prefix - suffix;
+		int newMiddle = newSize - prefix - suffix;
+		int start = prefix;
+		DiffUtil.DiffResult middle = null;
+		if (oldMiddle > 0 || newMiddle > 0) {
+			boolean detectMoves = Math.max(oldMiddle,
+					newMiddle) <= MAX_MOVE_DETECTION_ITEMS;
+			middle = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+				@Override
+				public int getOldListSize() {
+					return oldMiddle;
+				}
+
+				@Override
+				public int getNewListSize() {
+					return newMiddle;
+				}
+
+				@Override
+				public boolean areItemsTheSame(int oldItemPosition,
+						int newItemPosition) {
+					return isSameItem(oldItems.get(start + oldItemPosition),
+							newItems.get(start + newItemPosition));
+				}
+
+				@Override
+				public boolean areContentsTheSame(int oldItemPosition,
+						int newItemPosition) {
+					return callback.areContentsTheSame(
+							oldItems.get(start + oldItemPosition),
+							newItems.get(start + newItemPosition));
+				}
+
+				@Nullable
+				@Override
+				public Object getChangePayload(int oldItemPosition,
+						int newItemPosition) {
+					return callback.getChangePayload(
+							oldItems.get(start + oldItemPosition),
+							newItems.get(start + newItemPosition));
+				}
+			}, detectMoves);
+		}
+
+		ItemListDiff diff = new ItemListDiff(oldSize, prefix, suffix, middle);
+		for (int i = 0; i < prefix; i++) {
+			diff.checkContents(i, oldItems.get(i), newItems.get(i), callback);
+		}
+		for (int i = 0; i < suffix; i++) {
+			diff.checkContents(oldSize - suffix + i,
+					oldItems.get(oldSize - suffix + i),
+					newItems.get(newSize - suffix + i), callback);
+		}
+		return diff;
+	}
+
+	private static boolean isSameItem(@Nullable Object oldItem,
+			@Nullable Object newItem) {
+		return oldItem != null && oldItem.equals(newItem);
+	}
+
+	private <T> void checkContents(int oldPosition, T oldItem, T newItem,
+			@NonNull SetItemsCallBack<T> callback) {
+		if (callback.areContentsTheSame(oldItem, newItem)) {
+			return;
+		}
+		if (numChanged == changedPositions.length) {
+			int capacity = Math.max(16, numChanged * 2);
+			changedPositions = Arrays.copyOf(changedPositions, capacity);
+			changedPayloads = Arrays.copyOf(changedPayloads, capacity);
+		}
+		changedPositions[numChanged] = oldPosition;
+		changedPayloads[numChanged] = callback.getChangePayload(oldItem, newItem);
+		numChanged++;
+	}
+
+	/**
+	 * Same contract as {@link DiffUtil.DiffResult#dispatchUpdatesTo}
+	 */
+	void dispatchUpdatesTo(@NonNull ListUpdateCallback target) {
+		BatchingListUpdateCallback batching = new BatchingListUpdateCallback(
+				target);
+
+		// Trailing run first, while its old positions are still valid
+		int suffixStart = oldSize - suffix;
+		for (int i = 0; i < numChanged; i++) {
+			if (changedPositions[i] >= suffixStart) {
+				batching.onChanged(changedPositions[i], 1, changedPayloads[i]);
+			}
+		}
+
+		if (middle != null) {
+			middle.dispatchUpdatesTo(new ListUpdateCallback() {
+				@Override
+				public void onInserted(int position, int count) {
+					batching.onInserted(prefix + position, count);
+				}
+
+				@Override
+				public void onRemoved(int position, int count) {
+					batching.onRemoved(prefix + position, count);
+				}
+
+				@Override
+				public void onMoved(int fromPosition, int toPosition) {
+					batching.onMoved(prefix + fromPosition, prefix + toPosition);
+				}
+
+				@Override
+				public void onChanged(int position, int count,
+						@Nullable Object payload) {
+					batching.onChanged(prefix + position, count, payload);
+				}
+			});
+		}
+
+		// Leading run never moves
+		for (int i = 0; i < numChanged; i++) {
+			if (changedPositions[i] < prefix) {
+				batching.onChanged(changedPositions[i], 1, changedPayloads[i]);
+			}
+		}
+		batching.dispatchLastEvent();
+	}
+
+	@NonNull
+	@Override
+	public String toString() {
+		return "ItemListDiff{prefix=" + prefix + ", suffix=" + suffix
+				+ ", changed=" + numChanged + ", diffed="
+				+ (oldSize - prefix - suffix) + "}";
+	}
+}
@@ -24,6 +24,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import android.util.Log;
 import android.util.SparseArray;
+import android.util.SparseIntArray;
 
 /**
  * Created by TuxPaper on 6/30/16.
@@ -47,6 +48,14 @@ public abstract class LetterFilter<T>
 
 	private LettersUpdatedListener lettersUpdatedListener;
 
+	private static final int CODE_NUMBERS = -1;
+
+	private static final int CODE_PUNCTUATION = -2;
+
+	private static final int CODE_NON = -3;
+
+	private final SubstringIndex<T> searchIndex = new SubstringIndex<>();
+
 	public LetterFilter(PerformingFilteringListener l) {
 		super(l);
 	}
@@ -230,20 +239,21 @@ public abstract class LetterFilter<T>
 			Log.d(TAG, "filtering " + searchResultList.size());
 		}
 
-		HashSet<String> setLetters = null;
+		String[] uppers = searchIndex.update(searchResultList,
+				this::getStringToConstrain);
+		boolean[] matches = hasConstraint ? searchIndex.match(constraint) : null;
+		for (int i = 0; i < size; i++) {
+			if (matches == null ? uppers[i] == null : !matches[i]) {
+				toRemove.add(searchResultList.get(i));
+				uppers[i] = null;
+			}
+		}
+
 		HashMap<String, Integer> mapLetterCount = null;
 		if (buildLetters) {
-			setLetters = new HashSet<>();
-			mapLetterCount = new HashMap<>();
-		}
-		if (buildLetters || hasConstraint) {
-			for (T key : searchResultList) {
-				if (!constraintCheck(constraint, getStringToConstrain(key), setLetters,
-						mapLetterCount)) {
-					toRemove.add(key);
-				}
-			}
+			mapLetterCount = countLetters(constraint, uppers);
 		}
+
 		if (DEBUG && hasConstraint) {
 			Log.d(TAG, "filter removing " + toRemove.size());
 		}
@@ -261,6 +271,102 @@ public abstract class LetterFilter<T>
 		return toRemove;
 	}
 
+	/**
+	 * Counts, for each letter, how many names have it right after constraint
+	 * (or anywhere, when there's no constraint).  Same counts as
+	 * {@link #constraintCheck}, without a String per character.
+	 * <p/>
+	 * Large lists are counted in ranges on separate threads, and summed after.
+	 *
+	 * @param uppers Upper-cased names; null entries are skipped
+	 */
+	@NonNull
+	protected HashMap<String, Integer> countLetters(@NonNull String constraint,
+			@NonNull String[] uppers) {
+		int numRanges = ParallelWork.getNumRanges(uppers.length);
+		SparseIntArray[] rangeCounts = new SparseIntArray[numRanges];
+
+		ParallelWork.forEachRange(uppers.length, (chunk, from, to) -> {
+			SparseIntArray counts = new SparseIntArray();
+			int[] codes = new int[16];
+			for (int i = from; i < to; i++) {
+				String upper = uppers[i];
+				if (upper == null) {
+					continue;
+				}
+				int num = 0;
+				if (constraint.isEmpty()) {
+					int len = upper.length();
+					if (len > codes.length) {
+						codes = new int[len];
+					}
+					for (int j = 0; j < len; j++) {
+						codes[num++] = letterCode(upper.charAt(j));
+					}
+				} else {
+					int pos = upper.indexOf(constraint);
+					while (pos >= 0) {
+						int end = pos + constraint.length();
+						if (end < upper.length()) {
+							if (num == codes.length) {
+								codes = Arrays.copyOf(codes, num * 2);
+							}
+							codes[num++] = letterCode(upper.charAt(end));
+						}
+						pos = upper.indexOf(constraint, pos + 1);
+					}
+				}
+				// Each letter counts once per name
+				Arrays.sort(codes, 0, num);
+				for (int j = 0; j < num; j++) {
+					if (j == 0 || codes[j] != codes[j - 1]) {
+						counts.put(codes[j], counts.get(codes[j]) + 1);
+					}
+				}
+			}
+			rangeCounts[chunk] = counts;
+		});
+
+		SparseIntArray total = rangeCounts[0];
+		for (int r = 1; r < numRanges; r++) {
+			SparseIntArray counts = rangeCounts[r];
+			for (int i = 0, num = counts.size(); i < num; i++) {
+				int code = counts.keyAt(i);
+				total.put(code, total.get(code) + counts.valueAt(i));
+			}
+		}
+
+		HashMap<String, Integer> mapLetterCount = new HashMap<>();
+		for (int i = 0, num = total.size(); i < num; i++) {
+			int code = total.keyAt(i);
+			String letter = code == CODE_NUMBERS ? FilterConstants.LETTERS_NUMBERS
+					: code == CODE_PUNCTUATION ? FilterConstants.LETTERS_PUNCTUATION
+							: code == CODE_NON ? FilterConstants.LETTERS_NON
+									: String.valueOf((char) code);
+			mapLetterCount.put(letter, total.valueAt(i));
+		}
+		return mapLetterCount;
+	}
+
+	/**
+	 * @return c, or one of the negative CODE_ constants when c falls in a
+	 * compacted group
+	 */
+	private int letterCode(char c) {
+		boolean isDigit = Character.isDigit(c);
+		if (compactDigits && isDigit) {
+			return CODE_NUMBERS;
+		}
+		boolean isPunctuation = isStandardPuncuation(c);
+		if (compactPunctuation && isPunctuation) {
+			return CODE_PUNCTUATION;
+		}
+		if (compactNonLetters && !isDigit && !isPunctuation && !isAlphabetic(c)) {
+			return CODE_NON;
+		}
+		return c;
+	}
+
 	abstract public @NonNull String getSectionName(int position);
 
 	abstract public boolean showLetterUI();
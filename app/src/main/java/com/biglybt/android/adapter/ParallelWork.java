@@ -0,0 +1,186 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.biglybt.android.adapter;
+
+import android.os.Process;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Splits filter and sort work on large lists across cores.
+ * <p/>
+ * Work is cut into one contiguous range per worker; the calling (filter)
+ * thread runs the first range itself and waits for the rest.  Lists smaller
+ * than {@link #getThreshold()} stay on the calling thread.
+ * <p/>
+ * A fixed pool rather than ForkJoinPool, which isn't available before
+ * API 21.
+ */
+public class ParallelWork
+{
+	private static final int DEFAULT_THRESHOLD = 20000;
+
+	private static final int KEEP_ALIVE_SECS = 30;
+
+	private static final int PARALLELISM = Math.max(1,
+			Runtime.getRuntime().availableProcessors());
+
+	private static volatile int threshold = DEFAULT_THRESHOLD;
+
+	private static ThreadPoolExecutor executor;
+
+	public interface RangeTask
+	{
+		/**
+		 * Process items [from, to).  Ranges never overlap.
+		 *
+		 * @param chunk 0 based range number, in list order
+		 */
+		void run(int chunk, int from, int to);
+	}
+
+	private ParallelWork() {
+	}
+
+	public static int getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * @param threshold Minimum item count before work is split.
+	 *                  {@link Integer#MAX_VALUE} to never split
+	 */
+	public static void setThreshold(int threshold) {
+		ParallelWork.threshold = Math.max(2, threshold);
+	}
+
+	public static boolean shouldSplit(int numItems) {
+		return PARALLELISM > 1 && numItems >= threshold;
+	}
+
+	/**
+	 * @return Number of ranges {@link #forEachRange(int, RangeTask)} will use
+	 * for numItems
+	 */
+	public static int getNumRanges(int numItems) {
+		return shouldSplit(numItems) ? Math.min(PARALLELISM, numItems) : 1;
+	}
+
+	private static synchronized ThreadPoolExecutor getExecutor() {
+		if (executor == null) {
+			AtomicInteger threadNo = new AtomicInteger();
+			ThreadFactory threadFactory = r -> {
+				Thread thread = new Thread(() -> {
+					Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+					r.run();
+				}, "ParallelWork-" + threadNo.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			};
+			// Caller runs one range, so one less worker than cores
+			int numWorkers = Math.max(1, PARALLELISM - 1);
+			executor = new ThreadPoolExecutor(numWorkers, numWorkers,
+					KEEP_ALIVE_SECS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+					threadFactory);
+			executor.allowCoreThreadTimeOut(true);
+		}
+		return executor;
+	}
+
+	/**
+	 * Runs task over [0, numItems), split into {@link #getNumRanges(int)}
+	 * ranges of about equal size.  Returns when all ranges are done.
+	 * Rethrows the first exception a range threw.
+	 */
+	@WorkerThread
+	public static void forEachRange(int numItems, @NonNull RangeTask task) {
+		int numRanges = getNumRanges(numItems);
+		if (numRanges <= 1) {
+			task.run(0, 0, numItems);
+			return;
+		}
+		List<Future<?>> futures = new ArrayList<>(numRanges - 1);
+		for (int chunk = 1; chunk < numRanges; chunk++) {
+			int from = rangeStart(chunk, numRanges, numItems);
+			int to = rangeStart(chunk + 1, numRanges, numItems);
+			final int finalChunk = chunk;
+			futures.add(submit(() -> task.run(finalChunk, from, to)));
+		}
+		try {
+			task.run(0, 0, rangeStart(1, numRanges, numItems));
+		} catch (Throwable t) {
+			waitFor(futures, t);
+		}
+		waitFor(futures);
+	}
+
+	/**
+	 * Runs runnable on a pool thread.  Pair with {@link #waitFor(List)}.
+	 */
+	@NonNull
+	public static Future<?> submit(@NonNull Runnable runnable) {
+		return getExecutor().submit(runnable);
+	}
+
+	/**
+	 * Waits for all futures.  Rethrows the first exception one of them threw.
+	 */
+	@WorkerThread
+	public static void waitFor(@NonNull List<Future<?>> futures) {
+		waitFor(futures, null);
+	}
+
+	private static void waitFor(@NonNull List<Future<?>> futures,
+			Throwable error) {
+		for (Future<?> future : futures) {
+			try {
+				future.get();
+			} catch (ExecutionException e) {
+				if (error == null) {
+					error = e.getCause();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				if (error == null) {
+					error = e;
+				}
+			}
+		}
+		if (error instanceof RuntimeException) {
+			throw (RuntimeException) error;
+		}
+		if (error instanceof Error) {
+			throw (Error) error;
+		}
+		if (error != null) {
+			throw new RuntimeException(error);
+		}
+	}
+
+	/**
+	 * @return First item of range chunk, when numItems is cut into numRanges
+	 */
+	public static int rangeStart(int chunk, int numRanges, int numItems) {
+		return (int) ((long) numItems * chunk / numRanges);
+	}
+}
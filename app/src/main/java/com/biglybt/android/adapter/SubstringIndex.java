@@ -0,0 +1,442 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.biglybt.android.adapter;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.*;
+import java.util.concurrent.Future;
+
+/**
+ * Upper-cased names of a filter's items, plus a trigram index over them, so
+ * substring queries don't upper-case and scan every name on every keystroke.
+ * <p/>
+ * {@link #update(List, StringGetter)} is called at the start of each
+ * filter pass; only items whose string changed are re-indexed, and items no
+ * longer in the list are dropped.  {@link #match(String)} then answers for
+ * that list.
+ * <p/>
+ * When the new constraint contains the previous one (the user typed another
+ * character), only the previous matches are checked.
+ * <p/>
+ * Large lists are read, upper-cased, indexed and confirmed on several
+ * threads via {@link ParallelWork}; the getter must be safe to call from
+ * them.
+ */
+public class SubstringIndex<T>
+{
+	private static final int GRAM = 3;
+
+	/** Power of 2 */
+	private static final int NUM_SHARDS = 16;
+
+	public interface StringGetter<T>
+	{
+		@Nullable
+		String getString(T item);
+	}
+
+	/**
+	 * Ascending slots holding one trigram.  Most trigrams are in a handful of
+	 * names, where a BitSet sized to the highest slot would be mostly zeros.
+	 */
+	private static final class Postings
+	{
+		int[] slots = new int[2];
+
+		int size;
+
+		void add(int slot) {
+			int i = Arrays.binarySearch(slots, 0, size, slot);
+			if (i >= 0) {
+				// gram occurs more than once in the name
+				return;
+			}
+			i = -i - 1;
+			if (size == slots.length) {
+				slots = Arrays.copyOf(slots, size * 2);
+			}
+			System.arraycopy(slots, i, slots, i + 1, size - i);
+			slots[i] = slot;
+			size++;
+		}
+
+		void remove(int slot) {
+			int i = Arrays.binarySearch(slots, 0, size, slot);
+			if (i < 0) {
+				return;
+			}
+			size--;
+			System.arraycopy(slots, i + 1, slots, i, size - i);
+			if (slots.length > 8 && size < slots.length / 4) {
+				slots = Arrays.copyOf(slots, slots.length / 2);
+			}
+		}
+
+		boolean contains(int slot) {
+			return Arrays.binarySearch(slots, 0, size, slot) >= 0;
+		}
+	}
+
+	private final Map<T, Integer> slotByItem = new HashMap<>();
+
+	private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+
+	private int numSlots;
+
+	/** As returned by {@link StringGetter}; compared to detect changes */
+	private String[] sources = new String[64];
+
+	/** sources, upper-cased with {@link Locale#US}. null if source was null */
+	private String[] uppers = new String[64];
+
+	private int[] seenInPass = new int[64];
+
+	private int pass;
+
+	/** Slot of each item in the list last passed to {@link #update} */
+	private int[] listSlots = new int[0];
+
+	/** Slots holding a non-null string */
+	private final BitSet live = new BitSet();
+
+	/** Slots holding "", which match any constraint */
+	private final BitSet empties = new BitSet();
+
+	/**
+	 * packed trigram -> slots whose upper-cased string contains it.  Split
+	 * into shards by {@link #shardOf(long)}, so shards can be filled on
+	 * separate threads.
+	 */
+	private final Map<Long, Postings>[] postings;
+
+	/** Bumped whenever a slot's string changes */
+	private long contentVersion;
+
+	private String lastConstraint;
+
+	private BitSet lastMatches;
+
+	private long lastMatchesVersion = -1;
+
+	public SubstringIndex() {
+		//noinspection unchecked
+		postings = new Map[NUM_SHARDS];
+		for (int i = 0; i < NUM_SHARDS; i++) {
+			postings[i] = new HashMap<>();
+		}
+	}
+
+	/**
+	 * Brings the index in line with items.
+	 *
+	 * @return Upper-cased string of each item, in list order.  null entries
+	 * for items without a string
+	 */
+	@NonNull
+	public synchronized String[] update(@NonNull List<T> items,
+			@NonNull StringGetter<T> getter) {
+		pass++;
+		int size = items.size();
+		String[] result = new String[size];
+		if (listSlots.length != size) {
+			listSlots = new int[size];
+		}
+
+		// Getting and upper-casing strings is most of a first build, so it's
+		// done in ranges.  Index state is only read here.
+		String[] strings = new String[size];
+		String[] newUppers = new String[size];
+		boolean[] changed = new boolean[size];
+		ParallelWork.forEachRange(size, (chunk, from, to) -> {
+			for (int i = from; i < to; i++) {
+				T item = items.get(i);
+				String s = getter.getString(item);
+				Integer slot = slotByItem.get(item);
+				if (slot == null || !Objects.equals(sources[slot], s)) {
+					strings[i] = s;
+					newUppers[i] = s == null ? null : s.toUpperCase(Locale.US);
+					changed[i] = true;
+				}
+			}
+		});
+
+		int[] toIndex = new int[16];
+		int numToIndex = 0;
+		for (int i = 0; i < size; i++) {
+			T item = items.get(i);
+			Integer slot = slotByItem.get(item);
+			if (changed[i]) {
+				// Recheck; item may be in the list twice
+				if (slot == null) {
+					slot = allocSlot();
+					slotByItem.put(item, slot);
+				} else if (!Objects.equals(sources[slot], strings[i])) {
+					clearSlot(slot);
+				} else {
+					changed[i] = false;
+				}
+				if (changed[i]) {
+					setString(slot, strings[i], newUppers[i]);
+					if (numToIndex == toIndex.length) {
+						toIndex = Arrays.copyOf(toIndex, numToIndex * 2);
+					}
+					toIndex[numToIndex++] = slot;
+				}
+			}
+			seenInPass[slot] = pass;
+			listSlots[i] = slot;
+			result[i] = uppers[slot];
+		}
+
+		if (slotByItem.size() > size) {
+			Iterator<Integer> iter = slotByItem.values().iterator();
+			while (iter.hasNext()) {
+				int slot = iter.next();
+				if (seenInPass[slot] != pass) {
+					iter.remove();
+					clearSlot(slot);
+					freeSlots.add(slot);
+				}
+			}
+		}
+
+		addPostings(toIndex, numToIndex);
+		return result;
+	}
+
+	private int allocSlot() {
+		Integer free = freeSlots.poll();
+		if (free != null) {
+			return free;
+		}
+		if (numSlots == sources.length) {
+			int capacity = numSlots * 2;
+			sources = Arrays.copyOf(sources, capacity);
+			uppers = Arrays.copyOf(uppers, capacity);
+			seenInPass = Arrays.copyOf(seenInPass, capacity);
+		}
+		return numSlots++;
+	}
+
+	private void setString(int slot, @Nullable String s,
+			@Nullable String upper) {
+		contentVersion++;
+		sources[slot] = s;
+		uppers[slot] = upper;
+		if (upper == null) {
+			return;
+		}
+		live.set(slot);
+		if (upper.isEmpty()) {
+			empties.set(slot);
+		}
+	}
+
+	/**
+	 * Adds the trigrams of slots to postings.  Large batches use one thread
+	 * per group of shards, so no two threads touch the same map.
+	 */
+	private void addPostings(@NonNull int[] slots, int num) {
+		int numWorkers = ParallelWork.getNumRanges(num);
+		List<Future<?>> futures = new ArrayList<>(numWorkers - 1);
+		for (int worker = 1; worker < numWorkers; worker++) {
+			final int finalWorker = worker;
+			futures.add(ParallelWork.submit(
+					() -> addPostings(slots, num, finalWorker, numWorkers)));
+		}
+		try {
+			addPostings(slots, num, 0, numWorkers);
+		} finally {
+			ParallelWork.waitFor(futures);
+		}
+	}
+
+	/**
+	 * Adds the trigrams of slots whose shard is worker modulo numWorkers
+	 */
+	private void addPostings(@NonNull int[] slots, int num, int worker,
+			int numWorkers) {
+		for (int n = 0; n < num; n++) {
+			String upper = uppers[slots[n]];
+			if (upper == null) {
+				continue;
+			}
+			for (int i = 0, end = upper.length() - GRAM; i <= end; i++) {
+				long gram = packGram(upper, i);
+				int shard = shardOf(gram);
+				if (shard % numWorkers != worker) {
+					continue;
+				}
+				Map<Long, Postings> map = postings[shard];
+				Postings list = map.get(gram);
+				if (list == null) {
+					list = new Postings();
+					map.put(gram, list);
+				}
+				list.add(slots[n]);
+			}
+		}
+	}
+
+	private void clearSlot(int slot) {
+		contentVersion++;
+		String upper = uppers[slot];
+		sources[slot] = null;
+		uppers[slot] = null;
+		live.clear(slot);
+		empties.clear(slot);
+		if (upper == null) {
+			return;
+		}
+		for (int i = 0, end = upper.length() - GRAM; i <= end; i++) {
+			long gram = packGram(upper, i);
+			Map<Long, Postings> map = postings[shardOf(gram)];
+			Postings slots = map.get(gram);
+			if (slots != null) {
+				slots.remove(slot);
+				if (slots.size == 0) {
+					map.remove(gram);
+				}
+			}
+		}
+	}
+
+	private static long packGram(@NonNull String s, int start) {
+		return ((long) s.charAt(start) << 32) | ((long) s.charAt(start + 1) << 16)
+				| s.charAt(start + 2);
+	}
+
+	private static int shardOf(long gram) {
+		return (int) (gram ^ (gram >>> 16) ^ (gram >>> 32)) & (NUM_SHARDS - 1);
+	}
+
+	/**
+	 * Same rules as {@link LetterFilter#constraintCheck}: items without a
+	 * string never match, empty strings always do.
+	 *
+	 * @param upperConstraint Already upper-cased with {@link Locale#US}
+	 * @return Whether each item of the list last passed to {@link #update}
+	 * matches, in list order
+	 */
+	@NonNull
+	public synchronized boolean[] match(@NonNull String upperConstraint) {
+		BitSet matches = matchSlots(upperConstraint);
+		boolean[] result = new boolean[listSlots.length];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = matches.get(listSlots[i]);
+		}
+		return result;
+	}
+
+	@NonNull
+	private BitSet matchSlots(@NonNull String constraint) {
+		BitSet candidates;
+		if (lastMatches != null && lastMatchesVersion == contentVersion
+				&& constraint.contains(lastConstraint)) {
+			// Anything matching the longer constraint matched the shorter one
+			candidates = (BitSet) lastMatches.clone();
+		} else {
+			candidates = (BitSet) live.clone();
+		}
+
+		if (constraint.length() >= GRAM) {
+			BitSet gramHits = new BitSet();
+			Postings[] lists = new Postings[constraint.length() - GRAM + 1];
+			Postings shortest = null;
+			for (int i = 0; i < lists.length; i++) {
+				long gram = packGram(constraint, i);
+				lists[i] = postings[shardOf(gram)].get(gram);
+				if (lists[i] == null) {
+					shortest = null;
+					break;
+				}
+				if (shortest == null || lists[i].size < shortest.size) {
+					shortest = lists[i];
+				}
+			}
+			if (shortest != null) {
+				// Walk the shortest list, probe the others
+				for (int j = 0; j < shortest.size; j++) {
+					int slot = shortest.slots[j];
+					if (!candidates.get(slot)) {
+						continue;
+					}
+					boolean inAll = true;
+					for (Postings list : lists) {
+						if (list != shortest && !list.contains(slot)) {
+							inAll = false;
+							break;
+						}
+					}
+					if (inAll) {
+						gramHits.set(slot);
+					}
+				}
+			}
+			gramHits.or(empties);
+			candidates.and(gramHits);
+		}
+
+		// Grams narrow it down; contains() confirms order and adjacency
+		int numCandidates = candidates.cardinality();
+		int[] slots = new int[numCandidates];
+		int n = 0;
+		for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(
+				slot + 1)) {
+			slots[n++] = slot;
+		}
+		boolean[] rejected = new boolean[numCandidates];
+		ParallelWork.forEachRange(numCandidates, (chunk, from, to) -> {
+			for (int i = from; i < to; i++) {
+				String upper = uppers[slots[i]];
+				rejected[i] = !upper.isEmpty() && !upper.contains(constraint);
+			}
+		});
+		for (int i = 0; i < numCandidates; i++) {
+			if (rejected[i]) {
+				candidates.clear(slots[i]);
+			}
+		}
+
+		lastConstraint = constraint;
+		lastMatches = candidates;
+		lastMatchesVersion = contentVersion;
+		return candidates;
+	}
+
+	public synchronized int size() {
+		return slotByItem.size();
+	}
+
+	public synchronized void clear() {
+		slotByItem.clear();
+		freeSlots.clear();
+		numSlots = 0;
+		Arrays.fill(sources, null);
+		Arrays.fill(uppers, null);
+		listSlots = new int[0];
+		live.clear();
+		empties.clear();
+		for (Map<Long, Postings> map : postings) {
+			map.clear();
+		}
+		contentVersion++;
+		lastMatches = null;
+	}
+}
@@ -34,6 +34,7 @@ import androidx.fragment.app.FragmentActivity;
 
 import com.biglybt.android.client.session.RemoteProfile;
 import com.biglybt.android.client.session.RemoteProfileFactory;
+import com.biglybt.android.client.session.TorrentListCache;
 import com.biglybt.android.util.FileUtils;
 import com.biglybt.android.util.JSONUtils;
 import com.biglybt.android.util.MapUtils;
@@ -444,6 +445,8 @@ public class AppPreferences
 				savePrefs();
 			}
 
+			TorrentListCache.delete(applicationContext.getCacheDir(), profileID);
+
 			if (mapRemote instanceof Map) {
 				RemoteProfile rp = RemoteProfileFactory.create((Map) mapRemote);
 				AnalyticsTracker.getInstance().sendEvent(AnalyticsTracker.CAT_PROFILE,
@@ -353,6 +353,7 @@ public class BiglyBTApp
 				if (AndroidUtils.DEBUG) {
 					Log.d(TAG, "onTrimMemory TRIM_MEMORY_BACKGROUND");
 				}
+				SessionManager.trimTorrentFilesCaches(0.5f);
 				break;
 			case TRIM_MEMORY_MODERATE:
 				// app in middle of background list 
@@ -376,6 +377,7 @@ public class BiglyBTApp
 				SessionManager.clearSubscriptionCaches(true);
 				SessionManager.clearTorrentCaches(true); // clear all except
 				// current
+				SessionManager.trimTorrentFilesCaches(0.5f);
 				break;
 			case TRIM_MEMORY_RUNNING_LOW: // Low memory
 				if (AndroidUtils.DEBUG) {
@@ -208,8 +208,11 @@ public class TorrentUtils
 	}
 
 	public static float getPercentDone(Map<?, ?> mapTorrent) {
-		float pct = MapUtils.getMapFloat(mapTorrent,
-				TransmissionVars.FIELD_TORRENT_PERCENT_DONE, 0);
+		float pct = (mapTorrent instanceof TorrentRow)
+				? ((TorrentRow) mapTorrent).getFloat(
+						TransmissionVars.FIELD_TORRENT_PERCENT_DONE, 0)
+				: MapUtils.getMapFloat(mapTorrent,
+						TransmissionVars.FIELD_TORRENT_PERCENT_DONE, 0);
 		if (pct == 0) {
 			float mdPct = MapUtils.getMapFloat(mapTorrent,
 					TransmissionVars.FIELD_TORRENT_METADATA_PERCENT_DONE, 0);
@@ -695,6 +695,8 @@ public class TransmissionVars
 
 	public static final String METHOD_TORRENT_STOP = "torrent-stop";
 
+	public static final String METHOD_BATCH = "batch";
+
 	//////////////////////////////////////////////////////////////////////////////
 	// RPC call method arguments
 
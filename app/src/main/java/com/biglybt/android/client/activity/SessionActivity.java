@@ -72,6 +72,14 @@ public abstract class SessionActivity
 		super.onRestart();
 	}
 
+	@Override
+	public void onUserInteraction() {
+		super.onUserInteraction();
+		if (session != null && !session.isDestroyed()) {
+			session.userInteracted();
+		}
+	}
+
 	@Override
 	protected void onResume() {
 		super.onResume();
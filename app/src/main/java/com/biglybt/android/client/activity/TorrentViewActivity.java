@@ -486,6 +486,10 @@ public class TorrentViewActivity
 			DialogFragmentAbout dlg = new DialogFragmentAbout();
 			AndroidUtilsUI.showDialog(dlg, getSupportFragmentManager(), "About");
 			return true;
+		} else if (itemId == R.id.action_refresh_stats) {
+			DialogFragmentRefreshStats.openDialog(getSupportFragmentManager(),
+					getRemoteProfileID());
+			return true;
 		} else if (itemId == R.id.action_giveback) {
 			DialogFragmentGiveback.openDialog(this, getSupportFragmentManager(), true,
 					TAG);
@@ -614,6 +618,11 @@ public class TorrentViewActivity
 			menuStopAll.setEnabled(uiReady && (isOnline || isLocalHost));
 		}
 
+		MenuItem menuRefreshStats = menu.findItem(R.id.action_refresh_stats);
+		if (menuRefreshStats != null) {
+			menuRefreshStats.setVisible(AndroidUtils.DEBUG && uiReady);
+		}
+
 		MenuItem menuShutdownCore = menu.findItem(R.id.action_shutdown);
 		if (menuShutdownCore != null) {
 			boolean visible = session != null
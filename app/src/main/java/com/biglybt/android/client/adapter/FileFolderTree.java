@@ -0,0 +1,463 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.biglybt.android.client.adapter;
+
+import android.util.SparseArray;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.biglybt.android.client.AndroidUtils;
+import com.biglybt.android.client.TorrentUtils;
+import com.biglybt.android.client.TransmissionVars;
+import com.biglybt.android.client.session.FilePathTrie;
+import com.biglybt.android.client.session.TorrentFileTable;
+import com.biglybt.android.util.MapUtils;
+
+import java.util.*;
+
+/**
+ * Folders of one torrent's file list, with sizes and counts rolled up.
+ * <p/>
+ * Built once per file list layout and kept across filter passes.  Each pass
+ * feeds every file's length, completed bytes, wanted and filter state through
+ * {@link #setFile}; only files where one of those changed touch their
+ * folders' totals.  {@link #newPass} then hands out fresh folder items for
+ * the adapter to diff against the last ones.
+ * <p/>
+ * Folder totals are only touched by the filter thread.  Expand state is set
+ * from the UI thread.
+ */
+class FileFolderTree
+{
+	static final class Folder
+	{
+		final int id;
+
+		/** Full path, with trailing slash.  Key for {@link FilesAdapterItemFolder} */
+		@NonNull
+		final String folder;
+
+		@Nullable
+		final Folder parent;
+
+		@NonNull
+		final String path;
+
+		@NonNull
+		final String name;
+
+		@NonNull
+		final List<Folder> children = new ArrayList<>(0);
+
+		/** Rows of files directly in this folder */
+		@NonNull
+		int[] directRows = new int[0];
+
+		/** Rows of files in this folder and below */
+		@NonNull
+		int[] rows = new int[0];
+
+		volatile boolean expand = true;
+
+		long size;
+
+		long sizeWanted;
+
+		long sizeWantedFiltered;
+
+		long bytesCompleted;
+
+		int numFilesWanted;
+
+		int numFilesFilteredWanted;
+
+		int numFilteredFiles;
+
+		Folder(int id, @NonNull String folder, @Nullable Folder parent,
+				@NonNull String path, @NonNull String name) {
+			this.id = id;
+			this.folder = folder;
+			this.parent = parent;
+			this.path = path;
+			this.name = name;
+		}
+	}
+
+	/**
+	 * Folder items and filter results of one pass, as given to the adapter.
+	 * Not changed once the pass is done.
+	 */
+	static final class Pass
+	{
+		@NonNull
+		final FileFolderTree tree;
+
+		@NonNull
+		final List<?> listFiles;
+
+		/** By {@link Folder#id} */
+		@NonNull
+		final FilesAdapterItemFolder[] items;
+
+		/** By row; whether the file passed the filter */
+		@NonNull
+		final boolean[] allowed;
+
+		Pass(@NonNull FileFolderTree tree, @NonNull List<?> listFiles) {
+			this.tree = tree;
+			this.listFiles = listFiles;
+			items = new FilesAdapterItemFolder[tree.folders.size()];
+			allowed = new boolean[tree.getNumRows()];
+		}
+
+		@NonNull
+		FilesAdapterItemFolder getItem(@NonNull Folder folder) {
+			return items[folder.id];
+		}
+	}
+
+	private final int numRows;
+
+	/** In creation order; parents always come before their children */
+	final List<Folder> folders = new ArrayList<>();
+
+	private final Map<String, Folder> foldersByPath = new HashMap<>();
+
+	@NonNull
+	final List<Folder> topFolders = new ArrayList<>();
+
+	/** Folder of each row.  null for files not in a folder */
+	@NonNull
+	private final Folder[] rowFolders;
+
+	/** When built from a {@link TorrentFileTable}, the trie rowNodes refer to */
+	@Nullable
+	private FilePathTrie trie;
+
+	@Nullable
+	private int[] rowNodes;
+
+	/** Row values last added to the totals */
+	private final long[] lengths;
+
+	private final long[] completed;
+
+	private final boolean[] wanted;
+
+	private final boolean[] allowed;
+
+	private final boolean[] counted;
+
+	private FileFolderTree(int numRows) {
+		this.numRows = numRows;
+		rowFolders = new Folder[numRows];
+		lengths = new long[numRows];
+		completed = new long[numRows];
+		wanted = new boolean[numRows];
+		allowed = new boolean[numRows];
+		counted = new boolean[numRows];
+	}
+
+	/**
+	 * @param old Tree to take folder expand states from
+	 */
+	@NonNull
+	static FileFolderTree build(@NonNull List<?> listFiles,
+			@Nullable FileFolderTree old) {
+		FileFolderTree tree;
+		if (listFiles instanceof TorrentFileTable) {
+			TorrentFileTable fileTable = (TorrentFileTable) listFiles;
+			synchronized (fileTable) {
+				tree = new FileFolderTree(fileTable.size());
+				tree.trie = fileTable.getTrie();
+				tree.rowNodes = new int[tree.numRows];
+				SparseArray<Folder> foldersByNode = new SparseArray<>();
+				for (int row = 0; row < tree.numRows; row++) {
+					int node = fileTable.getFolderNode(row);
+					tree.rowNodes[row] = node;
+					tree.rowFolders[row] = tree.ensureFolder(node, foldersByNode);
+				}
+			}
+		} else {
+			tree = new FileFolderTree(listFiles.size());
+			for (int row = 0; row < tree.numRows; row++) {
+				String name = MapUtils.getMapString((Map<?, ?>) listFiles.get(row),
+						TransmissionVars.FIELD_FILES_NAME, "");
+				tree.rowFolders[row] = tree.ensureFolder(getFolderWithSlash(name));
+			}
+		}
+
+		tree.fillRows();
+
+		if (old != null) {
+			for (Folder folder : tree.folders) {
+				Folder oldFolder = old.foldersByPath.get(folder.folder);
+				if (oldFolder != null) {
+					folder.expand = oldFolder.expand;
+				}
+			}
+		}
+		return tree;
+	}
+
+	@NonNull
+	static String getFolderWithSlash(@NonNull String name) {
+		int folderBreaksAt = AndroidUtils.lastindexOfAny(name,
+				TorrentUtils.ANYSLASH, -1);
+		return folderBreaksAt <= 0 ? "" : name.substring(0, folderBreaksAt + 1);
+	}
+
+	@NonNull
+	private Folder addFolder(@NonNull String folderWalk, @Nullable Folder parent,
+			@NonNull String path, @NonNull String name) {
+		Folder folder = new Folder(folders.size(), folderWalk, parent, path, name);
+		folders.add(folder);
+		foldersByPath.put(folderWalk, folder);
+		if (parent == null) {
+			topFolders.add(folder);
+		} else {
+			parent.children.add(folder);
+		}
+		return folder;
+	}
+
+	@Nullable
+	private Folder ensureFolder(@NonNull String folderWithSlash) {
+		if (folderWithSlash.isEmpty()) {
+			return null;
+		}
+		Folder existing = foldersByPath.get(folderWithSlash);
+		if (existing != null) {
+			return existing;
+		}
+
+		// add folder and parents
+		String[] folderSplit = FilesTreeAdapter.patternFolderSplit.split(
+				folderWithSlash);
+		int startAt = folderSplit[0].length() == 0 ? 1 : 0;
+		int pos = startAt;
+		Folder last = null;
+		for (int j = startAt; j < folderSplit.length; j++) {
+			int oldPos = pos;
+			pos += folderSplit[j].length() + 1;
+			String folderWalk = folderWithSlash.substring(0, pos);
+
+			existing = foldersByPath.get(folderWalk);
+			last = existing != null ? existing
+					: addFolder(folderWalk, last, folderWithSlash.substring(0, oldPos),
+							folderSplit[j]);
+		}
+		return last;
+	}
+
+	/**
+	 * Trie version of {@link #ensureFolder(String)}.
+	 * Caller must hold the file table's lock.
+	 */
+	@Nullable
+	private Folder ensureFolder(int node,
+			@NonNull SparseArray<Folder> foldersByNode) {
+		if (node == FilePathTrie.ROOT) {
+			return null;
+		}
+		Folder existing = foldersByNode.get(node);
+		if (existing != null) {
+			return existing;
+		}
+		//noinspection ConstantConditions
+		FilePathTrie trie = this.trie;
+		int parentNode = trie.getParent(node);
+		Folder parent = ensureFolder(parentNode, foldersByNode);
+		Folder folder = addFolder(trie.getPath(node), parent,
+				trie.getPath(parentNode), trie.getSegment(node));
+		foldersByNode.put(node, folder);
+		return folder;
+	}
+
+	private void fillRows() {
+		int numFolders = folders.size();
+		int[] numDirect = new int[numFolders];
+		int[] numAll = new int[numFolders];
+		for (Folder folder : rowFolders) {
+			if (folder == null) {
+				continue;
+			}
+			numDirect[folder.id]++;
+			for (Folder f = folder; f != null; f = f.parent) {
+				numAll[f.id]++;
+			}
+		}
+		for (Folder folder : folders) {
+			folder.directRows = new int[numDirect[folder.id]];
+			folder.rows = new int[numAll[folder.id]];
+		}
+		Arrays.fill(numDirect, 0);
+		Arrays.fill(numAll, 0);
+		for (int row = 0; row < numRows; row++) {
+			Folder folder = rowFolders[row];
+			if (folder == null) {
+				continue;
+			}
+			folder.directRows[numDirect[folder.id]++] = row;
+			for (Folder f = folder; f != null; f = f.parent) {
+				f.rows[numAll[f.id]++] = row;
+			}
+		}
+	}
+
+	/**
+	 * @return Whether listFiles still has the folders and rows this tree was
+	 * built from
+	 */
+	boolean isLayoutOf(@NonNull List<?> listFiles) {
+		if (listFiles instanceof TorrentFileTable) {
+			TorrentFileTable fileTable = (TorrentFileTable) listFiles;
+			int[] rowNodes = this.rowNodes;
+			synchronized (fileTable) {
+				if (rowNodes == null || trie != fileTable.getTrie()
+						|| fileTable.size() != numRows) {
+					return false;
+				}
+				for (int row = 0; row < numRows; row++) {
+					if (fileTable.getFolderNode(row) != rowNodes[row]) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+
+		if (rowNodes != null || listFiles.size() != numRows) {
+			return false;
+		}
+		for (int row = 0; row < numRows; row++) {
+			String name = MapUtils.getMapString((Map<?, ?>) listFiles.get(row),
+					TransmissionVars.FIELD_FILES_NAME, "");
+			int folderBreaksAt = AndroidUtils.lastindexOfAny(name,
+					TorrentUtils.ANYSLASH, -1);
+			int folderLength = folderBreaksAt <= 0 ? 0 : folderBreaksAt + 1;
+			Folder folder = rowFolders[row];
+			if (folder == null ? folderLength != 0
+					: folderLength != folder.folder.length()
+							|| !name.startsWith(folder.folder)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	int getNumRows() {
+		return numRows;
+	}
+
+	@Nullable
+	Folder getFolder(int row) {
+		return rowFolders[row];
+	}
+
+	@Nullable
+	Folder getFolder(@NonNull String folderWithSlash) {
+		return foldersByPath.get(folderWithSlash);
+	}
+
+	/**
+	 * Brings row's share of its folders' totals up to date.  Files not in a
+	 * folder are ignored.
+	 */
+	void setFile(int row, long length, long completed, boolean wanted,
+			boolean allowed) {
+		Folder folder = rowFolders[row];
+		if (folder == null) {
+			return;
+		}
+		if (counted[row]) {
+			if (lengths[row] == length && this.completed[row] == completed
+					&& this.wanted[row] == wanted && this.allowed[row] == allowed) {
+				return;
+			}
+			addToFolders(folder, lengths[row], this.completed[row],
+					this.wanted[row], this.allowed[row], -1);
+		}
+		addToFolders(folder, length, completed, wanted, allowed, 1);
+		lengths[row] = length;
+		this.completed[row] = completed;
+		this.wanted[row] = wanted;
+		this.allowed[row] = allowed;
+		counted[row] = true;
+	}
+
+	private static void addToFolders(@NonNull Folder folder, long length,
+			long completed, boolean wanted, boolean allowed, int sign) {
+		for (Folder f = folder; f != null; f = f.parent) {
+			f.size += sign * length;
+			f.bytesCompleted += sign * completed;
+			if (allowed) {
+				f.numFilteredFiles += sign;
+			}
+			if (wanted) {
+				f.sizeWanted += sign * length;
+				f.numFilesWanted += sign;
+				if (allowed) {
+					f.numFilesFilteredWanted += sign;
+					f.sizeWantedFiltered += sign * length;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates the folder items for a pass.  Their totals are filled in by
+	 * {@link #finishPass(Pass, List)}, after every row went through
+	 * {@link #setFile}.
+	 */
+	@NonNull
+	Pass newPass(@NonNull List<?> listFiles) {
+		Pass pass = new Pass(this, listFiles);
+		for (Folder folder : folders) {
+			Folder parent = folder.parent;
+			FilesAdapterItemFolder item = new FilesAdapterItemFolder(folder.folder,
+					parent == null ? null : pass.items[parent.id], folder.path,
+					folder.name);
+			item.expand = folder.expand;
+			item.fileIndexes = folder.rows;
+			item.filteredRows = pass.allowed;
+			pass.items[folder.id] = item;
+		}
+		return pass;
+	}
+
+	/**
+	 * Copies folder totals into the pass' items, and adds the visible folders
+	 * that have files passing the filter to list
+	 */
+	void finishPass(@NonNull Pass pass, @NonNull List<FilesAdapterItem> list) {
+		for (Folder folder : folders) {
+			FilesAdapterItemFolder item = pass.items[folder.id];
+			item.size = folder.size;
+			item.sizeWanted = folder.sizeWanted;
+			item.sizeWantedFiltered = folder.sizeWantedFiltered;
+			item.bytesCompleted = folder.bytesCompleted;
+			item.numFilesWanted = folder.numFilesWanted;
+			item.numFilesFilteredWanted = folder.numFilesFilteredWanted;
+			item.numFilteredFiles = folder.numFilteredFiles;
+			if (item.numFilteredFiles > 0 && item.parentsExpanded()) {
+				list.add(item);
+			}
+		}
+	}
+}
@@ -37,14 +37,20 @@ public class FilesAdapterItemFolder
 
 	public int numFilesFilteredWanted;
 
+	/** Rows of all files in and below this folder.  Shared, don't modify */
 	@NonNull
-	private final List<Integer> fileIndexes = new ArrayList<>();
+	int[] fileIndexes = new int[0];
 
-	@NonNull
-	private final List<Integer> filteredFileIndexes = new ArrayList<>();
+	/** Which rows passed the filter, by row.  Shared by a pass' folders */
+	@Nullable
+	boolean[] filteredRows;
+
+	int numFilteredFiles;
 
 	public long size;
 
+	public long bytesCompleted;
+
 	public long sizeWanted;
 
 	public long sizeWantedFiltered;
@@ -71,49 +77,34 @@ public class FilesAdapterItemFolder
 		return parent == null || parent.expand && parent.parentsExpanded();
 	}
 
-	void summarizeFile(int index, long length, boolean wanted, boolean allowed) {
-		size += length;
-		fileIndexes.add(index);
-		if (allowed) {
-			filteredFileIndexes.add(index);
-		}
-		if (wanted) {
-			sizeWanted += length;
-			numFilesWanted++;
-			if (allowed) {
-				numFilesFilteredWanted++;
-				sizeWantedFiltered += length;
-			}
-		}
-		if (parent != null) {
-			parent.summarizeFile(index, length, wanted, allowed);
-		}
-	}
-
 	public int getNumFiles() {
-		return fileIndexes.size();
+		return fileIndexes.length;
 	}
 
 	@NonNull
 	public int[] getFileIndexes() {
-		int[] indexesArray = new int[fileIndexes.size()];
-		for (int i = 0; i < fileIndexes.size(); i++) {
-			indexesArray[i] = fileIndexes.get(i);
-		}
-		return indexesArray;
+		return fileIndexes.clone();
 	}
 
 	public int getNumFilteredFiles() {
-		return filteredFileIndexes.size();
+		return numFilteredFiles;
 	}
 
 	@NonNull
 	public int[] getFilteredFileIndexes() {
-		int[] indexesArray = new int[filteredFileIndexes.size()];
-		for (int i = 0; i < filteredFileIndexes.size(); i++) {
-			indexesArray[i] = filteredFileIndexes.get(i);
+		boolean[] filteredRows = this.filteredRows;
+		if (filteredRows == null) {
+			return new int[0];
+		}
+		int[] indexesArray = new int[numFilteredFiles];
+		int num = 0;
+		for (int index : fileIndexes) {
+			if (filteredRows[index] && num < indexesArray.length) {
+				indexesArray[num++] = index;
+			}
 		}
-		return indexesArray;
+		return num == indexesArray.length ? indexesArray
+				: Arrays.copyOf(indexesArray, num);
 	}
 
 	@Override
@@ -44,6 +44,7 @@ import com.biglybt.util.DisplayFormatters;
 import com.biglybt.util.Thunk;
 
 import java.text.NumberFormat;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -273,11 +274,18 @@ public class FilesTreeAdapter
 
 	public void setExpandState(@NonNull FilesAdapterItemFolder folder,
 			boolean expand) {
-		folder.expand = expand;
+		FilesTreeFilter filter = getFilter();
+		filter.setFolderExpanded(folder, expand);
 		int adapterPosition = getPositionForItem(folder);
 		safeNotifyItemChanged(adapterPosition);
 		if (expand) {
-			getFilter().refilter(false);
+			List<FilesAdapterItem> subtree = adapterPosition < 0 ? null
+					: filter.getExpandedSubtree(folder);
+			if (subtree == null) {
+				filter.refilter(false);
+			} else {
+				addItems(adapterPosition + 1, subtree);
+			}
 		} else {
 			int count = 0;
 			FilesAdapterItem nextItem = getItem(adapterPosition + count + 1);
@@ -664,6 +672,31 @@ public class FilesTreeAdapter
 		return array;
 	}
 
+	/**
+	 * Marks the rows of files shown at positions first to last.  Folders shown
+	 * there add the rows their totals are made of, as long as they fit in
+	 * maxFolderRows.
+	 */
+	public void addRowsInRange(int first, int last, int maxFolderRows,
+			@NonNull BitSet rows) {
+		int folderRowsLeft = maxFolderRows;
+		last = Math.min(last, getItemCount() - 1);
+		for (int position = Math.max(0, first); position <= last; position++) {
+			FilesAdapterItem item = getItem(position);
+			if (item instanceof FilesAdapterItemFile) {
+				rows.set(((FilesAdapterItemFile) item).fileIndex);
+			} else if (item instanceof FilesAdapterItemFolder) {
+				int[] fileIndexes = ((FilesAdapterItemFolder) item).fileIndexes;
+				if (fileIndexes.length <= folderRowsLeft) {
+					folderRowsLeft -= fileIndexes.length;
+					for (int row : fileIndexes) {
+						rows.set(row);
+					}
+				}
+			}
+		}
+	}
+
 	@Override
 	public void onSaveInstanceState(@NonNull Bundle outState) {
 		super.onSaveInstanceState(outState);
@@ -23,10 +23,13 @@ import android.util.SparseArray;
 import android.widget.SectionIndexer;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.biglybt.android.adapter.*;
 import com.biglybt.android.client.*;
 import com.biglybt.android.client.session.Session;
+import com.biglybt.android.client.session.FilePathTrie;
+import com.biglybt.android.client.session.TorrentFileTable;
 import com.biglybt.android.util.MapUtils;
 import com.biglybt.util.Thunk;
 import com.simplecityapps.recyclerview_fastscroll.views.FastScrollRecyclerView;
@@ -63,7 +66,7 @@ public class FilesTreeFilter
 
 	private static final String RESULTFIELD_LIST = "list";
 
-	private static final String RESULTFIELD_FOLDERS = "folders";
+	private static final String RESULTFIELD_TREE_PASS = "treePass";
 
 	private static final String RESULTFIELD_SECTIONS = "sections";
 
@@ -85,8 +88,13 @@ public class FilesTreeFilter
 
 	private final long torrentID;
 
+	/** Only replaced by the filter thread, when the file layout changes */
 	@Thunk
-	Map<String, FilesAdapterItemFolder> mapFolders;
+	volatile FileFolderTree folderTree;
+
+	/** Tree pass the adapter is showing; null when not showing a tree */
+	@Thunk
+	volatile FileFolderTree.Pass shownPass;
 
 	@Thunk
 	String[] sections;
@@ -125,6 +133,11 @@ public class FilesTreeFilter
 
 	private int defaultSortID;
 
+	/** Short names of this torrent's files, keyed by file index */
+	private final SubstringIndex<Integer> nameIndex = new SubstringIndex<>();
+
+	private List<Integer> nameIndexKeys = Collections.emptyList();
+
 	FilesTreeFilter(long torrentID,
 			SessionAdapterFilterTalkback<FilesAdapterItem> talkback) {
 		super(talkback);
@@ -236,37 +249,47 @@ public class FilesTreeFilter
 		List<FilesAdapterItem> list = new ArrayList<>();
 		int listFilesSize = listFiles.size();
 
-		HashSet<String> setLetters = null;
-		HashMap<String, Integer> mapLetterCount = null;
-		if (isBuildLetters()) {
-			setLetters = new HashSet<>();
-			mapLetterCount = new HashMap<>();
+		TorrentFileTable fileTable = (listFiles instanceof TorrentFileTable)
+				? (TorrentFileTable) listFiles : null;
+
+		String[] shortNames = new String[listFilesSize];
+		for (int i = 0; i < listFilesSize; i++) {
+			String shortName;
+			if (fileTable != null) {
+				shortName = fileTable.getName(i);
+			} else {
+				shortName = MapUtils.getMapString((Map<?, ?>) listFiles.get(i),
+						TransmissionVars.FIELD_FILES_NAME, "");
+			}
+			shortNames[i] = shortName == null ? "" : shortName;
 		}
-		String constraintString = constraint == null ? "" : constraint.toString();
+		NameMatches nameMatches = matchNames(shortNames);
 
 		for (int i = 0; i < listFilesSize; i++) {
 			@SuppressWarnings("unchecked")
 			Map<String, Object> mapFile = (Map<String, Object>) listFiles.get(i);
 
-			boolean wanted = MapUtils.getMapBoolean(mapFile,
-					TransmissionVars.FIELD_FILESTATS_WANTED, true);
-			long length = MapUtils.getMapLong(mapFile,
-					TransmissionVars.FIELD_FILES_LENGTH, 0);
-
-			String shortName = MapUtils.getMapString(mapFile,
-					TransmissionVars.FIELD_FILES_NAME, "");
+			boolean wanted;
+			long length;
+			if (fileTable != null) {
+				wanted = fileTable.isWanted(i, true);
+				length = fileTable.getLength(i, 0);
+			} else {
+				wanted = MapUtils.getMapBoolean(mapFile,
+						TransmissionVars.FIELD_FILESTATS_WANTED, true);
+				length = MapUtils.getMapLong(mapFile,
+						TransmissionVars.FIELD_FILES_LENGTH, 0);
+			}
+			String shortName = shortNames[i];
 			String path = "";
 
-			boolean allowed = filterCheck(mapFile) && constraintCheck(
-					constraintString, shortName, setLetters, mapLetterCount);
+			boolean allowed = filterCheck(mapFile) && nameMatches.matches(i);
+			if (!allowed) {
+				nameMatches.reject(i);
+			}
 
 			if (allowed) {
-				FilesAdapterItemFile f = Build.VERSION.SDK_INT >= 19
-						? new FilesAdapterItemFile19(i, null, path, shortName, wanted,
-								mapFile)
-						: new FilesAdapterItemFile(i, null, path, shortName, wanted,
-								mapFile);
-				list.add(f);
+				list.add(createFileItem(i, null, path, shortName, wanted, mapFile));
 				totalFilteredNumFiles++;
 			}
 
@@ -289,12 +312,7 @@ public class FilesTreeFilter
 		map.put(RESULTFIELD_TOTAL_SIZE_WANTED, totalSizeWanted);
 		map.put(RESULTFIELD_TOTAL_NUM_FILES_WANTED, totalNumFilesWanted);
 
-		if (mapLetterCount != null) {
-			LettersUpdatedListener lettersUpdatedListener = getLettersUpdatedListener();
-			if (lettersUpdatedListener != null) {
-				lettersUpdatedListener.lettersUpdated(mapLetterCount);
-			}
-		}
+		updateLetters(nameMatches);
 
 		return list;
 	}
@@ -309,94 +327,103 @@ public class FilesTreeFilter
 		int totalFilteredNumFiles = 0;
 
 		List<FilesAdapterItem> list = new ArrayList<>();
-		int listFilesSize = listFiles.size();
 
-		Map<String, FilesAdapterItemFolder> mapFoldersNew = new HashMap<>();
+		// Folders and their totals carry over; only rebuilt when files move
+		FileFolderTree tree = folderTree;
+		if (tree == null || !tree.isLayoutOf(listFiles)) {
+			tree = FileFolderTree.build(listFiles, tree);
+			folderTree = tree;
+		}
+		FileFolderTree.Pass pass = tree.newPass(listFiles);
+		int listFilesSize = tree.getNumRows();
+
+		TorrentFileTable fileTable = (listFiles instanceof TorrentFileTable)
+				? (TorrentFileTable) listFiles : null;
 
-		HashSet<String> setLetters = null;
-		HashMap<String, Integer> mapLetterCount = null;
-		if (isBuildLetters()) {
-			setLetters = new HashSet<>();
-			mapLetterCount = new HashMap<>();
+		String[] shortNames = new String[listFilesSize];
+		for (int i = 0; i < listFilesSize; i++) {
+			String shortName;
+			if (fileTable != null) {
+				shortName = fileTable.getShortName(i);
+			} else {
+				String name = MapUtils.getMapString((Map<?, ?>) listFiles.get(i),
+						TransmissionVars.FIELD_FILES_NAME, "");
+				FileFolderTree.Folder folder = tree.getFolder(i);
+				shortName = folder == null ? name
+						: name.substring(folder.folder.length());
+			}
+			shortNames[i] = shortName == null ? "" : shortName;
 		}
-		String constraintString = constraint == null ? "" : constraint.toString();
+		NameMatches nameMatches = matchNames(shortNames);
 
 		for (int i = 0; i < listFilesSize; i++) {
 			@SuppressWarnings("unchecked")
 			Map<String, Object> mapFile = (Map<String, Object>) listFiles.get(i);
 
-			boolean wanted = MapUtils.getMapBoolean(mapFile,
-					TransmissionVars.FIELD_FILESTATS_WANTED, true);
-			long length = MapUtils.getMapLong(mapFile,
-					TransmissionVars.FIELD_FILES_LENGTH, 0);
-			String name = MapUtils.getMapString(mapFile,
-					TransmissionVars.FIELD_FILES_NAME, "");
-
-			// Get the folder name and see if we added it yet
-			int folderBreaksAt = AndroidUtils.lastindexOfAny(name,
-					TorrentUtils.ANYSLASH, -1);
-			String folderWithSlash = folderBreaksAt <= 0 ? ""
-					: name.substring(0, folderBreaksAt + 1);
-			FilesAdapterItemFolder folderItem = ensureParentFolders(folderWithSlash,
-					mapFoldersNew, mapFolders, list);
-
-			String shortName = name.substring(folderWithSlash.length());
+			FileFolderTree.Folder folder = tree.getFolder(i);
+			boolean wanted;
+			long length;
+			long completed;
+			if (fileTable != null) {
+				wanted = fileTable.isWanted(i, true);
+				length = fileTable.getLength(i, 0);
+				completed = fileTable.getBytesCompleted(i, 0);
+			} else {
+				wanted = MapUtils.getMapBoolean(mapFile,
+						TransmissionVars.FIELD_FILESTATS_WANTED, true);
+				length = MapUtils.getMapLong(mapFile,
+						TransmissionVars.FIELD_FILES_LENGTH, 0);
+				completed = MapUtils.getMapLong(mapFile,
+						TransmissionVars.FIELD_FILESTATS_BYTES_COMPLETED, 0);
+			}
+			String shortName = shortNames[i];
 
-			boolean allowed = filterCheck(mapFile) && constraintCheck(
-					constraintString, shortName, setLetters, mapLetterCount);
+			boolean allowed = filterCheck(mapFile) && nameMatches.matches(i);
+			if (!allowed) {
+				nameMatches.reject(i);
+			}
+			pass.allowed[i] = allowed;
 
-			boolean addFile = false;
+			FilesAdapterItemFolder folderItem = null;
+			boolean addFile;
 
-			if (folderItem == null) {
-				// probably root
+			if (folder == null) {
+				// root
+				addFile = allowed;
 				if (allowed) {
-					addFile = true;
 					totalFilteredNumFiles++;
 				}
-				if (folderWithSlash.length() == 0) {
-					if (wanted) {
-						if (allowed) {
-							totalFilteredNumFilesWanted++;
-							totalFilteredSizeWanted += length;
-						} else {
-							totalNumFilesWanted++;
-							totalSizeWanted += length;
-						}
+				if (wanted) {
+					if (allowed) {
+						totalFilteredNumFilesWanted++;
+						totalFilteredSizeWanted += length;
+					} else {
+						totalNumFilesWanted++;
+						totalSizeWanted += length;
 					}
 				}
 			} else {
-				folderItem.summarizeFile(i, length, wanted, allowed);
+				tree.setFile(i, length, completed, wanted, allowed);
+				folderItem = pass.getItem(folder);
 				addFile = allowed && folderItem.expand && folderItem.parentsExpanded();
 			}
 
 			if (addFile) {
-				FilesAdapterItemFile f = Build.VERSION.SDK_INT >= 19
-						? new FilesAdapterItemFile19(i, folderItem, folderWithSlash,
-								shortName, wanted, mapFile)
-						: new FilesAdapterItemFile(i, folderItem, folderWithSlash,
-								shortName, wanted, mapFile);
-				list.add(f);
+				list.add(createFileItem(i, folderItem,
+						folder == null ? "" : folder.folder, shortName, wanted, mapFile));
 			}
 		}
 
-		// calculate global totals
-		// remove empty folders
-		for (String key : mapFoldersNew.keySet()) {
-			FilesAdapterItemFolder folderItem = mapFoldersNew.get(key);
-			if (folderItem == null) {
-				continue;
-			}
-			if (folderItem.level == 0) {
-				totalFilteredSizeWanted += folderItem.sizeWantedFiltered;
-				totalFilteredNumFilesWanted += folderItem.numFilesFilteredWanted;
-				totalFilteredNumFiles += folderItem.getNumFilteredFiles();
+		// adds folders with files passing the filter
+		tree.finishPass(pass, list);
 
-				totalSizeWanted += folderItem.sizeWanted;
-				totalNumFilesWanted += folderItem.numFilesWanted;
-			}
-			if (folderItem.getNumFilteredFiles() == 0) {
-				list.remove(folderItem);
-			}
+		for (FileFolderTree.Folder folder : tree.topFolders) {
+			totalFilteredSizeWanted += folder.sizeWantedFiltered;
+			totalFilteredNumFilesWanted += folder.numFilesFilteredWanted;
+			totalFilteredNumFiles += folder.numFilteredFiles;
+
+			totalSizeWanted += folder.sizeWanted;
+			totalNumFilesWanted += folder.numFilesWanted;
 		}
 
 		map.put(RESULTFIELD_TOTAL_FILTERED_SIZE_WANTED, totalFilteredSizeWanted);
@@ -407,67 +434,183 @@ public class FilesTreeFilter
 		map.put(RESULTFIELD_TOTAL_SIZE_WANTED, totalSizeWanted);
 		map.put(RESULTFIELD_TOTAL_NUM_FILES_WANTED, totalNumFilesWanted);
 
-		map.put(RESULTFIELD_FOLDERS, mapFoldersNew);
+		map.put(RESULTFIELD_TREE_PASS, pass);
+
+		updateLetters(nameMatches);
+
+		return list;
+	}
+
+	/**
+	 * Upper-cased short names from {@link #nameIndex}, and which ones pass the
+	 * text constraint
+	 */
+	private static class NameMatches
+	{
+		@NonNull
+		final String upperConstraint;
+
+		/** null when nothing needs the names (no constraint, no letters) */
+		@Nullable
+		final String[] uppers;
+
+		/** null when there's no constraint */
+		@Nullable
+		final boolean[] matches;
+
+		NameMatches(@NonNull String upperConstraint, @Nullable String[] uppers,
+				@Nullable boolean[] matches) {
+			this.upperConstraint = upperConstraint;
+			this.uppers = uppers;
+			this.matches = matches;
+		}
+
+		boolean matches(int i) {
+			return matches == null || matches[i];
+		}
 
-		if (mapLetterCount != null) {
-			LettersUpdatedListener lettersUpdatedListener = getLettersUpdatedListener();
-			if (lettersUpdatedListener != null) {
-				lettersUpdatedListener.lettersUpdated(mapLetterCount);
+		/** Leaves file out of the letter counts */
+		void reject(int i) {
+			if (uppers != null) {
+				uppers[i] = null;
 			}
 		}
+	}
 
-		return list;
+	@NonNull
+	private NameMatches matchNames(@NonNull String[] shortNames) {
+		String upperConstraint = constraint == null ? ""
+				: constraint.toString().toUpperCase(Locale.US);
+		boolean hasConstraint = !upperConstraint.isEmpty();
+		if (!hasConstraint && !isBuildLetters()) {
+			return new NameMatches(upperConstraint, null, null);
+		}
+
+		int num = shortNames.length;
+		if (nameIndexKeys.size() != num) {
+			List<Integer> keys = new ArrayList<>(num);
+			for (int i = 0; i < num; i++) {
+				keys.add(i);
+			}
+			nameIndexKeys = keys;
+		}
+		String[] uppers = nameIndex.update(nameIndexKeys,
+				fileIndex -> shortNames[fileIndex]);
+		boolean[] matches = hasConstraint ? nameIndex.match(upperConstraint)
+				: null;
+		return new NameMatches(upperConstraint, uppers, matches);
+	}
+
+	private void updateLetters(@NonNull NameMatches nameMatches) {
+		if (!isBuildLetters() || nameMatches.uppers == null) {
+			return;
+		}
+		HashMap<String, Integer> mapLetterCount = countLetters(
+				nameMatches.upperConstraint, nameMatches.uppers);
+		LettersUpdatedListener lettersUpdatedListener = getLettersUpdatedListener();
+		if (lettersUpdatedListener != null) {
+			lettersUpdatedListener.lettersUpdated(mapLetterCount);
+		}
+	}
+
+	@NonNull
+	private static FilesAdapterItemFile createFileItem(int fileIndex,
+			@Nullable FilesAdapterItemFolder parent, @NonNull String path,
+			@NonNull String name, boolean want, Map<String, Object> mapFile) {
+		return Build.VERSION.SDK_INT >= 19
+				? new FilesAdapterItemFile19(fileIndex, parent, path, name, want,
+						mapFile)
+				: new FilesAdapterItemFile(fileIndex, parent, path, name, want,
+						mapFile);
 	}
 
-	private static FilesAdapterItemFolder ensureParentFolders(
-			String folderWithSlash, Map<String, FilesAdapterItemFolder> mapFoldersNew,
-			Map<String, FilesAdapterItemFolder> mapFolders,
-			List<FilesAdapterItem> list) {
-		if (folderWithSlash.isEmpty()) {
+	/**
+	 * Sets expand state for the shown folder item and for the next pass
+	 */
+	void setFolderExpanded(@NonNull FilesAdapterItemFolder folderItem,
+			boolean expand) {
+		folderItem.expand = expand;
+		FileFolderTree.Pass pass = shownPass;
+		FileFolderTree tree = folderTree;
+		FileFolderTree.Folder folder = tree == null ? null
+				: tree.getFolder(folderItem.folder);
+		if (folder != null) {
+			folder.expand = expand;
+		}
+		if (pass != null && pass.tree != tree) {
+			folder = pass.tree.getFolder(folderItem.folder);
+			if (folder != null) {
+				folder.expand = expand;
+			}
+		}
+	}
+
+	/**
+	 * Items that show under an expanded folder, sorted, built from the shown
+	 * pass so they can be spliced in after the folder without refiltering.
+	 *
+	 * @return null if folderItem isn't from the shown tree
+	 */
+	@Nullable
+	List<FilesAdapterItem> getExpandedSubtree(
+			@NonNull FilesAdapterItemFolder folderItem) {
+		FileFolderTree.Pass pass = shownPass;
+		if (pass == null) {
 			return null;
 		}
-		FilesAdapterItemFolder existing = mapFoldersNew.get(folderWithSlash);
-		if (existing != null) {
-			return existing;
-		}
-
-		// add folder and parents
-		String[] folderSplit = FilesTreeAdapter.patternFolderSplit.split(
-				folderWithSlash);
-		int startAt = folderSplit[0].length() == 0 ? 1 : 0;
-		int pos = startAt;
-		FilesAdapterItemFolder last = null;
-		for (int j = startAt; j < folderSplit.length; j++) {
-			int oldPos = pos;
-			pos += folderSplit[j].length() + 1;
-			String folderWalk = folderWithSlash.substring(0, pos);
-
-			existing = mapFoldersNew.get(folderWalk);
-			if (existing == null) {
-				String path = folderWithSlash.substring(0, oldPos);
-				String folderName = folderSplit[j];
-
-				FilesAdapterItemFolder displayFolder = new FilesAdapterItemFolder(
-						folderWalk, last, path, folderName);
-				last = displayFolder;
-//						Log.e(TAG, i + "." + j + "] " + folderName + "] " + folderWalk
-//								+ " for " + name);
-				if (mapFolders != null) {
-					FilesAdapterItemFolder oldFolder = mapFolders.get(folderWalk);
-					if (oldFolder != null) {
-						displayFolder.expand = oldFolder.expand;
-					}
-				}
-				mapFoldersNew.put(folderWalk, displayFolder);
-				if (displayFolder.getNumFiles() == 0
-						&& displayFolder.parentsExpanded()) {
-					list.add(displayFolder);
+		FileFolderTree.Folder folder = pass.tree.getFolder(folderItem.folder);
+		if (folder == null || pass.getItem(folder) != folderItem) {
+			return null;
+		}
+		List<FilesAdapterItem> list = new ArrayList<>();
+		addSubtree(pass, folder, list);
+		doSort(list);
+		return list;
+	}
+
+	private static void addSubtree(@NonNull FileFolderTree.Pass pass,
+			@NonNull FileFolderTree.Folder folder,
+			@NonNull List<FilesAdapterItem> list) {
+		for (FileFolderTree.Folder child : folder.children) {
+			FilesAdapterItemFolder childItem = pass.getItem(child);
+			if (childItem.getNumFilteredFiles() == 0) {
+				continue;
+			}
+			list.add(childItem);
+			if (childItem.expand) {
+				addSubtree(pass, child, list);
+			}
+		}
+
+		FilesAdapterItemFolder folderItem = pass.getItem(folder);
+		List<?> listFiles = pass.listFiles;
+		TorrentFileTable fileTable = (listFiles instanceof TorrentFileTable)
+				? (TorrentFileTable) listFiles : null;
+		for (int row : folder.directRows) {
+			if (!pass.allowed[row] || row >= listFiles.size()) {
+				continue;
+			}
+			@SuppressWarnings("unchecked")
+			Map<String, Object> mapFile = (Map<String, Object>) listFiles.get(row);
+			boolean wanted;
+			String shortName;
+			if (fileTable != null) {
+				wanted = fileTable.isWanted(row, true);
+				shortName = fileTable.getShortName(row);
+				if (shortName == null) {
+					shortName = "";
 				}
 			} else {
-				last = existing;
+				wanted = MapUtils.getMapBoolean(mapFile,
+						TransmissionVars.FIELD_FILESTATS_WANTED, true);
+				String name = MapUtils.getMapString(mapFile,
+						TransmissionVars.FIELD_FILES_NAME, "");
+				shortName = name.startsWith(folder.folder)
+						? name.substring(folder.folder.length()) : name;
 			}
+			list.add(createFileItem(row, folderItem, folder.folder, shortName,
+					wanted, mapFile));
 		}
-		return last;
 	}
 
 	@SuppressWarnings({
@@ -508,6 +651,7 @@ public class FilesTreeFilter
 			FilterResults results) {
 		// Now we have to inform the adapter about the new list filtered
 		if (results.count == 0) {
+			shownPass = null;
 			talkback.removeAllItems();
 		} else {
 			if (results.values instanceof Map) {
@@ -534,7 +678,7 @@ public class FilesTreeFilter
 					displayList = new ArrayList<>();
 				}
 
-				mapFolders = (Map) map.get(RESULTFIELD_FOLDERS);
+				shownPass = (FileFolderTree.Pass) map.get(RESULTFIELD_TREE_PASS);
 
 				return talkback.setItems(displayList, null);
 			}
@@ -561,6 +705,12 @@ public class FilesTreeFilter
 			return;
 		}
 
+		final int MAX_CATS = 3;
+		TorrentFileTable fileTable = (listFiles instanceof TorrentFileTable)
+				? (TorrentFileTable) listFiles : null;
+		int lastKeyNode = -1;
+		char lastKeyChar = 0;
+
 		long startedOn = System.currentTimeMillis();
 		for (int i = 0, displayListSize = displayList.size(); i < displayListSize; i++) {
 			if ((i % 10) == 9) {
@@ -577,12 +727,42 @@ public class FilesTreeFilter
 			if (displayObject instanceof FilesAdapterItemFolder) {
 				continue;
 			}
+			if (fileTable != null && (displayObject instanceof FilesAdapterItemFile)) {
+				// Section is the first MAX_CATS folders (or file name), compared by
+				// trie node and first letter instead of by name prefix
+				synchronized (fileTable) {
+					int row = ((FilesAdapterItemFile) displayObject).fileIndex;
+					if (row >= fileTable.size()) {
+						continue;
+					}
+					FilePathTrie trie = fileTable.getTrie();
+					int node = fileTable.getFolderNode(row);
+					int keyNode;
+					String keySegment;
+					if (trie.getDepth(node) >= MAX_CATS) {
+						int ancestor = trie.getAncestor(node, MAX_CATS);
+						keyNode = trie.getParent(ancestor);
+						keySegment = trie.getSegment(ancestor);
+					} else {
+						keyNode = node;
+						keySegment = fileTable.getShortName(row);
+					}
+					char keyChar = keySegment == null || keySegment.isEmpty() ? 0
+							: keySegment.charAt(0);
+					if (keyNode != lastKeyNode || keyChar != lastKeyChar) {
+						lastKeyNode = keyNode;
+						lastKeyChar = keyChar;
+						categories.add(buildCategory(trie, keyNode, keyChar));
+						categoriesStart.add(i);
+					}
+				}
+				continue;
+			}
 			Map<?, ?> mapFile = FilesTreeAdapter.getFileMap(displayObject, listFiles);
 			String name = MapUtils.getMapString(mapFile,
 					TransmissionVars.FIELD_FILES_NAME, "");
 			//.toUpperCase(Locale.US); adds a lot of time on large lists
 			if (!name.startsWith(lastFullCat)) {
-				final int MAX_CATS = 3;
 				String[] split = FilesTreeAdapter.patternFolderSplit.split(name,
 						MAX_CATS + 1);
 				String cat = "";
@@ -633,6 +813,30 @@ public class FilesTreeFilter
 		//}
 	}
 
+	/**
+	 * @return First letter of each non-empty folder from the top down to
+	 * node, then keyChar.  ie. "M/S/E"
+	 */
+	@NonNull
+	private static String buildCategory(@NonNull FilePathTrie trie, int node,
+			char keyChar) {
+		StringBuilder sb = new StringBuilder();
+		if (keyChar != 0) {
+			sb.append(keyChar);
+		}
+		while (node != FilePathTrie.ROOT) {
+			String segment = trie.getSegment(node);
+			if (!segment.isEmpty()) {
+				if (sb.length() > 0) {
+					sb.insert(0, '/');
+				}
+				sb.insert(0, segment.charAt(0));
+			}
+			node = trie.getParent(node);
+		}
+		return sb.toString();
+	}
+
 	@Override
 	public Object[] getSections() {
 		if (AndroidUtils.DEBUG_ADAPTER) {
@@ -25,11 +25,14 @@ import android.view.ViewGroup;
 
 import androidx.annotation.LayoutRes;
 import androidx.annotation.NonNull;
+import androidx.annotation.UiThread;
+import androidx.collection.LongSparseArray;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.biglybt.android.adapter.*;
 import com.biglybt.android.client.*;
 import com.biglybt.android.client.session.Session;
+import com.biglybt.android.client.session.TorrentListChanges;
 import com.biglybt.android.util.MapUtils;
 import com.biglybt.android.util.TextViewFlipper.FlipValidator;
 import com.biglybt.util.Thunk;
@@ -113,10 +116,126 @@ public class TorrentListAdapter
 		setHasStableIds(true);
 	}
 
+	/**
+	 * torrentID -> {changeGen when last changed, TorrentListRowFiller PART_
+	 * bits changed since appliedGen}
+	 * <br/>
+	 * Lets a diff tell which rows changed without reading every torrent map,
+	 * and rebind only the parts that did.  Guarded by itself.
+	 */
+	private final LongSparseArray<long[]> rowChanges = new LongSparseArray<>();
+
+	private long changeGen;
+
+	/** changeGen the displayed items were diffed up to */
+	private long appliedGen;
+
+	/** Entries older than this can't be needed by a running diff */
+	private long prunableGen;
+
+	/**
+	 * Diffs against the row changes recorded between the items being
+	 * displayed and the new ones
+	 */
+	private class RowChangesCallBack
+		implements SetItemsCallBack<TorrentListAdapterItem>
+	{
+		private final long baseGen;
+
+		private final long targetGen;
+
+		RowChangesCallBack(long baseGen, long targetGen) {
+			this.baseGen = baseGen;
+			this.targetGen = targetGen;
+		}
+
+		@Override
+		public boolean areContentsTheSame(TorrentListAdapterItem oldItem,
+				TorrentListAdapterItem newItem) {
+			if (!(oldItem instanceof TorrentListAdapterTorrentItem)) {
+				return true;
+			}
+			return getChangedParts(((TorrentListAdapterTorrentItem) oldItem).torrentID,
+					baseGen) == 0;
+		}
+
+		@Override
+		public Object getChangePayload(TorrentListAdapterItem oldItem,
+				TorrentListAdapterItem newItem) {
+			if (!(oldItem instanceof TorrentListAdapterTorrentItem)) {
+				return null;
+			}
+			int parts = getChangedParts(
+					((TorrentListAdapterTorrentItem) oldItem).torrentID, baseGen);
+			return parts == TorrentListRowFiller.PART_ALL ? null : parts;
+		}
+
+		@Override
+		public void onItemsSet() {
+			synchronized (rowChanges) {
+				for (int i = rowChanges.size() - 1; i >= 0; i--) {
+					if (rowChanges.valueAt(i)[0] <= prunableGen) {
+						rowChanges.removeAt(i);
+					}
+				}
+				prunableGen = Math.min(appliedGen, targetGen);
+				appliedGen = targetGen;
+			}
+		}
+	}
+
 	@Override
 	public boolean setItems(List<TorrentListAdapterItem> values,
 			SparseIntArray countsByViewType) {
-		return setItems(values, countsByViewType, this);
+		SetItemsCallBack<TorrentListAdapterItem> callback;
+		synchronized (rowChanges) {
+			// Until a change set arrives, fall back to lastUpdated
+			callback = changeGen == 0 ? this
+					: new RowChangesCallBack(appliedGen, changeGen);
+		}
+		return setItems(values, countsByViewType, callback);
+	}
+
+	/**
+	 * Remembers which rows changes touched, for the next diff.
+	 * Must see every change set the list gets.
+	 */
+	@UiThread
+	public void recordChanges(@NonNull TorrentListChanges changes) {
+		synchronized (rowChanges) {
+			changeGen++;
+			for (long torrentID : changes.getChangedTorrentIDs()) {
+				int parts = TorrentListRowFiller.getChangedParts(
+						changes.getTorrentChanges(torrentID));
+				if (parts == 0) {
+					continue;
+				}
+				long[] entry = rowChanges.get(torrentID);
+				if (entry == null) {
+					rowChanges.put(torrentID, new long[] {
+						changeGen,
+						parts
+					});
+				} else {
+					entry[1] = entry[0] <= appliedGen ? parts : (entry[1] | parts);
+					entry[0] = changeGen;
+				}
+			}
+			for (long torrentID : changes.getRemovedTorrentIDs()) {
+				rowChanges.remove(torrentID);
+			}
+		}
+	}
+
+	/**
+	 * @return TorrentListRowFiller PART_ bits changed after sinceGen
+	 */
+	@Thunk
+	int getChangedParts(long torrentID, long sinceGen) {
+		synchronized (rowChanges) {
+			long[] entry = rowChanges.get(torrentID);
+			return entry == null || entry[0] <= sinceGen ? 0 : (int) entry[1];
+		}
 	}
 
 	@Override
@@ -142,7 +261,9 @@ public class TorrentListAdapter
 
 	public void refreshDisplayList() {
 		Session session = sessionGetter.getSession();
-		if (session == null || !session.isReadyForUI()) {
+		// Cached list from last run can show before the session is ready
+		if (session == null
+				|| (!session.isReadyForUI() && !session.torrent.isShowingCachedList())) {
 			if (AndroidUtils.DEBUG) {
 				Log.d(TAG, "skipped refreshDisplayList. ui not ready");
 			}
@@ -151,6 +272,51 @@ public class TorrentListAdapter
 		getFilter().refilter(true);
 	}
 
+	/**
+	 * Refresh only what changes require.  If nothing affecting the filter or
+	 * sort changed, rows of changed torrents are rebound in place instead of
+	 * refiltering the whole list.
+	 */
+	@UiThread
+	public void refreshDisplayList(@NonNull TorrentListChanges changes) {
+		recordChanges(changes);
+		if (isNeverSetItems() || getTorrentFilter().isAffectedBy(changes)) {
+			Session session = sessionGetter.getSession();
+			if (isNeverSetItems() || session == null
+					|| (!session.isReadyForUI() && !session.torrent.isShowingCachedList())) {
+				refreshDisplayList();
+			} else {
+				// Only re-check and re-place the changed torrents
+				getTorrentFilter().refilter(changes);
+			}
+			return;
+		}
+		long[] ids = changes.getChangedTorrentIDs();
+		if (DEBUG) {
+			log(TAG, "refreshDisplayList: no refilter needed, rebinding "
+					+ ids.length + "; " + changes);
+		}
+		for (long torrentID : ids) {
+			int parts = TorrentListRowFiller.getChangedParts(
+					changes.getTorrentChanges(torrentID));
+			if (parts == 0) {
+				continue;
+			}
+			int position = getPositionForItem(
+					new TorrentListAdapterTorrentItem(torrentID));
+			if (position >= 0) {
+				safeNotifyItemChanged(position,
+						parts == TorrentListRowFiller.PART_ALL ? null : parts);
+			}
+		}
+		synchronized (rowChanges) {
+			// Rebound with the latest; a later diff needn't again
+			for (long torrentID : ids) {
+				rowChanges.remove(torrentID);
+			}
+		}
+	}
+
 	@NonNull
 	public TorrentListFilter getTorrentFilter() {
 		return (TorrentListFilter) getFilter();
@@ -228,6 +394,23 @@ public class TorrentListAdapter
 		}
 	}
 
+	@Override
+	public boolean onBindFlexibleViewHolder(@NonNull TorrentListHolder holder,
+			int position, @NonNull List<Object> payloads) {
+		if (!(holder instanceof TorrentListHolderItem)) {
+			return false;
+		}
+		int parts = 0;
+		for (Object payload : payloads) {
+			if (!(payload instanceof Integer)) {
+				return false;
+			}
+			parts |= (Integer) payload;
+		}
+		return torrentListRowFiller.fillHolderParts((TorrentListHolderItem) holder,
+				getTorrentItem(position), parts);
+	}
+
 	@Override
 	public long getItemId(int position) {
 		return getTorrentID(position);
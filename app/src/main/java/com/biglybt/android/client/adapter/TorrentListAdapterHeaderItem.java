@@ -44,4 +44,9 @@ public class TorrentListAdapterHeaderItem
 		return (obj instanceof TorrentListAdapterHeaderItem)
 				&& title.equals(((TorrentListAdapterHeaderItem) obj).title);
 	}
+
+	@Override
+	public int hashCode() {
+		return title.hashCode();
+	}
 }
@@ -45,4 +45,9 @@ public class TorrentListAdapterTorrentItem
 		return (obj instanceof TorrentListAdapterTorrentItem)
 				&& torrentID == ((TorrentListAdapterTorrentItem) obj).torrentID;
 	}
+
+	@Override
+	public int hashCode() {
+		return (int) (torrentID ^ (torrentID >>> 32));
+	}
 }
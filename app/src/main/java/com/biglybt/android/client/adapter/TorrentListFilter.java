@@ -30,6 +30,9 @@ import com.biglybt.android.adapter.*;
 import com.biglybt.android.client.*;
 import com.biglybt.android.client.session.Session;
 import com.biglybt.android.client.session.Session_Tag;
+import com.biglybt.android.client.session.TorrentListChanges;
+import com.biglybt.android.client.session.TorrentListSnapshot;
+import com.biglybt.android.client.session.TorrentRow;
 import com.biglybt.android.util.MapUtils;
 import com.biglybt.util.DisplayFormatters;
 import com.biglybt.util.Thunk;
@@ -81,6 +84,27 @@ public class TorrentListFilter
 
 	private int defaultSortID;
 
+	/** Written by the filter thread, read on UI thread */
+	private volatile long filteredVersion = -1;
+
+	/**
+	 * Changes since the last filter pass, when every refilter since then came
+	 * from {@link #refilter(TorrentListChanges)}.  Guarded by itself.
+	 */
+	private final TorrentListChanges pendingChanges = new TorrentListChanges();
+
+	/** Guarded by {@link #pendingChanges} */
+	private boolean needsFullFilter = true;
+
+	/** Last pass's torrent items, sorted, before headers.  Filter thread only */
+	private List<TorrentListAdapterItem> lastSortedItems;
+
+	/** Filter mode, constraint and sort lastSortedItems was built with */
+	private String lastFilterKey;
+
+	/** Beyond this share of the list changed, a full pass is cheaper */
+	private static final int MAX_INCREMENTAL_DIVISOR = 4;
+
 	TorrentListFilter(
 			@NonNull SessionAdapterFilterTalkback<TorrentListAdapterItem> talkback) {
 		super(talkback);
@@ -104,6 +128,103 @@ public class TorrentListFilter
 		}
 	}
 
+	/**
+	 * @return Torrent fields the current filter mode and sort read
+	 */
+	@NonNull
+	public Set<String> getTorrentFieldIDs() {
+		Set<String> fieldIDs = new HashSet<>();
+		fieldIDs.add(TransmissionVars.FIELD_TORRENT_NAME);
+		if (filterMode > 10) {
+			fieldIDs.add(TransmissionVars.FIELD_TORRENT_TAG_UIDS);
+		} else if (filterMode == FILTERBY_ACTIVE) {
+			fieldIDs.add(TransmissionVars.FIELD_TORRENT_RATE_DOWNLOAD);
+			fieldIDs.add(TransmissionVars.FIELD_TORRENT_RATE_UPLOAD);
+		}
+		ComparatorMapFields<TorrentListAdapterItem> sorter = getSorter();
+		if (sorter instanceof TorrentListSorter) {
+			((TorrentListSorter) sorter).addTorrentFieldIDs(fieldIDs);
+		}
+		return fieldIDs;
+	}
+
+	/**
+	 * @return true if changes could alter which torrents are shown, or their
+	 * order.  When false, a refilter would produce the same list.
+	 */
+	public boolean isAffectedBy(@NonNull TorrentListChanges changes) {
+		if (changes.isStructural()) {
+			return true;
+		}
+		if (changes.getChangedFields().isEmpty()) {
+			return false;
+		}
+
+		// Name is used for both constraint and letter list
+		if (changes.hasChangedAny(TransmissionVars.FIELD_TORRENT_NAME)) {
+			return true;
+		}
+
+		if (filterMode > 10) {
+			if (changes.hasChangedAny(TransmissionVars.FIELD_TORRENT_TAG_UIDS)) {
+				return true;
+			}
+		} else {
+			switch ((int) filterMode) {
+				case FILTERBY_ACTIVE:
+					if (changes.hasChangedAny(TransmissionVars.FIELD_TORRENT_RATE_DOWNLOAD,
+							TransmissionVars.FIELD_TORRENT_RATE_UPLOAD)) {
+						return true;
+					}
+					break;
+				case FILTERBY_COMPLETE:
+				case FILTERBY_INCOMPLETE:
+					if (changes.hasChangedAny(
+							TransmissionVars.FIELD_TORRENT_PERCENT_DONE)) {
+						return true;
+					}
+					break;
+				case FILTERBY_STOPPED:
+					if (changes.hasChangedAny(TransmissionVars.FIELD_TORRENT_STATUS)) {
+						return true;
+					}
+					break;
+			}
+		}
+
+		ComparatorMapFields<TorrentListAdapterItem> sorter = getSorter();
+		return !(sorter instanceof TorrentListSorter)
+				|| ((TorrentListSorter) sorter).isAffectedBy(changes);
+	}
+
+	/**
+	 * Same as {@link #refilter(boolean)}, but if nothing else asked for a full
+	 * refilter meanwhile, only the torrents in changes are re-checked and
+	 * moved to their new sorted position.
+	 */
+	public void refilter(@NonNull TorrentListChanges changes) {
+		synchronized (pendingChanges) {
+			pendingChanges.addAll(changes);
+		}
+		// Not skipIfFiltering: a running pass may have missed these, and the
+		// next refresh could be minutes away
+		super.refilter(false, 200);
+	}
+
+	@Override
+	public void refilter(boolean skipIfFiltering, int delay) {
+		synchronized (pendingChanges) {
+			needsFullFilter = true;
+		}
+		super.refilter(skipIfFiltering, delay);
+	}
+
+	@Override
+	protected void refilterScheduled() {
+		// needsFullFilter was set by whoever asked, if they needed a full pass
+		super.refilter(false, 200);
+	}
+
 	@Override
 	protected FilterResults performFiltering2(CharSequence _constraint) {
 		FilterResults results = new FilterResults();
@@ -116,7 +237,31 @@ public class TorrentListFilter
 			return results;
 		}
 
-		LongSparseArray<Map<?, ?>> torrentList = session.torrent.getListAsSparseArray();
+		// Changes published after we take these may already be in the snapshot
+		// below.  That's fine: the UI thread always queues them, so the next pass
+		// re-checks those torrents.
+		TorrentListChanges changes = new TorrentListChanges();
+		boolean full;
+		synchronized (pendingChanges) {
+			full = needsFullFilter;
+			changes.addAll(pendingChanges);
+			pendingChanges.clear();
+			needsFullFilter = false;
+		}
+
+		TorrentListSnapshot snapshot = session.torrent.getListSnapshot();
+
+		String filterKey = buildFilterKey(_constraint);
+		List<TorrentListAdapterItem> sortedItems = full
+				|| !filterKey.equals(lastFilterKey) ? null
+						: filterIncremental(_constraint, snapshot, changes);
+		if (sortedItems != null) {
+			return publishSorted(results, sortedItems, snapshot, filterKey);
+		}
+		// In case the full pass fails, the next one won't build on a stale list
+		lastSortedItems = null;
+
+		LongSparseArray<Map<?, ?>> torrentList = snapshot.toSparseArray();
 		int size = torrentList.size();
 
 		if (TorrentListAdapter.DEBUG) {
@@ -128,15 +273,17 @@ public class TorrentListFilter
 				log(TAG, "filtering " + torrentList.size());
 			}
 
-			if (filterMode >= 0 && filterMode != FILTERBY_ALL) {
-				for (int i = size - 1; i >= 0; i--) {
-					long key = torrentList.keyAt(i);
-
-					if (!filterCheck(filterMode, key)) {
-						torrentList.removeAt(i);
-						size--;
+			if (filterMode != FILTERBY_ALL) {
+				LongSparseArray<Map<?, ?>> filtered = new LongSparseArray<>();
+				for (int i = 0, num = snapshot.size(); i < num; i++) {
+					TorrentRow row = snapshot.mapAt(i);
+					if (filterCheck(filterMode, row)) {
+						// ids are ascending, so append is safe
+						filtered.append(row.getID(), row);
 					}
 				}
+				torrentList = filtered;
+				size = filtered.size();
 			}
 
 			if (TorrentListAdapter.DEBUG) {
@@ -153,6 +300,17 @@ public class TorrentListFilter
 
 		doSort(keys);
 
+		return publishSorted(results, keys, snapshot, filterKey);
+	}
+
+	private FilterResults publishSorted(@NonNull FilterResults results,
+			@NonNull List<TorrentListAdapterItem> sortedItems,
+			@NonNull TorrentListSnapshot snapshot, @NonNull String filterKey) {
+		lastSortedItems = new ArrayList<>(sortedItems);
+		lastFilterKey = filterKey;
+
+		// refreshSections adds headers and drops collapsed rows; keep ours clean
+		List<TorrentListAdapterItem> keys = sortedItems;
 		Map<String, Object> map = new HashMap<>();
 		map.put(RESULTFIELD_LIST, keys);
 		refreshSections(keys, map);
@@ -160,9 +318,124 @@ public class TorrentListFilter
 		results.values = map;
 		results.count = keys.size();
 
+		filteredVersion = snapshot.getVersion();
+
 		return results;
 	}
 
+	/**
+	 * @return Key that changes whenever a full pass would give different
+	 * results for unchanged torrents
+	 */
+	@NonNull
+	private String buildFilterKey(@Nullable CharSequence constraint) {
+		ComparatorMapFields<TorrentListAdapterItem> sorter = getSorter();
+		SortDefinition sortDefinition = sorter == null ? null
+				: sorter.getSortDefinition();
+		return filterMode + "|" + (constraint == null ? "" : constraint) + "|"
+				+ (sortDefinition == null ? "" : sortDefinition.id) + "|"
+				+ (sorter != null && sorter.isAsc());
+	}
+
+	/**
+	 * Re-checks only changed torrents against the filter, and moves them to
+	 * their new sorted position in the last pass's list.  Unchanged torrents
+	 * keep their order, so only changed ones are compared.
+	 *
+	 * @return null if a full pass is needed
+	 */
+	@Nullable
+	private List<TorrentListAdapterItem> filterIncremental(
+			@Nullable CharSequence _constraint,
+			@NonNull TorrentListSnapshot snapshot,
+			@NonNull TorrentListChanges changes) {
+		List<TorrentListAdapterItem> lastItems = lastSortedItems;
+		ComparatorMapFields<TorrentListAdapterItem> sorter = getSorter();
+		// Letter counts cover the whole list, so they need a full pass
+		if (lastItems == null || sorter == null || !sorter.isValid()
+				|| isBuildLetters() || changes.isEmpty()) {
+			return null;
+		}
+		long[] changedIDs = changes.getChangedTorrentIDs();
+		long[] removedIDs = changes.getRemovedTorrentIDs();
+		int numChanged = changedIDs.length + removedIDs.length;
+		if (numChanged > snapshot.size() / MAX_INCREMENTAL_DIVISOR) {
+			return null;
+		}
+
+		Set<Long> touched = new HashSet<>(numChanged * 2);
+		for (long id : changedIDs) {
+			touched.add(id);
+		}
+		for (long id : removedIDs) {
+			touched.add(id);
+		}
+
+		// Single cheap pass to pull out changed rows; no comparisons
+		List<TorrentListAdapterItem> items = new ArrayList<>(
+				lastItems.size() + changedIDs.length);
+		for (TorrentListAdapterItem item : lastItems) {
+			if (!(item instanceof TorrentListAdapterTorrentItem) || !touched.contains(
+					((TorrentListAdapterTorrentItem) item).torrentID)) {
+				items.add(item);
+			}
+		}
+
+		// The full pass stable-sorts a list in ascending id order, so ties end
+		// up ordered by id.  Do the same, or rows jump between passes.
+		Comparator<TorrentListAdapterItem> insertOrder = (lhs, rhs) -> {
+			int comp = sorter.compare(lhs, rhs);
+			if (comp != 0 || !(lhs instanceof TorrentListAdapterTorrentItem)
+					|| !(rhs instanceof TorrentListAdapterTorrentItem)) {
+				return comp;
+			}
+			return Long.compare(((TorrentListAdapterTorrentItem) lhs).torrentID,
+					((TorrentListAdapterTorrentItem) rhs).torrentID);
+		};
+
+		String constraint = _constraint == null ? ""
+				: _constraint.toString().toUpperCase(Locale.US);
+		try {
+			for (long torrentID : changedIDs) {
+				TorrentRow row = snapshot.get(torrentID);
+				if (row == null || !filterModeCheck(row)) {
+					continue;
+				}
+				TorrentListAdapterTorrentItem item = new TorrentListAdapterTorrentItem(
+						torrentID);
+				if (!constraint.isEmpty() && !constraintCheck(constraint,
+						getStringToConstrain(item), null, null)) {
+					continue;
+				}
+				int pos = Collections.binarySearch(items, item, insertOrder);
+				items.add(pos < 0 ? -(pos + 1) : pos, item);
+			}
+		} catch (Throwable t) {
+			// Inconsistent comparator; let the full sort deal with it
+			log(TAG, "filterIncremental: ", t);
+			return null;
+		}
+
+		if (TorrentListAdapter.DEBUG) {
+			log(TAG, "filterIncremental: " + numChanged + " changed, "
+					+ items.size() + " shown");
+		}
+		return items;
+	}
+
+	private boolean filterModeCheck(@NonNull TorrentRow row) {
+		return filterMode <= 0 || filterMode == FILTERBY_ALL
+				|| filterCheck(filterMode, row);
+	}
+
+	/**
+	 * @return Version of the {@link TorrentListSnapshot} the last filter pass
+	 * used
+	 */
+	public long getFilteredVersion() {
+		return filteredVersion;
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	protected boolean publishResults2(CharSequence constraint,
@@ -205,33 +478,28 @@ public class TorrentListFilter
 		}
 	}
 
-	@Thunk
-	boolean filterCheck(long filterMode, long torrentID) {
-		Session session = talkback.getSession();
-		Map<?, ?> map = session.torrent.getCachedTorrent(torrentID);
-		if (map == null) {
-			return false;
-		}
-
+	/**
+	 * Typed reads from the snapshot row; no boxing, and no store lock
+	 */
+	private static boolean filterCheck(long filterMode,
+			@NonNull TorrentRow row) {
 		if (filterMode > 10) {
-			List<?> listTagUIDs = MapUtils.getMapList(map,
-					TransmissionVars.FIELD_TORRENT_TAG_UIDS, null);
-			return listTagUIDs != null && listTagUIDs.contains(filterMode);
+			return Boolean.TRUE.equals(row.hasTag(filterMode));
 		}
 
 		switch ((int) filterMode) {
 			case FILTERBY_ACTIVE:
-				long dlRate = MapUtils.getMapLong(map,
-						TransmissionVars.FIELD_TORRENT_RATE_DOWNLOAD, -1);
-				long ulRate = MapUtils.getMapLong(map,
-						TransmissionVars.FIELD_TORRENT_RATE_UPLOAD, -1);
+				long dlRate = row.getLong(TransmissionVars.FIELD_TORRENT_RATE_DOWNLOAD,
+						-1);
+				long ulRate = row.getLong(TransmissionVars.FIELD_TORRENT_RATE_UPLOAD,
+						-1);
 				if (ulRate <= 0 && dlRate <= 0) {
 					return false;
 				}
 				break;
 
 			case FILTERBY_COMPLETE: {
-				float pctDone = MapUtils.getMapFloat(map,
+				float pctDone = row.getFloat(
 						TransmissionVars.FIELD_TORRENT_PERCENT_DONE, 0);
 				if (pctDone < 1.0f) {
 					return false;
@@ -239,7 +507,7 @@ public class TorrentListFilter
 				break;
 			}
 			case FILTERBY_INCOMPLETE: {
-				float pctDone = MapUtils.getMapFloat(map,
+				float pctDone = row.getFloat(
 						TransmissionVars.FIELD_TORRENT_PERCENT_DONE, 0);
 				if (pctDone >= 1.0f) {
 					return false;
@@ -247,8 +515,7 @@ public class TorrentListFilter
 				break;
 			}
 			case FILTERBY_STOPPED: {
-				int status = MapUtils.getMapInt(map,
-						TransmissionVars.FIELD_TORRENT_STATUS,
+				int status = row.getInt(TransmissionVars.FIELD_TORRENT_STATUS,
 						TransmissionVars.TR_STATUS_STOPPED);
 				if (status != TransmissionVars.TR_STATUS_STOPPED) {
 					return false;
@@ -510,15 +777,14 @@ public class TorrentListFilter
 							return 0;
 						}
 						Session session = talkback.getSession();
+						long torrentID = ((TorrentListAdapterTorrentItem) o).torrentID;
 						Map<?, ?> map = ((TorrentListAdapterTorrentItem) o).getTorrentMap(
 								session);
 						boolean active;
-						List<?> listTagUIDs = MapUtils.getMapList(map,
-								TransmissionVars.FIELD_TORRENT_TAG_UIDS, null);
-						Long tagUID_Active = session.tag.getDownloadStateUID(
+						Boolean hasActiveTag = session.tag.hasStateTag(torrentID,
 								Session_Tag.STATEID_ACTIVE);
-						if (listTagUIDs != null && tagUID_Active != null) {
-							active = listTagUIDs.contains(tagUID_Active);
+						if (hasActiveTag != null) {
+							active = hasActiveTag;
 						} else {
 							long rateDL = MapUtils.getMapLong(map,
 									TransmissionVars.FIELD_TORRENT_RATE_DOWNLOAD, 0);
@@ -23,11 +23,14 @@ import android.text.format.DateUtils;
 import android.view.View;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.biglybt.android.client.*;
 import com.biglybt.android.client.activity.TorrentDetailsActivity;
 import com.biglybt.android.client.adapter.TorrentListAdapter.ViewHolderFlipValidator;
 import com.biglybt.android.client.session.Session;
+import com.biglybt.android.client.session.TorrentListChanges;
+import com.biglybt.android.client.session.TorrentRow;
 import com.biglybt.android.client.spanbubbles.SpanBubbles;
 import com.biglybt.android.client.spanbubbles.SpanTags;
 import com.biglybt.android.util.MapUtils;
@@ -36,9 +39,7 @@ import com.biglybt.util.DisplayFormatters;
 import com.google.android.material.progressindicator.LinearProgressIndicator;
 
 import java.text.NumberFormat;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 /**
  * Fills one Torrent info row.
@@ -62,6 +63,48 @@ public class TorrentListRowFiller
 
 	private final boolean showTags;
 
+	/**
+	 * Torrent fields {@link #fillHolder(Map, Session)} reads, for
+	 * {@link com.biglybt.android.client.session.TorrentFieldRegistry}
+	 */
+	public static final List<String> FIELD_IDS = Collections.unmodifiableList(
+			Arrays.asList(TransmissionVars.FIELD_TORRENT_ID,
+					TransmissionVars.FIELD_TORRENT_NAME,
+					TransmissionVars.FIELD_TORRENT_FILE_COUNT,
+					TransmissionVars.FIELD_TORRENT_SIZE_WHEN_DONE,
+					TransmissionVars.FIELD_TORRENT_PERCENT_DONE,
+					TransmissionVars.FIELD_TORRENT_METADATA_PERCENT_DONE,
+					TransmissionVars.FIELD_TORRENT_UPLOAD_RATIO,
+					TransmissionVars.FIELD_TORRENT_ERROR,
+					TransmissionVars.FIELD_TORRENT_ERROR_STRING,
+					TransmissionVars.FIELD_TORRENT_PEERS_SENDING_TO_US,
+					TransmissionVars.FIELD_TORRENT_PEERS_GETTING_FROM_US,
+					TransmissionVars.FIELD_TORRENT_PEERS_CONNECTED,
+					TransmissionVars.FIELD_TORRENT_ETA,
+					TransmissionVars.FIELD_TORRENT_RATE_UPLOAD,
+					TransmissionVars.FIELD_TORRENT_RATE_DOWNLOAD,
+					TransmissionVars.FIELD_TORRENT_TAG_UIDS,
+					TransmissionVars.FIELD_TORRENT_STATUS,
+					TransmissionVars.FIELD_TORRENT_IS_FORCED,
+					TransmissionVars.FIELD_TORRENT_SEQUENTIAL));
+
+	private static final Set<String> FIELD_ID_SET = new HashSet<>(FIELD_IDS);
+
+	/** Progress text and bar */
+	static final int PART_PROGRESS = 1;
+
+	/** Upload and download rates */
+	static final int PART_RATES = 1 << 1;
+
+	/** ETA or share ratio */
+	static final int PART_ETA = 1 << 2;
+
+	private static final int PARTS_PARTIAL = PART_PROGRESS | PART_RATES
+			| PART_ETA;
+
+	/** Whole row; anything without a PART_ of its own */
+	static final int PART_ALL = ~0;
+
 	private static final NumberFormat nfPct1 = NumberFormat.getPercentInstance();
 
 	static {
@@ -93,8 +136,7 @@ public class TorrentListRowFiller
 
 	void fillHolder(@NonNull TorrentListHolderItem holder, Map<?, ?> item,
 			@NonNull Session session) {
-		long torrentID = MapUtils.getMapLong(item,
-				TransmissionVars.FIELD_TORRENT_ID, -1);
+		long torrentID = getLong(item, TransmissionVars.FIELD_TORRENT_ID, -1);
 
 		if (holder.tvName == null) {
 			return;
@@ -116,33 +158,13 @@ public class TorrentListRowFiller
 		flipper.changeText(holder.tvName, AndroidUtils.lineBreaker(torrentName),
 				holder.animateFlip, validator);
 
-		int fileCount = MapUtils.getMapInt(item,
-				TransmissionVars.FIELD_TORRENT_FILE_COUNT, 0);
-		long size = MapUtils.getMapLong(item,
-				TransmissionVars.FIELD_TORRENT_SIZE_WHEN_DONE, 0);
+		int fileCount = getInt(item, TransmissionVars.FIELD_TORRENT_FILE_COUNT, 0);
+		long size = getLong(item, TransmissionVars.FIELD_TORRENT_SIZE_WHEN_DONE, 0);
 
 		float pctDone = TorrentUtils.getPercentDone(item);
-		if (holder.tvProgress != null) {
-			String s = pctDone < 0 || (!holder.isSmall && pctDone >= 1) ? ""
-					: nfPct1.format(pctDone);
-			flipper.changeText(holder.tvProgress, s, holder.animateFlip, validator);
-		}
-		if (holder.pb != null) {
-			if (!(holder.pb instanceof LinearProgressIndicator)) {
-				holder.pb.setVisibility(pctDone < 0 ? View.INVISIBLE : View.VISIBLE);
-			}
-			int pctDoneInt = (int) (pctDone * 10000);
-			if (holder.pb.getProgress() != pctDoneInt) {
-				AndroidUtilsUI.setProgress(holder.pb, pctDoneInt, true);
-			}
-			float shareRatio = MapUtils.getMapFloat(item,
-					TransmissionVars.FIELD_TORRENT_UPLOAD_RATIO, -1);
-			int ratioPct = (int) (pctDoneInt == 10000 ? shareRatio * 10000
-					: (shareRatio * (10000 - 2400)) + 1200);
-			holder.pb.setSecondaryProgress(ratioPct);
-		}
+		fillProgress(holder, item, pctDone, validator);
 
-		long error = MapUtils.getMapLong(item, TransmissionVars.FIELD_TORRENT_ERROR,
+		long error = getLong(item, TransmissionVars.FIELD_TORRENT_ERROR,
 				TransmissionVars.TR_STAT_OK);
 		boolean hasScrapeError = error == TransmissionVars.TR_STAT_TRACKER_ERROR
 				|| error == TransmissionVars.TR_STAT_TRACKER_WARNING;
@@ -162,11 +184,11 @@ public class TorrentListRowFiller
 				}
 			}
 
-			long numPeersDLFrom = MapUtils.getMapLong(item,
+			long numPeersDLFrom = getLong(item,
 					TransmissionVars.FIELD_TORRENT_PEERS_SENDING_TO_US, -1);
-			long numPeersULTo = MapUtils.getMapLong(item,
+			long numPeersULTo = getLong(item,
 					TransmissionVars.FIELD_TORRENT_PEERS_GETTING_FROM_US, -1);
-			long numPeersConnected = MapUtils.getMapLong(item,
+			long numPeersConnected = getLong(item,
 					TransmissionVars.FIELD_TORRENT_PEERS_CONNECTED, -1);
 			if (numPeersConnected > 0 && numPeersDLFrom >= 0 && numPeersULTo >= 0) {
 				if (sb.length() > 0) {
@@ -202,54 +224,8 @@ public class TorrentListRowFiller
 			flipper.changeText(holder.tvInfo, AndroidUtils.fromHTML(sb.toString()),
 					holder.animateFlip, validator);
 		}
-		if (holder.tvETA != null) {
-			long etaSecs = MapUtils.getMapLong(item,
-					TransmissionVars.FIELD_TORRENT_ETA, -1);
-			CharSequence s = "";
-			if (etaSecs > 0 && etaSecs * 1000L < DateUtils.WEEK_IN_MILLIS) {
-				s = DisplayFormatters.prettyFormatTimeDiffShort(resources, etaSecs);
-			} else if (pctDone >= 1) {
-				float shareRatio = MapUtils.getMapFloat(item,
-						TransmissionVars.FIELD_TORRENT_UPLOAD_RATIO, -1);
-				s = shareRatio < 0 ? ""
-						: AndroidUtils.fromHTML(resources,
-								holder.isSmall ? R.string.torrent_row_share_ratio
-										: R.string.torrent_row_share_ratio_circle,
-								shareRatio);
-			}
-			flipper.changeText(holder.tvETA, s, holder.animateFlip, validator);
-		}
-		if (holder.tvUlRate != null) {
-			long rateUpload = MapUtils.getMapLong(item,
-					TransmissionVars.FIELD_TORRENT_RATE_UPLOAD, 0);
-
-			if (rateUpload > 0) {
-				String text = "|\u25B2 "
-						+ DisplayFormatters.formatByteCountToKiBEtcPerSec(rateUpload) + '|';
-				SpannableStringBuilder ss = new SpannableStringBuilder(text);
-				SpanBubbles.setSpanBubbles(ss, text, "|", holder.tvUlRate.getPaint(),
-						0xFF40A080, colorFGTagState, 0x3040A080, null);
-				flipper.changeText(holder.tvUlRate, ss, holder.animateFlip, validator);
-			} else {
-				flipper.changeText(holder.tvUlRate, "", holder.animateFlip, validator);
-			}
-		}
-		if (holder.tvDlRate != null) {
-			long rateDownload = MapUtils.getMapLong(item,
-					TransmissionVars.FIELD_TORRENT_RATE_DOWNLOAD, 0);
-
-			if (rateDownload > 0) {
-				String text = "|\u25BC "
-						+ DisplayFormatters.formatByteCountToKiBEtcPerSec(rateDownload)
-						+ '|';
-				SpannableStringBuilder ss = new SpannableStringBuilder(text);
-				SpanBubbles.setSpanBubbles(ss, text, "|", holder.tvDlRate.getPaint(),
-						0xFF2a8bcb, colorFGTagState, 0x302a8bcb, null);
-				flipper.changeText(holder.tvDlRate, ss, holder.animateFlip, validator);
-			} else {
-				flipper.changeText(holder.tvDlRate, "", holder.animateFlip, validator);
-			}
-		}
+		fillETA(holder, item, pctDone, resources, validator);
+		fillRates(holder, item, validator);
 
 		List<?> mapTagUIDs = MapUtils.getMapList(item,
 				TransmissionVars.FIELD_TORRENT_TAG_UIDS, null);
@@ -258,8 +234,7 @@ public class TorrentListRowFiller
 			StringBuilder text = new StringBuilder();
 			int color = -1;
 
-			int status = MapUtils.getMapInt(item,
-					TransmissionVars.FIELD_TORRENT_STATUS,
+			int status = getInt(item, TransmissionVars.FIELD_TORRENT_STATUS,
 					TransmissionVars.TR_STATUS_STOPPED);
 
 			if (mapTagUIDs == null || mapTagUIDs.size() == 0) {
@@ -303,7 +278,7 @@ public class TorrentListRowFiller
 						|| status == TransmissionVars.TR_STATUS_CHECK) {
 
 					int id;
-					int statusBigly = MapUtils.getMapInt(item,
+					int statusBigly = getInt(item,
 							TransmissionVars.FIELD_TORRENT_STATUS + ".biglybt", -1);
 					switch (statusBigly) {
 						case 0: // STATE_WAITING       = 0;
@@ -448,4 +423,192 @@ public class TorrentListRowFiller
 			}
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Refreshes only some parts of a row that already shows item's torrent.
+	 *
+	 * @param parts PART_* bits, as from {@link #getChangedParts(Map)}
+	 * @return false if the row needs a full {@link #fillHolder}
+	 */
+	boolean fillHolderParts(@NonNull TorrentListHolderItem holder,
+			Map<?, ?> item, int parts) {
+		long torrentID = getLong(item, TransmissionVars.FIELD_TORRENT_ID, -1);
+		if (holder.tvName == null || holder.torrentID != torrentID
+				|| (parts & ~PARTS_PARTIAL) != 0) {
+			return false;
+		}
+		holder.animateFlip = true;
+		ViewHolderFlipValidator validator = new ViewHolderFlipValidator(holder,
+				torrentID);
+		float pctDone = TorrentUtils.getPercentDone(item);
+		if ((parts & PART_PROGRESS) != 0) {
+			fillProgress(holder, item, pctDone, validator);
+		}
+		if ((parts & PART_ETA) != 0) {
+			fillETA(holder, item, pctDone,
+					AndroidUtils.requireResources(holder.itemView), validator);
+		}
+		if ((parts & PART_RATES) != 0) {
+			fillRates(holder, item, validator);
+		}
+		return true;
+	}
+
+	/**
+	 * @param fieldChanges fieldID -> [before, after] of one torrent, as from
+	 *                     {@link TorrentListChanges#getTorrentChanges(long)}
+	 * @return PART_* bits of the row to refresh.  {@link #PART_ALL} if the
+	 * whole row must be filled, 0 if nothing shown changed
+	 */
+	static int getChangedParts(@Nullable Map<String, Object[]> fieldChanges) {
+		if (fieldChanges == null) {
+			return 0;
+		}
+		if (fieldChanges.isEmpty()) {
+			// Newly added
+			return PART_ALL;
+		}
+		int parts = 0;
+		for (Map.Entry<String, Object[]> entry : fieldChanges.entrySet()) {
+			String fieldID = entry.getKey();
+			if (!FIELD_ID_SET.contains(fieldID)) {
+				continue;
+			}
+			switch (fieldID) {
+				case TransmissionVars.FIELD_TORRENT_RATE_UPLOAD:
+				case TransmissionVars.FIELD_TORRENT_RATE_DOWNLOAD:
+					parts |= PART_RATES;
+					break;
+				case TransmissionVars.FIELD_TORRENT_ETA:
+					parts |= PART_ETA;
+					break;
+				case TransmissionVars.FIELD_TORRENT_UPLOAD_RATIO:
+					parts |= PART_PROGRESS | PART_ETA;
+					break;
+				case TransmissionVars.FIELD_TORRENT_PERCENT_DONE:
+				case TransmissionVars.FIELD_TORRENT_METADATA_PERCENT_DONE: {
+					// Reaching 100% changes the info line and status too
+					Object[] values = entry.getValue();
+					if (isBelowComplete(values[0]) && isBelowComplete(values[1])) {
+						parts |= PART_PROGRESS | PART_ETA;
+					} else {
+						return PART_ALL;
+					}
+					break;
+				}
+				default:
+					return PART_ALL;
+			}
+		}
+		return parts;
+	}
+
+	/**
+	 * Typed read when item is a {@link TorrentRow}, which is the usual case.
+	 * Saves boxing each value of every bound row.
+	 */
+	private static long getLong(Map<?, ?> item, @NonNull String fieldID,
+			long def) {
+		return (item instanceof TorrentRow)
+				? ((TorrentRow) item).getLong(fieldID, def)
+				: MapUtils.getMapLong(item, fieldID, def);
+	}
+
+	private static int getInt(Map<?, ?> item, @NonNull String fieldID,
+			int def) {
+		return (item instanceof TorrentRow)
+				? ((TorrentRow) item).getInt(fieldID, def)
+				: MapUtils.getMapInt(item, fieldID, def);
+	}
+
+	private static float getFloat(Map<?, ?> item, @NonNull String fieldID,
+			float def) {
+		return (item instanceof TorrentRow)
+				? ((TorrentRow) item).getFloat(fieldID, def)
+				: MapUtils.getMapFloat(item, fieldID, def);
+	}
+
+	private static boolean isBelowComplete(Object value) {
+		return (value instanceof Number) && ((Number) value).floatValue() < 1;
+	}
+
+	private void fillProgress(@NonNull TorrentListHolderItem holder,
+			Map<?, ?> item, float pctDone,
+			@NonNull ViewHolderFlipValidator validator) {
+		if (holder.tvProgress != null) {
+			String s = pctDone < 0 || (!holder.isSmall && pctDone >= 1) ? ""
+					: nfPct1.format(pctDone);
+			flipper.changeText(holder.tvProgress, s, holder.animateFlip, validator);
+		}
+		if (holder.pb != null) {
+			if (!(holder.pb instanceof LinearProgressIndicator)) {
+				holder.pb.setVisibility(pctDone < 0 ? View.INVISIBLE : View.VISIBLE);
+			}
+			int pctDoneInt = (int) (pctDone * 10000);
+			if (holder.pb.getProgress() != pctDoneInt) {
+				AndroidUtilsUI.setProgress(holder.pb, pctDoneInt, true);
+			}
+			float shareRatio = getFloat(item,
+					TransmissionVars.FIELD_TORRENT_UPLOAD_RATIO, -1);
+			int ratioPct = (int) (pctDoneInt == 10000 ? shareRatio * 10000
+					: (shareRatio * (10000 - 2400)) + 1200);
+			holder.pb.setSecondaryProgress(ratioPct);
+		}
+	}
+
+	private void fillETA(@NonNull TorrentListHolderItem holder, Map<?, ?> item,
+			float pctDone, @NonNull Resources resources,
+			@NonNull ViewHolderFlipValidator validator) {
+		if (holder.tvETA != null) {
+			long etaSecs = getLong(item, TransmissionVars.FIELD_TORRENT_ETA, -1);
+			CharSequence s = "";
+			if (etaSecs > 0 && etaSecs * 1000L < DateUtils.WEEK_IN_MILLIS) {
+				s = DisplayFormatters.prettyFormatTimeDiffShort(resources, etaSecs);
+			} else if (pctDone >= 1) {
+				float shareRatio = getFloat(item,
+						TransmissionVars.FIELD_TORRENT_UPLOAD_RATIO, -1);
+				s = shareRatio < 0 ? ""
+						: AndroidUtils.fromHTML(resources,
+								holder.isSmall ? R.string.torrent_row_share_ratio
+										: R.string.torrent_row_share_ratio_circle,
+								shareRatio);
+			}
+			flipper.changeText(holder.tvETA, s, holder.animateFlip, validator);
+		}
+	}
+
+	private void fillRates(@NonNull TorrentListHolderItem holder,
+			Map<?, ?> item, @NonNull ViewHolderFlipValidator validator) {
+		if (holder.tvUlRate != null) {
+			long rateUpload = getLong(item,
+					TransmissionVars.FIELD_TORRENT_RATE_UPLOAD, 0);
+
+			if (rateUpload > 0) {
+				String text = "|\u25B2 "
+						+ DisplayFormatters.formatByteCountToKiBEtcPerSec(rateUpload) + '|';
+				SpannableStringBuilder ss = new SpannableStringBuilder(text);
+				SpanBubbles.setSpanBubbles(ss, text, "|", holder.tvUlRate.getPaint(),
+						0xFF40A080, colorFGTagState, 0x3040A080, null);
+				flipper.changeText(holder.tvUlRate, ss, holder.animateFlip, validator);
+			} else {
+				flipper.changeText(holder.tvUlRate, "", holder.animateFlip, validator);
+			}
+		}
+		if (holder.tvDlRate != null) {
+			long rateDownload = getLong(item,
+					TransmissionVars.FIELD_TORRENT_RATE_DOWNLOAD, 0);
+
+			if (rateDownload > 0) {
+				String text = "|\u25BC "
+						+ DisplayFormatters.formatByteCountToKiBEtcPerSec(rateDownload)
+						+ '|';
+				SpannableStringBuilder ss = new SpannableStringBuilder(text);
+				SpanBubbles.setSpanBubbles(ss, text, "|", holder.tvDlRate.getPaint(),
+						0xFF2a8bcb, colorFGTagState, 0x302a8bcb, null);
+				flipper.changeText(holder.tvDlRate, ss, holder.animateFlip, validator);
+			} else {
+				flipper.changeText(holder.tvDlRate, "", holder.animateFlip, validator);
+			}
+		}
+	}
+}
@@ -17,6 +17,7 @@
 package com.biglybt.android.client.adapter;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.biglybt.android.adapter.GroupedSortDefinition;
 import com.biglybt.android.adapter.SortDefinition;
@@ -25,8 +26,11 @@ import com.biglybt.android.client.TorrentUtils;
 import com.biglybt.android.client.TransmissionVars;
 import com.biglybt.android.client.session.Session;
 import com.biglybt.android.client.session.Session_Tag;
+import com.biglybt.android.client.session.TorrentListChanges;
+import com.biglybt.android.client.session.TorrentRow;
 import com.biglybt.android.util.MapUtils;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -58,6 +62,54 @@ public class TorrentListSorter
 		return null;
 	}
 
+	/**
+	 * @return true if changes could alter sort order or grouping
+	 */
+	public boolean isAffectedBy(@NonNull TorrentListChanges changes) {
+		SortDefinition sortDefinition = getSortDefinition();
+		if (sortDefinition == null) {
+			// Custom comparator; can't tell what it uses
+			return !changes.getChangedFields().isEmpty();
+		}
+		for (String fieldID : sortDefinition.sortFieldIDs) {
+			if (changes.hasChangedAny(fieldID)) {
+				return true;
+			}
+			// Fields modifyField pulls in
+			if (fieldID.equals(SORTDEFINITION_ACTIVESORT)
+					&& changes.hasChangedAny(TransmissionVars.FIELD_TORRENT_TAG_UIDS,
+							TransmissionVars.FIELD_TORRENT_RATE_DOWNLOAD,
+							TransmissionVars.FIELD_TORRENT_RATE_UPLOAD)) {
+				return true;
+			}
+			if (fieldID.equals(TransmissionVars.FIELD_TORRENT_PERCENT_DONE)
+					&& changes.hasChangedAny(
+							TransmissionVars.FIELD_TORRENT_METADATA_PERCENT_DONE)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Adds torrent fields the current sort reads to fieldIDs
+	 */
+	void addTorrentFieldIDs(@NonNull Collection<String> fieldIDs) {
+		SortDefinition sortDefinition = getSortDefinition();
+		if (sortDefinition == null) {
+			return;
+		}
+		for (String fieldID : sortDefinition.sortFieldIDs) {
+			if (fieldID.equals(SORTDEFINITION_ACTIVESORT)) {
+				fieldIDs.add(TransmissionVars.FIELD_TORRENT_TAG_UIDS);
+				fieldIDs.add(TransmissionVars.FIELD_TORRENT_RATE_DOWNLOAD);
+				fieldIDs.add(TransmissionVars.FIELD_TORRENT_RATE_UPLOAD);
+			} else {
+				fieldIDs.add(fieldID);
+			}
+		}
+	}
+
 	@Override
 	public Map<?, ?> mapGetter(TorrentListAdapterItem o) {
 		Session session = sessionGetter.getSession();
@@ -67,6 +119,52 @@ public class TorrentListSorter
 		return null;
 	}
 
+	/**
+	 * Integral column fields are read from {@link TorrentRow}s without boxing
+	 */
+	@Nullable
+	@Override
+	protected LongKeyReader getLongKeyReader(@NonNull String fieldID) {
+		int col = TorrentRow.columnOf(fieldID);
+		if (col < 0
+				|| fieldID.equals(TransmissionVars.FIELD_TORRENT_PERCENT_DONE)) {
+			return null;
+		}
+		return new ColumnKeyReader(fieldID, col);
+	}
+
+	private static final class ColumnKeyReader
+		implements LongKeyReader
+	{
+		@NonNull
+		private final String fieldID;
+
+		private final int col;
+
+		private final boolean isETA;
+
+		ColumnKeyReader(@NonNull String fieldID, int col) {
+			this.fieldID = fieldID;
+			this.col = col;
+			isETA = fieldID.equals(TransmissionVars.FIELD_TORRENT_ETA);
+		}
+
+		@Override
+		public boolean has(@NonNull Map<?, ?> map) {
+			return (map instanceof TorrentRow) ? ((TorrentRow) map).hasColumn(col)
+					: map.get(fieldID) instanceof Number;
+		}
+
+		@Override
+		public long get(@NonNull Map<?, ?> map) {
+			long value = (map instanceof TorrentRow)
+					? ((TorrentRow) map).getLong(col, 0)
+					: MapUtils.getMapLong(map, fieldID, 0);
+			// same as modifyField
+			return isETA && value < 0 ? Long.MAX_VALUE : value;
+		}
+	}
+
 	@SuppressWarnings("rawtypes")
 	@Override
 	public Comparable modifyField(String fieldID, Map map, Comparable o) {
@@ -0,0 +1,93 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.biglybt.android.client.dialog;
+
+import android.app.Dialog;
+import android.content.ActivityNotFoundException;
+import android.content.Intent;
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+import androidx.fragment.app.DialogFragment;
+import androidx.fragment.app.FragmentActivity;
+import androidx.fragment.app.FragmentManager;
+
+import com.biglybt.android.client.AnalyticsTracker;
+import com.biglybt.android.client.AndroidUtilsUI;
+import com.biglybt.android.client.R;
+import com.biglybt.android.client.rpc.RPCMetrics;
+import com.biglybt.android.client.session.Session;
+import com.biglybt.android.client.session.SessionManager;
+import com.google.android.material.dialog.MaterialAlertDialogBuilder;
+
+/**
+ * Shows per RPC method latency, size and error counts from
+ * {@link RPCMetrics}, with an option to share them as JSON.
+ */
+public class DialogFragmentRPCMetrics
+	extends DialogFragmentBase
+{
+	private static final String TAG = "RPCMetricsDialog";
+
+	public static void openDialog(FragmentManager fm, String remoteProfileID) {
+		DialogFragment dlg = new DialogFragmentRPCMetrics();
+		Bundle bundle = new Bundle();
+		bundle.putString(SessionManager.BUNDLE_KEY, remoteProfileID);
+		dlg.setArguments(bundle);
+		AndroidUtilsUI.showDialog(dlg, fm, TAG);
+	}
+
+	@NonNull
+	@Override
+	public Dialog onCreateDialog(Bundle savedInstanceState) {
+		Session session = SessionManager.findOrCreateSession(this, null);
+		RPCMetrics rpcMetrics = session == null ? null : session.getRPCMetrics();
+		if (rpcMetrics == null) {
+			AnalyticsTracker.getInstance(this).logError("no metrics", TAG);
+			return super.onCreateDialog(savedInstanceState);
+		}
+
+		FragmentActivity activity = requireActivity();
+		String text = rpcMetrics.dumpText();
+
+		MaterialAlertDialogBuilder builder = new MaterialAlertDialogBuilder(
+				activity);
+		builder.setTitle(R.string.rpc_diagnostics);
+		builder.setMessage(text.isEmpty() ? "-" : text);
+		builder.setPositiveButton(android.R.string.ok, (dialog, id) -> {
+		});
+		builder.setNeutralButton(R.string.rpc_diagnostics_share,
+				(dialog, id) -> share(activity, rpcMetrics));
+		return builder.create();
+	}
+
+	private static void share(@NonNull FragmentActivity activity,
+			@NonNull RPCMetrics rpcMetrics) {
+		Intent intent = new Intent(Intent.ACTION_SEND);
+		intent.setType("text/plain");
+		intent.putExtra(Intent.EXTRA_SUBJECT,
+				activity.getString(R.string.rpc_diagnostics));
+		intent.putExtra(Intent.EXTRA_TEXT,
+				rpcMetrics.dumpText() + "\n" + rpcMetrics.dumpJSON());
+		try {
+			activity.startActivity(Intent.createChooser(intent,
+					activity.getString(R.string.rpc_diagnostics_share)));
+		} catch (ActivityNotFoundException e) {
+			AnalyticsTracker.getInstance(activity).logError(e);
+		}
+	}
+}
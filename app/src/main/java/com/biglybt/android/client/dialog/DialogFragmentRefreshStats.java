@@ -0,0 +1,121 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.biglybt.android.client.dialog;
+
+import android.app.Dialog;
+import android.content.res.Resources;
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+import androidx.fragment.app.DialogFragment;
+import androidx.fragment.app.FragmentManager;
+
+import com.biglybt.android.client.AnalyticsTracker;
+import com.biglybt.android.client.AndroidUtilsUI;
+import com.biglybt.android.client.R;
+import com.biglybt.android.client.session.*;
+import com.biglybt.util.DisplayFormatters;
+import com.google.android.material.dialog.MaterialAlertDialogBuilder;
+
+import java.util.List;
+
+/**
+ * Debug screen showing bytes per torrent list refresh, with and without
+ * field projection ({@link TorrentFieldRegistry}).
+ */
+public class DialogFragmentRefreshStats
+	extends DialogFragmentBase
+{
+	private static final String TAG = "RefreshStatsDialog";
+
+	public static void openDialog(FragmentManager fm, String remoteProfileID) {
+		DialogFragment dlg = new DialogFragmentRefreshStats();
+		Bundle bundle = new Bundle();
+		bundle.putString(SessionManager.BUNDLE_KEY, remoteProfileID);
+		dlg.setArguments(bundle);
+		AndroidUtilsUI.showDialog(dlg, fm, TAG);
+	}
+
+	@NonNull
+	@Override
+	public Dialog onCreateDialog(Bundle savedInstanceState) {
+		Session session = SessionManager.findOrCreateSession(this, null);
+		if (session == null) {
+			AnalyticsTracker.getInstance(this).logError("session null", TAG);
+			return super.onCreateDialog(savedInstanceState);
+		}
+
+		TorrentFieldRegistry fieldRegistry = session.torrent.getFieldRegistry();
+
+		MaterialAlertDialogBuilder builder = new MaterialAlertDialogBuilder(
+				requireActivity());
+		builder.setTitle(R.string.action_refresh_stats);
+		builder.setMessage(buildStats(getResources(), session));
+		builder.setPositiveButton(android.R.string.ok, (dialog, id) -> {
+		});
+		builder.setNeutralButton(
+				fieldRegistry.isEnabled() ? R.string.refresh_stats_projection_off
+						: R.string.refresh_stats_projection_on,
+				(dialog, id) -> fieldRegistry.setEnabled(!fieldRegistry.isEnabled()));
+		return builder.create();
+	}
+
+	@NonNull
+	private static String buildStats(@NonNull Resources res,
+			@NonNull Session session) {
+		TorrentFieldRegistry fieldRegistry = session.torrent.getFieldRegistry();
+		RefreshScheduler refreshScheduler = session.getRefreshScheduler();
+
+		StringBuilder sb = new StringBuilder();
+		sb.append(res.getString(R.string.refresh_stats_projection,
+				res.getString(fieldRegistry.isEnabled() ? R.string.refresh_stats_on
+						: R.string.refresh_stats_off)));
+		sb.append("\n\n").append(res.getString(R.string.refresh_stats_all_fields,
+				formatAvg(res, fieldRegistry.getAvgBytesFullRefresh(),
+						fieldRegistry.getNumFullRefreshes())));
+		sb.append('\n').append(res.getString(R.string.refresh_stats_projected,
+				formatAvg(res, fieldRegistry.getAvgBytesProjectedRefresh(),
+						fieldRegistry.getNumProjectedRefreshes())));
+
+		List<String> fields = session.getRefreshTorrentFieldIDs();
+		if (fields != null) {
+			sb.append("\n\n").append(res.getString(R.string.refresh_stats_requesting,
+					fields.size(), fields.toString()));
+		}
+		sb.append("\n\n").append(res.getString(R.string.refresh_stats_total,
+				DisplayFormatters.formatByteCountToKiBEtc(session.getBytesReceived())));
+
+		sb.append("\n\n").append(res.getString(R.string.refresh_stats_interval,
+				refreshScheduler.getEffectiveInterval()));
+		sb.append('\n').append(res.getString(R.string.refresh_stats_no_change,
+				(int) (refreshScheduler.getNoChangeRatio() * 100)));
+		sb.append('\n').append(res.getString(R.string.refresh_stats_saved,
+				DisplayFormatters.formatByteCountToKiBEtc(
+						refreshScheduler.getBytesSaved())));
+		return sb.toString();
+	}
+
+	@NonNull
+	private static String formatAvg(@NonNull Resources res, long avgBytes,
+			long num) {
+		if (avgBytes < 0) {
+			return "-";
+		}
+		return res.getString(R.string.refresh_stats_avg,
+				DisplayFormatters.formatByteCountToKiBEtc(avgBytes), num);
+	}
+}
@@ -99,6 +99,15 @@ public class FilesFragment
 	 */
 	private static final boolean tryLaunchWithMimeFirst = false;
 
+	/** Torrents with fewer files always refresh every file */
+	private static final int MIN_FILES_FOR_WINDOWED_REFRESH = 1000;
+
+	/** Off screen files each periodic refresh sweeps through */
+	private static final int SWEEP_FILES_PER_REFRESH = 500;
+
+	/** Files of folders on screen, refreshed to keep their totals current */
+	private static final int MAX_FOLDER_FILES_PER_REFRESH = 1000;
+
 	private final RecyclerView.OnScrollListener onScrollListener;
 
 	@Thunk
@@ -136,6 +145,13 @@ public class FilesFragment
 	@Thunk
 	long lastUpdated = 0;
 
+	/** Torrent whose files all got refreshed since the page was shown */
+	@Thunk
+	long fullyRefreshedTorrentID = -1;
+
+	/** Next row of the off screen sweep */
+	private int sweepRow;
+
 	@Thunk
 	TextView tvScrollTitle;
 
@@ -231,7 +247,10 @@ public class FilesFragment
 		swipeRefresh = view.findViewById(R.id.swipe_container);
 		if (swipeRefresh != null) {
 			swipeRefresh.setExtraLayout(R.layout.swipe_layout_extra);
-			swipeRefresh.setOnRefreshListener(this::triggerRefresh);
+			swipeRefresh.setOnRefreshListener(() -> {
+				fullyRefreshedTorrentID = -1;
+				triggerRefresh();
+			});
 			swipeRefresh.setOnExtraViewVisibilityChange(
 					new SwipeTextUpdater(getLifecycle(), (tvSwipeText) -> {
 						long sinceMS = System.currentTimeMillis() - lastUpdated;
@@ -1423,8 +1442,13 @@ public class FilesFragment
 		}
 
 		setRefreshing(true);
-		session.torrent.getFileInfo(TAG, torrentID, null, (id, added, fields, idxs,
-				removed) -> OffThread.runOnUIThread(this, false, a -> {
+		long refreshingTorrentID = torrentID;
+		int[] fileIndexes = getRefreshFileIndexes();
+		session.torrent.getFileInfo(TAG, torrentID, fileIndexes, (id, added, fields,
+				idxs, removed) -> OffThread.runOnUIThread(this, false, a -> {
+					if (fileIndexes == null) {
+						fullyRefreshedTorrentID = refreshingTorrentID;
+					}
 					if (swipeRefresh != null) {
 						swipeRefresh.setRefreshing(false);
 					}
@@ -1432,9 +1456,74 @@ public class FilesFragment
 				}));
 	}
 
+	/**
+	 * Periodic refreshes only need the files on screen, a screen's worth
+	 * either side, and the files of folders on screen.  A slice of the rest
+	 * is swept through each time so off screen files don't go stale.
+	 *
+	 * @return null to refresh every file
+	 */
+	@Nullable
+	private int[] getRefreshFileIndexes() {
+		if (fullyRefreshedTorrentID != torrentID || adapter == null
+				|| listview == null) {
+			return null;
+		}
+		int numFiles = adapter.getFilter().getUnfilteredFileCount();
+		if (numFiles < MIN_FILES_FOR_WINDOWED_REFRESH) {
+			return null;
+		}
+		// An evicted or out of date table would be rebuilt from a partial reply,
+		// leaving only the refreshed files
+		Map<?, ?> torrent = session.torrent.getCachedTorrent(torrentID);
+		if (torrent == null) {
+			return null;
+		}
+		List<?> listFiles = MapUtils.getMapList(torrent,
+				TransmissionVars.FIELD_TORRENT_FILES, null);
+		if (listFiles == null || listFiles.size() != numFiles) {
+			return null;
+		}
+		LinearLayoutManager lm = (LinearLayoutManager) listview.getLayoutManager();
+		if (lm == null) {
+			return null;
+		}
+		int first = lm.findFirstVisibleItemPosition();
+		int last = lm.findLastVisibleItemPosition();
+		if (first == RecyclerView.NO_POSITION) {
+			return null;
+		}
+		int prefetch = last - first + 1;
+
+		BitSet rows = new BitSet(numFiles);
+		adapter.addRowsInRange(first - prefetch, last + prefetch,
+				MAX_FOLDER_FILES_PER_REFRESH, rows);
+
+		int swept = 0;
+		for (int i = 0; i < numFiles && swept < SWEEP_FILES_PER_REFRESH; i++) {
+			int row = sweepRow;
+			sweepRow = (sweepRow + 1) % numFiles;
+			if (!rows.get(row)) {
+				rows.set(row);
+				swept++;
+			}
+		}
+
+		int[] fileIndexes = new int[rows.cardinality()];
+		int num = 0;
+		for (int row = rows.nextSetBit(0); row >= 0
+				&& row < numFiles; row = rows.nextSetBit(row + 1)) {
+			fileIndexes[num++] = row;
+		}
+		return num == fileIndexes.length ? fileIndexes
+				: Arrays.copyOf(fileIndexes, num);
+	}
+
 	@Override
 	public void pageActivated() {
 		listview.addOnScrollListener(onScrollListener);
+		// Nothing was refreshed while we were hidden
+		fullyRefreshedTorrentID = -1;
 		super.pageActivated();
 
 		FragmentActivity activity = getActivity();
@@ -1514,6 +1603,7 @@ public class FilesFragment
 		listview.removeOnScrollListener(onScrollListener);
 		finishActionMode();
 		super.pageDeactivated();
+		session.cancelRpcCalls(TAG);
 
 		FragmentActivity activity = getActivity();
 		if (activity == null || activity.isFinishing()) {
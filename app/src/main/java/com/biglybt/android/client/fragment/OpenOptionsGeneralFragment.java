@@ -206,11 +206,12 @@ public class OpenOptionsGeneralFragment
 	}
 
 	public void locationChanged(@NonNull PathInfo location) {
+		session.torrent.setCachedTorrentField(torrentID,
+				TransmissionVars.FIELD_TORRENT_DOWNLOAD_DIR, location.fullPath);
 		Map<String, Object> torrent = session.torrent.getCachedTorrent(torrentID);
 		if (torrent == null) {
 			return;
 		}
-		torrent.put(TransmissionVars.FIELD_TORRENT_DOWNLOAD_DIR, location.fullPath);
 		updateFields(torrent);
 	}
 
@@ -192,6 +192,12 @@ public class PeersFragment
 		return null; // adapter isn't SortableRecyclerAdapter yet
 	}
 
+	@Override
+	public void pageDeactivated() {
+		super.pageDeactivated();
+		session.cancelRpcCalls(TAG);
+	}
+
 	@Override
 	public void pageActivated() {
 		super.pageActivated();
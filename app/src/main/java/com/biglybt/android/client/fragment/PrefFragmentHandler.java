@@ -94,6 +94,8 @@ public class PrefFragmentHandler
 
 	private static final String KEY_ACTION_ISSUE = "action_issue";
 
+	private static final String KEY_ACTION_RPC_DIAGNOSTICS = "action_rpc_diagnostics";
+
 	private static final String KEY_ACTION_FULL_SETTINGS = "action_full_settings";
 
 	private static final String KEY_PEER_PORT_RANDOM = "peer_port_random";
@@ -303,6 +305,16 @@ public class PrefFragmentHandler
 				return true;
 			}
 
+			case KEY_ACTION_RPC_DIAGNOSTICS: {
+				Session session = activity.getSession();
+				if (session != null) {
+					DialogFragmentRPCMetrics.openDialog(
+							AndroidUtilsUI.getSafeParentFragmentManager(fragment),
+							session.getRemoteProfile().getID());
+				}
+				return true;
+			}
+
 			case KEY_ACTION_GIVEBACK: {
 				DialogFragmentGiveback.openDialog(activity,
 						AndroidUtilsUI.getSafeParentFragmentManager(fragment), true, TAG);
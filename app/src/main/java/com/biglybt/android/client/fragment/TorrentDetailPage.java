@@ -36,6 +36,8 @@ import com.biglybt.android.client.sidelist.*;
 import com.biglybt.util.Thunk;
 import com.google.android.material.progressindicator.BaseProgressIndicator;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -234,6 +236,7 @@ public abstract class TorrentDetailPage
 
 		session.removeRefreshTriggerListener(this);
 		session.torrent.removeListReceivedListener(this);
+		session.torrent.getFieldRegistry().unregister(this);
 
 		{ // if (hasOptionsMenu()) {
 			AndroidUtilsUI.invalidateOptionsMenuHC(getActivity());
@@ -341,6 +344,8 @@ public abstract class TorrentDetailPage
 
 		session.addRefreshTriggerListener(this, false);
 		session.torrent.addListReceivedListener(this, false);
+		session.torrent.getFieldRegistry().register(this,
+				this::getTorrentFieldIDs);
 
 		FragmentActivity activity = getActivity();
 		if (activity instanceof ActionModeBeingReplacedListener) {
@@ -360,6 +365,15 @@ public abstract class TorrentDetailPage
 		AnalyticsTracker.getInstance(this).fragmentResume(this);
 	}
 
+	/**
+	 * @return Torrent fields this page reads from the cached torrent map that
+	 * periodic torrent list refreshes should keep current
+	 */
+	@NonNull
+	protected Collection<String> getTorrentFieldIDs() {
+		return Collections.emptyList();
+	}
+
 	@Override
 	@UiThread
 	public final void setTorrentID(long id) {
@@ -439,12 +439,16 @@ public class TorrentDetailsFragment
 	protected void onHideFragment() {
 		super.onHideFragment();
 		session.torrent.removeListReceivedListener(this);
+		session.torrent.getFieldRegistry().unregister(this);
 	}
 
 	@Override
 	protected void onShowFragment() {
 		super.onShowFragment();
 		session.torrent.addListReceivedListener(TAG, this);
+		// Top area is a torrent row
+		session.torrent.getFieldRegistry().register(this,
+				() -> TorrentListRowFiller.FIELD_IDS);
 	}
 
 	@Override
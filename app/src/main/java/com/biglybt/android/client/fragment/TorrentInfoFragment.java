@@ -119,6 +119,12 @@ public class TorrentInfoFragment
 		return view;
 	}
 
+	@NonNull
+	@Override
+	protected Collection<String> getTorrentFieldIDs() {
+		return fields;
+	}
+
 	@Override
 	public void triggerRefresh() {
 		triggerRefresh(fields);
@@ -766,12 +766,22 @@ public class TorrentListFragment
 		session.addSessionListener(this);
 		session.addSessionSettingsChangedListeners(this);
 		session.torrent.addTorrentListRefreshingListener(this, false);
+		session.torrent.getFieldRegistry().register(this, () -> {
+			Set<String> fieldIDs = new HashSet<>(TorrentListRowFiller.FIELD_IDS);
+			if (torrentListAdapter != null) {
+				fieldIDs.addAll(
+						torrentListAdapter.getTorrentFilter().getTorrentFieldIDs());
+			}
+			return fieldIDs;
+		});
 	}
 
 	@Override
 	public void onHideFragment() {
 		super.onHideFragment();
 
+		session.torrent.getFieldRegistry().unregister(this);
+
 		BiglyBTApp.getNetworkState().removeListener(this);
 
 		session.tag.removeTagListReceivedListener(this);
@@ -864,6 +874,32 @@ public class TorrentListFragment
 		return list;
 	}
 
+	@Override
+	public void rpcTorrentListReceived(String callID, List<?> addedTorrentMaps,
+			List<String> fields, int[] fileIndexes, List<?> removedTorrentIDs,
+			@NonNull TorrentListChanges changes) {
+		if (changes.isEmpty() && !torrentListAdapter.isNeverSetItems()) {
+			return;
+		}
+		if (changes.isStructural()) {
+			OffThread.runOnUIThread(this, false, activity -> {
+				if (torrentListAdapter != null) {
+					torrentListAdapter.recordChanges(changes);
+				}
+			});
+			rpcTorrentListReceived(callID, addedTorrentMaps, fields, fileIndexes,
+					removedTorrentIDs);
+			return;
+		}
+		OffThread.runOnUIThread(this, false, activity -> {
+			rebuildActionMode();
+			if (torrentListAdapter == null) {
+				return;
+			}
+			torrentListAdapter.refreshDisplayList(changes);
+		});
+	}
+
 	@Override
 	public void rpcTorrentListReceived(String callID, List<?> addedTorrentMaps,
 			List<String> fields, final int[] fileIndexes, List<?> removedTorrentIDs) {
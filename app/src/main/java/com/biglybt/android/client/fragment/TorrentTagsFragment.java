@@ -298,6 +298,12 @@ public class TorrentTagsFragment
 		return null;
 	}
 
+	@NonNull
+	@Override
+	protected Collection<String> getTorrentFieldIDs() {
+		return Collections.singletonList(TransmissionVars.FIELD_TORRENT_TAG_UIDS);
+	}
+
 	@Override
 	public void pageActivated() {
 		super.pageActivated();
@@ -0,0 +1,116 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.biglybt.android.client.rpc;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.biglybt.android.util.JSONUtils;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Map;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.*;
+
+/**
+ * Request body that serializes a JSON map directly into the request sink,
+ * optionally through gzip, instead of building a String and byte[] copies
+ * first.
+ * <p/>
+ * When the remote can't take chunked requests, the (compressed) JSON is
+ * encoded once into an okio Buffer up front so Content-Length is known.
+ */
+public class JsonRequestBody
+	extends RequestBody
+{
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	@Nullable
+	private final MediaType contentType;
+
+	@Nullable
+	private final Map<?, ?> json;
+
+	private final boolean gzip;
+
+	/** Pre-encoded body when not chunked, null when streaming */
+	@Nullable
+	private final Buffer buffer;
+
+	/**
+	 * @param gzip Compress body.  Caller must add "Content-Encoding: gzip"
+	 * @param chunked Stream body with unknown length (Transfer-Encoding: chunked)
+	 */
+	public JsonRequestBody(@Nullable MediaType contentType,
+			@Nullable Map<?, ?> json, boolean gzip, boolean chunked)
+			throws IOException {
+		this.contentType = contentType;
+		this.json = json;
+		this.gzip = gzip;
+		if (chunked) {
+			buffer = null;
+		} else {
+			buffer = new Buffer();
+			write(buffer);
+		}
+	}
+
+	@Nullable
+	@Override
+	public MediaType contentType() {
+		return contentType;
+	}
+
+	@Override
+	public long contentLength() {
+		return buffer == null ? -1 : buffer.size();
+	}
+
+	@Override
+	public void writeTo(@NonNull BufferedSink sink)
+			throws IOException {
+		if (buffer != null) {
+			// clone shares segments; keeps buffer intact for retries
+			sink.write(buffer.clone(), buffer.size());
+			return;
+		}
+		write(sink);
+	}
+
+	private void write(@NonNull BufferedSink sink)
+			throws IOException {
+		if (gzip) {
+			BufferedSink gzipSink = Okio.buffer(new GzipSink(sink));
+			writeJSON(gzipSink);
+			gzipSink.close();
+		} else {
+			writeJSON(sink);
+		}
+	}
+
+	private void writeJSON(@NonNull BufferedSink sink)
+			throws IOException {
+		Writer writer = new OutputStreamWriter(sink.outputStream(), UTF8);
+		JSONUtils.encodeToJSON(json, writer);
+		writer.flush();
+	}
+}
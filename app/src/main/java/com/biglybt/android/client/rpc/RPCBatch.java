@@ -0,0 +1,117 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.biglybt.android.client.rpc;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Several RPC calls to be sent in one HTTP request, via
+ * {@link TransmissionRPC#sendBatch(RPCBatch)}.
+ * <p/>
+ * Wire format, when remote advertises "method:batch" in rpc-supports:
+ * <pre>
+ * {"method":"batch","arguments":{"calls":[{"method":..,"arguments":{..}},..]}}
+ * </pre>
+ * Reply has a "replies" list in the same order as "calls", each entry with
+ * its own "result" and "arguments".
+ * <p/>
+ * Remotes without batch support get each call sent one after another.
+ */
+public class RPCBatch
+{
+	/**
+	 * Builds a call's request at send time, so late merges (ie. torrent-get
+	 * coalescing) are included.
+	 */
+	interface CallBuilder
+	{
+		/**
+		 * @return null if call no longer needs to be sent
+		 */
+		@Nullable
+		Call build();
+	}
+
+	static class Call
+	{
+		@NonNull
+		final String requestID;
+
+		@NonNull
+		final Map data;
+
+		@Nullable
+		final ReplyMapReceivedListener l;
+
+		Call(@NonNull String requestID, @NonNull Map data,
+				@Nullable ReplyMapReceivedListener l) {
+			this.requestID = requestID;
+			this.data = data;
+			this.l = l;
+		}
+	}
+
+	final int priority;
+
+	private final List<CallBuilder> builders = new ArrayList<>();
+
+	/**
+	 * @param priority One of RPCDispatcher.PRIORITY_*
+	 */
+	public RPCBatch(int priority) {
+		this.priority = priority;
+	}
+
+	void add(@NonNull String requestID, @NonNull Map data,
+			@Nullable ReplyMapReceivedListener l) {
+		Call call = new Call(requestID, data, l);
+		add(() -> call);
+	}
+
+	void add(@NonNull CallBuilder builder) {
+		synchronized (builders) {
+			builders.add(builder);
+		}
+	}
+
+	public boolean isEmpty() {
+		synchronized (builders) {
+			return builders.isEmpty();
+		}
+	}
+
+	@NonNull
+	List<Call> buildCalls() {
+		List<CallBuilder> list;
+		synchronized (builders) {
+			list = new ArrayList<>(builders);
+		}
+		List<Call> calls = new ArrayList<>(list.size());
+		for (CallBuilder builder : list) {
+			Call call = builder.build();
+			if (call != null) {
+				calls.add(call);
+			}
+		}
+		return calls;
+	}
+}
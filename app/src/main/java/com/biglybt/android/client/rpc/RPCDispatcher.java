@@ -0,0 +1,292 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.biglybt.android.client.rpc;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.biglybt.android.client.AnalyticsTracker;
+import com.biglybt.android.client.AndroidUtils;
+import com.biglybt.util.Thunk;
+
+import java.util.Iterator;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs RPC requests for one {@link TransmissionRPC} on a small, bounded pool
+ * of worker threads.
+ * <p/>
+ * Requests are ordered by priority class, then by submission order.  Queued
+ * requests can be cancelled by callID when the view that asked for them
+ * goes away.  Requests already talking to the remote are left to finish.
+ */
+public class RPCDispatcher
+{
+	private static final String TAG = "RPCDispatcher";
+
+	/** Something the user explicitly did (start, stop, set, add..) */
+	public static final int PRIORITY_USER_ACTION = 0;
+
+	/** Refresh of data for a view the user is looking at */
+	public static final int PRIORITY_VISIBLE_REFRESH = 1;
+
+	/** Periodic refresh of the torrent list */
+	public static final int PRIORITY_BACKGROUND_REFRESH = 2;
+
+	private static final int NUM_PRIORITIES = 3;
+
+	private static final int MAX_WORKERS = 3;
+
+	private static final long KEEP_ALIVE_SECS = 30;
+
+	/** Log requests that waited in queue longer than this, when DEBUG_RPC */
+	private static final long WARN_WAIT_MS = 2000;
+
+	private static final AtomicInteger poolNo = new AtomicInteger();
+
+	private final ThreadPoolExecutor executor;
+
+	private final PriorityBlockingQueue<Runnable> queue = new PriorityBlockingQueue<>();
+
+	@Thunk
+	final AtomicLong seq = new AtomicLong();
+
+	private final AtomicLong numSubmitted = new AtomicLong();
+
+	@Thunk
+	final AtomicLong numCompleted = new AtomicLong();
+
+	private final AtomicLong numCancelled = new AtomicLong();
+
+	@Thunk
+	final AtomicInteger numActive = new AtomicInteger();
+
+	private volatile int maxQueueDepth;
+
+	@Thunk
+	final long[] totalWaitMS = new long[NUM_PRIORITIES];
+
+	@Thunk
+	final long[] maxWaitMS = new long[NUM_PRIORITIES];
+
+	@Thunk
+	final long[] numRan = new long[NUM_PRIORITIES];
+
+	private class Task
+		implements Runnable, Comparable<Task>
+	{
+		@NonNull
+		final String requestID;
+
+		@Nullable
+		final String callID;
+
+		final int priority;
+
+		final long order;
+
+		final long queuedOn;
+
+		@NonNull
+		final Runnable runnable;
+
+		Task(@NonNull String requestID, @Nullable String callID, int priority,
+				@NonNull Runnable runnable) {
+			this.requestID = requestID;
+			this.callID = callID;
+			this.priority = priority;
+			this.runnable = runnable;
+			order = seq.getAndIncrement();
+			queuedOn = SystemClock.elapsedRealtime();
+		}
+
+		@Override
+		public int compareTo(Task o) {
+			if (priority != o.priority) {
+				return priority < o.priority ? -1 : 1;
+			}
+			return Long.compare(order, o.order);
+		}
+
+		@Override
+		public void run() {
+			long waited = SystemClock.elapsedRealtime() - queuedOn;
+			synchronized (totalWaitMS) {
+				totalWaitMS[priority] += waited;
+				numRan[priority]++;
+				if (waited > maxWaitMS[priority]) {
+					maxWaitMS[priority] = waited;
+				}
+			}
+			if (AndroidUtils.DEBUG_RPC && waited > WARN_WAIT_MS) {
+				Log.w(TAG, requestID + "] waited " + waited + "ms in queue (pri "
+						+ priority + "). " + RPCDispatcher.this);
+			}
+			numActive.incrementAndGet();
+			try {
+				runnable.run();
+			} catch (Throwable t) {
+				AnalyticsTracker.getInstance().logError(t);
+			} finally {
+				numActive.decrementAndGet();
+				numCompleted.incrementAndGet();
+			}
+		}
+	}
+
+	public RPCDispatcher(@NonNull String name) {
+		int no = poolNo.incrementAndGet();
+		ThreadFactory threadFactory = new ThreadFactory() {
+			private final AtomicInteger threadNo = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r,
+						"RPC-" + name + "-" + no + "-" + threadNo.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+		// With an unbounded queue, ThreadPoolExecutor never grows past core size,
+		// so core == max
+		executor = new ThreadPoolExecutor(MAX_WORKERS, MAX_WORKERS,
+				KEEP_ALIVE_SECS, TimeUnit.SECONDS, queue, threadFactory);
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * @return false if dispatcher has been shut down and runnable will not run
+	 */
+	@AnyThread
+	public boolean submit(@NonNull String requestID, @Nullable String callID,
+			int priority, @NonNull Runnable runnable) {
+		if (priority < 0 || priority >= NUM_PRIORITIES) {
+			priority = PRIORITY_VISIBLE_REFRESH;
+		}
+		try {
+			executor.execute(new Task(requestID, callID, priority, runnable));
+		} catch (RejectedExecutionException e) {
+			return false;
+		}
+		numSubmitted.incrementAndGet();
+		int depth = queue.size();
+		if (depth > maxQueueDepth) {
+			maxQueueDepth = depth;
+		}
+		return true;
+	}
+
+	/**
+	 * Removes queued requests for callID.  Requests that are already running
+	 * are not interrupted.
+	 *
+	 * @return number of requests removed from queue
+	 */
+	@AnyThread
+	public int cancel(@NonNull String callID) {
+		int num = 0;
+		for (Iterator<Runnable> iter = queue.iterator(); iter.hasNext();) {
+			Runnable r = iter.next();
+			if ((r instanceof Task) && callID.equals(((Task) r).callID)) {
+				iter.remove();
+				num++;
+			}
+		}
+		if (num > 0) {
+			numCancelled.addAndGet(num);
+			if (AndroidUtils.DEBUG_RPC) {
+				Log.d(TAG, "cancel: removed " + num + " queued for " + callID);
+			}
+		}
+		return num;
+	}
+
+	/**
+	 * Drops all queued requests and lets running ones finish
+	 */
+	public void shutdown() {
+		int num = queue.size();
+		queue.clear();
+		numCancelled.addAndGet(num);
+		executor.shutdown();
+	}
+
+	public int getQueueDepth() {
+		return queue.size();
+	}
+
+	public int getMaxQueueDepth() {
+		return maxQueueDepth;
+	}
+
+	public int getActiveCount() {
+		return numActive.get();
+	}
+
+	public long getSubmittedCount() {
+		return numSubmitted.get();
+	}
+
+	public long getCompletedCount() {
+		return numCompleted.get();
+	}
+
+	public long getCancelledCount() {
+		return numCancelled.get();
+	}
+
+	/**
+	 * @return Average time, in ms, requests of priority waited in queue before
+	 * running
+	 */
+	public long getAverageWaitMS(int priority) {
+		synchronized (totalWaitMS) {
+			long num = numRan[priority];
+			return num == 0 ? 0 : totalWaitMS[priority] / num;
+		}
+	}
+
+	public long getMaxWaitMS(int priority) {
+		synchronized (totalWaitMS) {
+			return maxWaitMS[priority];
+		}
+	}
+
+	@NonNull
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("RPCDispatcher{queued=");
+		sb.append(getQueueDepth());
+		sb.append(", maxQueued=").append(maxQueueDepth);
+		sb.append(", active=").append(getActiveCount());
+		sb.append(", submitted=").append(getSubmittedCount());
+		sb.append(", done=").append(getCompletedCount());
+		sb.append(", cancelled=").append(getCancelledCount());
+		for (int i = 0; i < NUM_PRIORITIES; i++) {
+			sb.append(", wait").append(i).append('=');
+			sb.append(getAverageWaitMS(i)).append('/').append(getMaxWaitMS(i));
+		}
+		sb.append('}');
+		return sb.toString();
+	}
+}
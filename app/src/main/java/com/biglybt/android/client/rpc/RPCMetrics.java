@@ -0,0 +1,265 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.biglybt.android.client.rpc;
+
+import androidx.annotation.NonNull;
+
+import com.biglybt.android.util.JSONUtils;
+
+import java.util.*;
+
+/**
+ * Per RPC method timings and sizes, recorded for every request regardless of
+ * debug settings, so slow remotes can be diagnosed in release builds.
+ * <p/>
+ * Values go into fixed log-scale histograms (4 buckets per power of two), so
+ * recording is a few array increments and percentiles are within ~25%.
+ */
+public class RPCMetrics
+{
+	public static class Histogram
+	{
+		/** 0..3 get their own bucket, then 4 per power of two up to 2^62 */
+		private static final int NUM_BUCKETS = 4 + 61 * 4;
+
+		private final long[] buckets = new long[NUM_BUCKETS];
+
+		private long count;
+
+		private long sum;
+
+		private long max;
+
+		void record(long value) {
+			if (value < 0) {
+				value = 0;
+			}
+			buckets[bucketFor(value)]++;
+			count++;
+			sum += value;
+			if (value > max) {
+				max = value;
+			}
+		}
+
+		private static int bucketFor(long value) {
+			if (value < 4) {
+				return (int) value;
+			}
+			int exp = 63 - Long.numberOfLeadingZeros(value);
+			int sub = (int) (value >> (exp - 2)) & 3;
+			return 4 + (exp - 2) * 4 + sub;
+		}
+
+		private static long upperBoundOf(int bucket) {
+			if (bucket < 4) {
+				return bucket;
+			}
+			int exp = (bucket - 4) / 4 + 2;
+			int sub = (bucket - 4) % 4;
+			long lower = (long) (4 + sub) << (exp - 2);
+			return lower + (1L << (exp - 2)) - 1;
+		}
+
+		/**
+		 * @param pct 0..100
+		 * @return Upper bound of the bucket the percentile falls in, capped to
+		 * the largest recorded value.  0 if nothing recorded.
+		 */
+		public long getPercentile(float pct) {
+			if (count == 0) {
+				return 0;
+			}
+			long target = (long) Math.ceil(count * pct / 100.0);
+			if (target < 1) {
+				target = 1;
+			}
+			long seen = 0;
+			for (int i = 0; i < NUM_BUCKETS; i++) {
+				seen += buckets[i];
+				if (seen >= target) {
+					return Math.min(upperBoundOf(i), max);
+				}
+			}
+			return max;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public long getMax() {
+			return max;
+		}
+
+		public long getMean() {
+			return count == 0 ? 0 : sum / count;
+		}
+
+		@NonNull
+		Map<String, Object> toMap() {
+			Map<String, Object> map = new LinkedHashMap<>();
+			map.put("count", count);
+			map.put("mean", getMean());
+			map.put("p50", getPercentile(50));
+			map.put("p90", getPercentile(90));
+			map.put("p99", getPercentile(99));
+			map.put("max", max);
+			return map;
+		}
+	}
+
+	public static class MethodMetrics
+	{
+		/** Whole request, from send until reply decoded */
+		public final Histogram latencyMs = new Histogram();
+
+		/** Until response headers arrived */
+		public final Histogram connectMs = new Histogram();
+
+		/** Reading and decoding reply body */
+		public final Histogram parseMs = new Histogram();
+
+		/** Uncompressed reply size */
+		public final Histogram bytes = new Histogram();
+
+		public long numCalls;
+
+		/** Reply received, but result wasn't "success" */
+		public long numFailures;
+
+		/** No usable reply (connection error, bad status, bad JSON) */
+		public long numErrors;
+
+		/** Session ID refreshes (Transmission's "409 Conflict") */
+		public long num409s;
+
+		@NonNull
+		Map<String, Object> toMap() {
+			Map<String, Object> map = new LinkedHashMap<>();
+			map.put("calls", numCalls);
+			map.put("failures", numFailures);
+			map.put("errors", numErrors);
+			map.put("409s", num409s);
+			map.put("latencyMs", latencyMs.toMap());
+			map.put("connectMs", connectMs.toMap());
+			map.put("parseMs", parseMs.toMap());
+			map.put("bytes", bytes.toMap());
+			return map;
+		}
+	}
+
+	private final Map<String, MethodMetrics> metrics = new TreeMap<>();
+
+	private final long startedOn = System.currentTimeMillis();
+
+	@NonNull
+	private MethodMetrics get(@NonNull String method) {
+		MethodMetrics methodMetrics = metrics.get(method);
+		if (methodMetrics == null) {
+			methodMetrics = new MethodMetrics();
+			metrics.put(method, methodMetrics);
+		}
+		return methodMetrics;
+	}
+
+	synchronized void recordReply(@NonNull String method, long latencyMs,
+			@NonNull RestJsonClient.ReplyStats stats, boolean success) {
+		MethodMetrics methodMetrics = get(method);
+		methodMetrics.numCalls++;
+		if (!success) {
+			methodMetrics.numFailures++;
+		}
+		methodMetrics.latencyMs.record(latencyMs);
+		methodMetrics.connectMs.record(stats.connectMs);
+		methodMetrics.parseMs.record(stats.parseMs);
+		methodMetrics.bytes.record(stats.bytesRead);
+	}
+
+	synchronized void recordError(@NonNull String method, long latencyMs,
+			int statusCode) {
+		MethodMetrics methodMetrics = get(method);
+		methodMetrics.numCalls++;
+		if (statusCode == 409) {
+			methodMetrics.num409s++;
+		} else {
+			methodMetrics.numErrors++;
+		}
+		methodMetrics.latencyMs.record(latencyMs);
+	}
+
+	public synchronized void reset() {
+		metrics.clear();
+	}
+
+	/**
+	 * @return Human readable summary, one block per method
+	 */
+	@NonNull
+	public synchronized String dumpText() {
+		StringBuilder sb = new StringBuilder();
+		for (Map.Entry<String, MethodMetrics> entry : metrics.entrySet()) {
+			MethodMetrics m = entry.getValue();
+			sb.append(entry.getKey()).append(": ").append(m.numCalls).append(
+					" calls");
+			if (m.numFailures > 0) {
+				sb.append(", ").append(m.numFailures).append(" failed");
+			}
+			if (m.numErrors > 0) {
+				sb.append(", ").append(m.numErrors).append(" errors");
+			}
+			if (m.num409s > 0) {
+				sb.append(", ").append(m.num409s).append(" 409s");
+			}
+			sb.append('\n');
+			appendHistogram(sb, "latency", m.latencyMs, "ms");
+			appendHistogram(sb, "connect", m.connectMs, "ms");
+			appendHistogram(sb, "parse", m.parseMs, "ms");
+			appendHistogram(sb, "bytes", m.bytes, "");
+			sb.append('\n');
+		}
+		return sb.toString();
+	}
+
+	private static void appendHistogram(@NonNull StringBuilder sb,
+			@NonNull String name, @NonNull Histogram h, @NonNull String unit) {
+		if (h.getCount() == 0) {
+			return;
+		}
+		sb.append("  ").append(name).append(" p50 ").append(
+				h.getPercentile(50)).append(unit).append(", p90 ").append(
+						h.getPercentile(90)).append(unit).append(", p99 ").append(
+								h.getPercentile(99)).append(unit).append(", max ").append(
+										h.getMax()).append(unit).append('\n');
+	}
+
+	/**
+	 * @return JSON of all metrics, for exporting
+	 */
+	@NonNull
+	public synchronized String dumpJSON() {
+		Map<String, Object> map = new LinkedHashMap<>();
+		map.put("since", startedOn);
+		map.put("now", System.currentTimeMillis());
+		Map<String, Object> methods = new LinkedHashMap<>();
+		for (Map.Entry<String, MethodMetrics> entry : metrics.entrySet()) {
+			methods.put(entry.getKey(), entry.getValue().toMap());
+		}
+		map.put("methods", methods);
+		return JSONUtils.encodeToJSON(map);
+	}
+}
@@ -41,4 +41,9 @@ public interface RPCSupports
 	int SUPPORTS_FIELD_SEQUENTIAL = 8;
 	
 	int SUPPORTS_FILES_DELETE = 9;
+
+	int SUPPORTS_BATCH = 10;
+
+	/** File index arguments can be [[first, last], ...] runs */
+	int SUPPORTS_FILE_INDEX_RANGES = 11;
 }
@@ -17,7 +17,9 @@
 package com.biglybt.android.client.rpc;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
+import java.io.Reader;
 import java.util.Map;
 
 /**
@@ -33,10 +35,50 @@ public abstract class RestJsonClient
 	abstract void setSupportsSendingGzip(boolean supportsSendingGzip,
 			boolean supportsSendingChunk);
 
-	abstract Map<?, ?> connect(String requestID, String url, Map<?, ?> jsonPost,
+	Map<?, ?> connect(String requestID, String url, Map<?, ?> jsonPost,
 			Map<String, String> headers, String username, String password)
+			throws RPCException {
+		return connect(requestID, url, jsonPost, headers, username, password,
+				null, null);
+	}
+
+	/**
+	 * @param decoder Decodes reply body.  null for generic JSON decoding
+	 * @param stats Filled in with reply information, when not null
+	 */
+	abstract Map<?, ?> connect(String requestID, String url, Map<?, ?> jsonPost,
+			Map<String, String> headers, String username, String password,
+			@Nullable ReplyDecoder decoder, @Nullable ReplyStats stats)
 			throws RPCException;
 
+	/**
+	 * Information about a reply, filled in by connect
+	 */
+	public static class ReplyStats
+	{
+		/** Size of decoded (uncompressed) reply body */
+		public long bytesRead;
+
+		/** Time from building request until response headers arrived */
+		public long connectMs;
+
+		/** Time spent reading and decoding reply body */
+		public long parseMs;
+
+		/** HTTP status code, or 0 if no response */
+		public int statusCode;
+	}
+
+	/**
+	 * Decodes a reply body into the same structure
+	 * {@link com.biglybt.android.util.JSONUtils#decodeJSON(Reader)} would
+	 */
+	public interface ReplyDecoder
+	{
+		@NonNull
+		Map<?, ?> decode(@NonNull Reader reader);
+	}
+
 	@NonNull
 	public static RestJsonClient getInstance(boolean supportsSendingGZip,
 			boolean supportsChunkedRequests) {
@@ -35,7 +35,6 @@ import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.zip.GZIPOutputStream;
 
 import javax.net.ssl.*;
 
@@ -84,7 +83,8 @@ public class RestJsonClientOkHttp
 	@Override
 	public Map<?, ?> connect(String requestID, String url,
 			@Nullable Map<?, ?> jsonPost, @Nullable Map<String, String> headers,
-			@Nullable String username, @Nullable String password)
+			@Nullable String username, @Nullable String password,
+			@Nullable ReplyDecoder decoder, @Nullable ReplyStats stats)
 			throws RPCException {
 		long readTime = 0;
 		long connSetupTime = 0;
@@ -126,21 +126,14 @@ public class RestJsonClientOkHttp
 			}
 
 			if (jsonPost != null) {
-				String postString = JSONUtils.encodeToJSON(jsonPost);
 				if (AndroidUtils.DEBUG_RPC) {
-					Log.d(TAG, requestID + "]  Post: " + postString);
+					Log.d(TAG, requestID + "]  Post: " + JSONUtils.encodeToJSON(jsonPost));
 				}
-				if (supportsSendingGzip && !supportsSendingChunk) {
+				if (supportsSendingGzip) {
 					builder.addHeader("Content-Encoding", "gzip");
-					byte[] compressed = compressString(postString);
-					RequestBody requestBody = RequestBody.create(MEDIATYPE_JSON,
-							compressed);
-					builder.post(requestBody);
-				} else {
-					RequestBody requestBody = RequestBody.create(MEDIATYPE_JSON,
-							postString.getBytes());
-					builder.post(requestBody);
 				}
+				builder.post(new JsonRequestBody(MEDIATYPE_JSON, jsonPost,
+						supportsSendingGzip, supportsSendingChunk));
 			}
 
 			if (username != null) {
@@ -154,20 +147,20 @@ public class RestJsonClientOkHttp
 
 			// Execute the response
 			then = System.currentTimeMillis();
-			if (AndroidUtils.DEBUG_RPC) {
-				connSetupTime = (then - now);
-				now = then;
-			}
+			connSetupTime = (then - now);
+			now = then;
 
 			Response response = localClient.newCall(request).execute();
 
 			then = System.currentTimeMillis();
-			if (AndroidUtils.DEBUG_RPC) {
-				connTime = (then - now);
-				now = then;
-			}
+			connTime = (then - now);
+			now = then;
 
 			int statusCode = response.code();
+			if (stats != null) {
+				stats.connectMs = connSetupTime + connTime;
+				stats.statusCode = statusCode;
+			}
 
 			if (AndroidUtils.DEBUG_RPC && statusCode != 200) {
 				Log.d(TAG, "StatusCode: " + statusCode);
@@ -217,12 +210,23 @@ public class RestJsonClientOkHttp
 						now = then;
 					}
 
-					json = JSONUtils.decodeJSON(sb.toString());
+					if (stats != null) {
+						stats.bytesRead = sb.length();
+					}
+					json = decoder == null ? JSONUtils.decodeJSON(sb.toString())
+							: decoder.decode(new StringReader(sb.toString()));
 				} else {
 					isr = body.charStream();
-					br = new BufferedReader(isr, 8192);
+					CountingReader countingReader = stats == null ? null
+							: new CountingReader(isr);
+					br = new BufferedReader(countingReader == null ? isr : countingReader,
+							8192);
 					br.mark(32767);
-					json = JSONUtils.decodeJSON(br);
+					json = decoder == null ? JSONUtils.decodeJSON(br)
+							: decoder.decode(br);
+					if (countingReader != null) {
+						stats.bytesRead = countingReader.count;
+					}
 
 					if (DEBUG_DETAILED) {
 						String s = json.toString();
@@ -315,8 +319,11 @@ public class RestJsonClientOkHttp
 			throw new RPCException(e);
 		}
 
+		then = System.currentTimeMillis();
+		if (stats != null) {
+			stats.parseMs = readTime + (then - now);
+		}
 		if (AndroidUtils.DEBUG_RPC) {
-			then = System.currentTimeMillis();
 			Log.d(TAG,
 					requestID + "] conn " + connSetupTime + "/" + connTime + "ms. Read "
 							+ bytesRead + " in " + readTime + "ms, parsed in " + (then - now)
@@ -325,6 +332,36 @@ public class RestJsonClientOkHttp
 		return json;
 	}
 
+	private static class CountingReader
+		extends FilterReader
+	{
+		long count;
+
+		CountingReader(Reader in) {
+			super(in);
+		}
+
+		@Override
+		public int read()
+				throws IOException {
+			int c = super.read();
+			if (c >= 0) {
+				count++;
+			}
+			return c;
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len)
+				throws IOException {
+			int read = super.read(cbuf, off, len);
+			if (read > 0) {
+				count += read;
+			}
+			return read;
+		}
+	}
+
 	private static OkHttpClient getUnsafeOkHttpClient(boolean sendChunkedGzip) {
 		try {
 			// Create a trust manager that does not validate certificate chains
@@ -372,18 +409,4 @@ public class RestJsonClientOkHttp
 			throw new RuntimeException(e);
 		}
 	}
-
-	private static byte[] compressString(String str)
-			throws IOException {
-		if (str == null || str.length() == 0) {
-			return new byte[0];
-		}
-
-		ByteArrayOutputStream arr = new ByteArrayOutputStream(str.length());
-		OutputStream zipper = new GZIPOutputStream(arr);
-		zipper.write(str.getBytes());
-		zipper.close();
-
-		return arr.toByteArray();
-	}
 }
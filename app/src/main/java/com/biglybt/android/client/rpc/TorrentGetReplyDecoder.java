@@ -0,0 +1,252 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.biglybt.android.client.rpc;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.alibaba.fastjson.JSONReader;
+import com.alibaba.fastjson.parser.JSONToken;
+import com.biglybt.android.client.TransmissionVars;
+import com.biglybt.android.client.session.TorrentFileTable;
+import com.biglybt.android.util.JSONUtils;
+
+import java.io.Reader;
+import java.util.*;
+
+/**
+ * Streaming decoder for torrent-get replies.
+ * <p/>
+ * The generic path ({@link com.biglybt.android.util.JSONUtils#decodeJSON(Reader)})
+ * builds a List for every compact file row, which
+ * {@link com.biglybt.android.client.session.Session_Torrent} then copies into
+ * a Map.  Here, compact rows are read token by token straight into a
+ * {@link TorrentFileTable}, and "fileKeys" is consumed.  Everything outside of the
+ * torrent list decodes the same as the generic path.
+ */
+public class TorrentGetReplyDecoder
+	implements RestJsonClient.ReplyDecoder
+{
+	private static final String TAG = "TorrentGetDecoder";
+
+	private static final String KEY_ARGUMENTS = "arguments";
+
+	private static final String KEY_TORRENTS = "torrents";
+
+	private static final String KEY_FILEKEYS = "fileKeys";
+
+	@NonNull
+	@Override
+	public Map<String, Object> decode(@NonNull Reader reader) {
+		JSONReader jsonReader = new JSONReader(reader);
+		try {
+			if (jsonReader.peek() != JSONToken.LBRACE) {
+				Map<String, Object> map = new HashMap<>();
+				map.put(JSONUtils.DEFAULT_MAP_KEY, jsonReader.readObject());
+				return map;
+			}
+			Map<String, Object> reply = new HashMap<>();
+			jsonReader.startObject();
+			while (jsonReader.hasNext()) {
+				String key = jsonReader.readString();
+				if (KEY_ARGUMENTS.equals(key)
+						&& jsonReader.peek() == JSONToken.LBRACE) {
+					reply.put(key, readArguments(jsonReader));
+				} else {
+					reply.put(key, jsonReader.readObject());
+				}
+			}
+			jsonReader.endObject();
+			return reply;
+		} finally {
+			jsonReader.close();
+		}
+	}
+
+	@NonNull
+	private static Map<String, Object> readArguments(
+			@NonNull JSONReader jsonReader) {
+		Map<String, Object> arguments = new HashMap<>();
+		jsonReader.startObject();
+		while (jsonReader.hasNext()) {
+			String key = jsonReader.readString();
+			if (KEY_TORRENTS.equals(key)
+					&& jsonReader.peek() == JSONToken.LBRACKET) {
+				arguments.put(key, readTorrents(jsonReader));
+			} else {
+				arguments.put(key, jsonReader.readObject());
+			}
+		}
+		jsonReader.endObject();
+		return arguments;
+	}
+
+	@NonNull
+	private static List<Object> readTorrents(@NonNull JSONReader jsonReader) {
+		List<Object> torrents = new ArrayList<>();
+		jsonReader.startArray();
+		while (jsonReader.hasNext()) {
+			if (jsonReader.peek() == JSONToken.LBRACE) {
+				torrents.add(readTorrent(jsonReader));
+			} else {
+				torrents.add(jsonReader.readObject());
+			}
+		}
+		jsonReader.endArray();
+		return torrents;
+	}
+
+	@NonNull
+	private static Map<String, Object> readTorrent(
+			@NonNull JSONReader jsonReader) {
+		Map<String, Object> torrent = new HashMap<>();
+		String[] fileKeys = null;
+		List<Object> files = null;
+		TorrentFileTable fileTable = null;
+
+		jsonReader.startObject();
+		while (jsonReader.hasNext()) {
+			String key = jsonReader.readString();
+			if (KEY_FILEKEYS.equals(key)
+					&& jsonReader.peek() == JSONToken.LBRACKET) {
+				fileKeys = readStringArray(jsonReader);
+			} else if (TransmissionVars.FIELD_TORRENT_FILES.equals(key)
+					&& jsonReader.peek() == JSONToken.LBRACKET) {
+				if (fileKeys != null) {
+					files = new ArrayList<>();
+					fileTable = readFileTable(jsonReader, fileKeys, files);
+				} else {
+					files = readFiles(jsonReader);
+				}
+			} else {
+				torrent.put(key, jsonReader.readObject());
+			}
+		}
+		jsonReader.endObject();
+
+		if (fileTable != null) {
+			torrent.put(TransmissionVars.FIELD_TORRENT_FILES, fileTable);
+		} else if (files != null) {
+			// "fileKeys" came after "files", or rows are maps (older clients)
+			fileTable = TorrentFileTable.fromRows(files, fileKeys);
+			if (fileTable != null) {
+				torrent.put(TransmissionVars.FIELD_TORRENT_FILES, fileTable);
+			} else {
+				// Leave it to Session_Torrent's compact handling
+				for (int i = 0, num = files.size(); i < num; i++) {
+					Object o = files.get(i);
+					if (o instanceof Object[]) {
+						files.set(i, Arrays.asList((Object[]) o));
+					}
+				}
+				if (fileKeys != null) {
+					torrent.put(KEY_FILEKEYS, Arrays.asList(fileKeys));
+				}
+				torrent.put(TransmissionVars.FIELD_TORRENT_FILES, files);
+			}
+		} else if (fileKeys != null) {
+			torrent.put(KEY_FILEKEYS, Arrays.asList(fileKeys));
+		}
+		return torrent;
+	}
+
+	/**
+	 * Reads compact rows straight into table columns, no Map per file.
+	 *
+	 * @return null if "files" doesn't start with a compact row, in which case
+	 * the rows are read into files instead
+	 */
+	@Nullable
+	private static TorrentFileTable readFileTable(@NonNull JSONReader jsonReader,
+			@NonNull String[] fileKeys, @NonNull List<Object> files) {
+		jsonReader.startArray();
+		if (jsonReader.hasNext() && jsonReader.peek() != JSONToken.LBRACKET) {
+			// map per file; read the usual way
+			while (jsonReader.hasNext()) {
+				files.add(jsonReader.readObject());
+			}
+			jsonReader.endArray();
+			return null;
+		}
+		TorrentFileTable table = new TorrentFileTable();
+		while (jsonReader.hasNext()) {
+			if (jsonReader.peek() != JSONToken.LBRACKET) {
+				// junk
+				jsonReader.readObject();
+				continue;
+			}
+			jsonReader.startArray();
+			int row = table.appendRow();
+			int col = 0;
+			while (jsonReader.hasNext()) {
+				Object value = jsonReader.readObject();
+				if (col < fileKeys.length) {
+					table.set(row, fileKeys[col], value);
+				}
+				col++;
+			}
+			if (col != fileKeys.length) {
+				Log.e(TAG, "readFileTable: fileKeys size mismatch keys="
+						+ Arrays.toString(fileKeys) + ", row has " + col);
+			}
+			jsonReader.endArray();
+		}
+		jsonReader.endArray();
+		return table;
+	}
+
+	/**
+	 * Reads "files" before we know the keys.  Compact rows are buffered as
+	 * Object[].
+	 */
+	@NonNull
+	private static List<Object> readFiles(@NonNull JSONReader jsonReader) {
+		List<Object> files = new ArrayList<>();
+		List<Object> rowBuffer = new ArrayList<>();
+		jsonReader.startArray();
+		while (jsonReader.hasNext()) {
+			if (jsonReader.peek() == JSONToken.LBRACKET) {
+				jsonReader.startArray();
+				rowBuffer.clear();
+				while (jsonReader.hasNext()) {
+					rowBuffer.add(jsonReader.readObject());
+				}
+				files.add(rowBuffer.toArray());
+				jsonReader.endArray();
+			} else {
+				// map per file (older clients), or junk
+				files.add(jsonReader.readObject());
+			}
+		}
+		jsonReader.endArray();
+		return files;
+	}
+
+	@NonNull
+	private static String[] readStringArray(@NonNull JSONReader jsonReader) {
+		List<String> list = new ArrayList<>();
+		jsonReader.startArray();
+		while (jsonReader.hasNext()) {
+			Object o = jsonReader.readObject();
+			list.add(o == null ? null : o.toString());
+		}
+		jsonReader.endArray();
+		return list.toArray(new String[0]);
+	}
+}
@@ -19,8 +19,11 @@ package com.biglybt.android.client.rpc;
 import java.util.List;
 
 import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.biglybt.android.client.session.TorrentListChanges;
+
 public interface TorrentListReceivedListener
 {
 	/**
@@ -33,4 +36,19 @@ public interface TorrentListReceivedListener
 	void rpcTorrentListReceived(String callID, List<?> addedTorrentMaps,
 			List<String> fields, int[] fileIndexes,
 			@Nullable List<?> removedTorrentIDs);
+
+	/**
+	 * Same as {@link #rpcTorrentListReceived(String, List, List, int[], List)},
+	 * with the fields that actually changed in the session's torrent list.
+	 * Only called by {@link com.biglybt.android.client.session.Session_Torrent}
+	 * listeners.
+	 */
+	@AnyThread
+	default void rpcTorrentListReceived(String callID, List<?> addedTorrentMaps,
+			List<String> fields, int[] fileIndexes,
+			@Nullable List<?> removedTorrentIDs,
+			@NonNull TorrentListChanges changes) {
+		rpcTorrentListReceived(callID, addedTorrentMaps, fields, fileIndexes,
+				removedTorrentIDs);
+	}
 }
@@ -16,11 +16,13 @@
 
 package com.biglybt.android.client.rpc;
 
+import android.os.SystemClock;
 import android.util.Log;
 import android.util.SparseBooleanArray;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
 import androidx.fragment.app.FragmentActivity;
 
 import com.biglybt.android.client.*;
@@ -31,6 +33,7 @@ import com.biglybt.util.Thunk;
 import java.io.Serializable;
 import java.net.ConnectException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -88,14 +91,9 @@ public class TransmissionRPC
 
 		@Override
 		public void rpcSuccess(String requestID, Map optionalMap) {
-			new Thread(() -> {
-				try {
-					Thread.sleep(800);
-				} catch (InterruptedException ignore) {
-				}
-
-				getTorrents(callID, ids, fields, fileIndexes, fileFields, null);
-			}, "getTorrentsWaiter").start();
+			OffThread.getWorkerHandler().postDelayed(
+					() -> getTorrents(callID, ids, fields, fileIndexes, fileFields, null),
+					800);
 			if (l != null) {
 				l.rpcSuccess(requestID, optionalMap);
 			}
@@ -116,8 +114,147 @@ public class TransmissionRPC
 		}
 	}
 
+	/**
+	 * A caller waiting on a {@link PendingTorrentGet}
+	 */
+	@Thunk
+	static class TorrentGetWaiter
+	{
+		final String callID;
+
+		/** null, String, or long[] */
+		@Nullable
+		final Object ids;
+
+		@Nullable
+		final TorrentListReceivedListener l;
+
+		TorrentGetWaiter(String callID, @Nullable Object ids,
+				@Nullable TorrentListReceivedListener l) {
+			this.callID = callID;
+			this.ids = ids;
+			this.l = l;
+		}
+	}
+
+	/**
+	 * A torrent-get that has been queued or sent, but not yet answered.
+	 * All access must be synchronized on {@link #pendingTorrentGets}
+	 */
+	@Thunk
+	static class PendingTorrentGet
+	{
+		/** null (all torrents), String ("recently-active"), or long[] */
+		@Nullable
+		Object ids;
+
+		/** Empty for all fields */
+		@NonNull
+		final Set<String> fields;
+
+		@Nullable
+		final int[] fileIndexes;
+
+		@Nullable
+		final String[] fileFields;
+
+		final int priority;
+
+		@NonNull
+		final List<TorrentGetWaiter> waiters = new ArrayList<>(1);
+
+		boolean sent;
+
+		PendingTorrentGet(@Nullable Object ids, @NonNull List<String> fields,
+				@Nullable int[] fileIndexes, @Nullable String[] fileFields,
+				int priority) {
+			this.ids = ids instanceof long[] ? ((long[]) ids).clone() : ids;
+			this.fields = new LinkedHashSet<>(fields);
+			this.fileIndexes = fileIndexes;
+			this.fileFields = fileFields;
+			this.priority = priority;
+		}
+
+		/**
+		 * Try to fold a new request into this one.  Only queued requests take
+		 * new callers; a sent one may already have older data in flight.
+		 *
+		 * @return true if merged, and caller should add a waiter
+		 */
+		boolean merge(@Nullable Object newIDs, @NonNull List<String> newFields,
+				@Nullable int[] newFileIndexes, @Nullable String[] newFileFields,
+				int newPriority) {
+			if (sent || waiters.isEmpty()
+					|| !Arrays.equals(fileIndexes, newFileIndexes)
+					|| !Arrays.equals(fileFields, newFileFields)
+					|| fields.isEmpty() != newFields.isEmpty()) {
+				return false;
+			}
+			// Merging a file request into a non-file one would pull file lists
+			// for every torrent in the union
+			if (fields.contains(TransmissionVars.FIELD_TORRENT_FILES) != newFields.contains(
+					TransmissionVars.FIELD_TORRENT_FILES)) {
+				return false;
+			}
+			// Don't make a higher priority request wait behind lower ones
+			if (newPriority < priority) {
+				return false;
+			}
+			if ((ids instanceof String) || (newIDs instanceof String)) {
+				if (ids == null || !ids.equals(newIDs)) {
+					return false;
+				}
+			} else if (ids == null || newIDs == null) {
+				ids = null;
+			} else if ((ids instanceof long[]) && (newIDs instanceof long[])) {
+				ids = unionIDs((long[]) ids, (long[]) newIDs);
+			} else {
+				return false;
+			}
+			fields.addAll(newFields);
+			return true;
+		}
+
+		String getPrimaryCallID() {
+			// Session_Torrent treats Session.Refresh callIDs specially, so make
+			// sure class listeners see it if it's one of ours
+			for (TorrentGetWaiter waiter : waiters) {
+				if (waiter.callID != null
+						&& waiter.callID.startsWith(CALLID_SESSION_REFRESH)) {
+					return waiter.callID;
+				}
+			}
+			return waiters.isEmpty() ? null : waiters.get(0).callID;
+		}
+
+		private static long[] unionIDs(@NonNull long[] a, @NonNull long[] b) {
+			long[] union = Arrays.copyOf(a, a.length + b.length);
+			int num = a.length;
+			outer: for (long id : b) {
+				for (int i = 0; i < num; i++) {
+					if (union[i] == id) {
+						continue outer;
+					}
+				}
+				union[num++] = id;
+			}
+			return num == union.length ? union : Arrays.copyOf(union, num);
+		}
+	}
+
 	private static final String TAG = "RPC";
 
+	/**
+	 * callID prefix used by {@link Session#triggerRefresh(boolean)}
+	 */
+	public static final String CALLID_SESSION_REFRESH = "Session.Refresh";
+
+	/**
+	 * callID of a {@link #CALLID_SESSION_REFRESH} that gets every torrent
+	 */
+	public static final String CALLID_SESSION_REFRESH_FULL = CALLID_SESSION_REFRESH
+			+ ".Full";
+
 	// From Transmission's rpcimp.c :(
 	// #define RECENTLY_ACTIVE_SECONDS 60
 	private static final long RECENTLY_ACTIVE_MS = 60 * 1000L;
@@ -167,6 +304,9 @@ public class TransmissionRPC
 	@Thunk
 	RestJsonClient restJsonClient = null;
 
+	private final RestJsonClient.ReplyDecoder torrentGetReplyDecoder
+			= new TorrentGetReplyDecoder();
+
 	@Thunk
 	String biglyVersion;
 
@@ -178,15 +318,43 @@ public class TransmissionRPC
 	@Thunk
 	boolean requireStringUnescape;
 
+	@NonNull
+	private final RPCDispatcher dispatcher;
+
+	/**
+	 * torrent-get requests not yet answered, which new getTorrents calls may be
+	 * merged into
+	 */
+	@Thunk
+	final List<PendingTorrentGet> pendingTorrentGets = new ArrayList<>();
+
+	@Thunk
+	int numTorrentGetsCoalesced;
+
+	private final AtomicLong bytesReceived = new AtomicLong();
+
+	@NonNull
+	private final RPCMetrics rpcMetrics = new RPCMetrics();
+
 	public TransmissionRPC(@NonNull Session session, @NonNull String rpcURL) {
 		this.session = session;
 
 		this.rpcURL = rpcURL;
 
+		dispatcher = new RPCDispatcher(session.getRemoteProfile().getNick());
+
 		updateSessionSettings(null);
 	}
 
 	public void getSessionStats(String[] fields, ReplyMapReceivedListener l) {
+		getSessionStats(fields, l, null);
+	}
+
+	/**
+	 * @param batch When not null, call is added to batch instead of being sent
+	 */
+	public void getSessionStats(String[] fields, ReplyMapReceivedListener l,
+			@Nullable RPCBatch batch) {
 		Map<String, Object> map = new HashMap<>();
 		map.put(RPCKEY_METHOD, TransmissionVars.METHOD_SESSION_STATS);
 		if (fields != null) {
@@ -196,6 +364,10 @@ public class TransmissionRPC
 			mapArguments.put(RPCKEY_FIELDS, fields);
 		}
 
+		if (batch != null) {
+			batch.add(TransmissionVars.METHOD_SESSION_STATS, map, l);
+			return;
+		}
 		sendRequest(TransmissionVars.METHOD_SESSION_STATS, map, l);
 	}
 
@@ -255,6 +427,12 @@ public class TransmissionRPC
 								mapSupports.put(RPCSupports.SUPPORTS_FILES_DELETE,
 										Collections.binarySearch(listSupports,
 												"field:torrent-set:files-delete") >= 0);
+								mapSupports.put(RPCSupports.SUPPORTS_BATCH,
+										Collections.binarySearch(listSupports,
+												"method:batch") >= 0);
+								mapSupports.put(RPCSupports.SUPPORTS_FILE_INDEX_RANGES,
+										Collections.binarySearch(listSupports,
+												"rpc:file-index-ranges") >= 0);
 							}
 							mapSupports.put(RPCSupports.SUPPORTS_SEARCH, rpcVersionAZ >= 0);
 
@@ -394,7 +572,18 @@ public class TransmissionRPC
 	 * Always triggers TorrentListReceivedListener
 	 */
 	public void getAllTorrents(String callID, TorrentListReceivedListener l) {
-		getTorrents(callID, null, getBasicTorrentFieldIDs(), null, null, l);
+		getAllTorrents(callID, l, null);
+	}
+
+	/**
+	 * Always triggers TorrentListReceivedListener
+	 *
+	 * @param batch When not null, call is added to batch instead of being sent
+	 */
+	public void getAllTorrents(String callID, TorrentListReceivedListener l,
+			@Nullable RPCBatch batch) {
+		getTorrents(callID, null, getRefreshTorrentFieldIDs(), null, null, l,
+				batch);
 	}
 
 	/**
@@ -409,6 +598,11 @@ public class TransmissionRPC
 
 	/**
 	 * Always triggers TorrentListReceivedListener
+	 * <p/>
+	 * Calls made while a compatible torrent-get is still queued are merged into
+	 * it (union of ids and fields).  Calls made while a torrent-get is on the
+	 * wire that already covers their ids and fields wait for that reply
+	 * instead of sending their own.
 	 * 
 	 * XXX If TorrentListReceivedListener is an Activity or Fragment, this is 
 	 *     may lock the activity for a very long time (ie. when remote is down)
@@ -418,16 +612,175 @@ public class TransmissionRPC
 			final List<String> fields, @Nullable final int[] fileIndexes,
 			@Nullable String[] fileFields,
 			@Nullable final TorrentListReceivedListener l) {
+		getTorrents(callID, ids, fields, fileIndexes, fileFields, l, null);
+	}
+
+	/**
+	 * @param batch When not null, and not merged into an existing request,
+	 *              torrent-get is added to batch instead of being sent
+	 */
+	@Thunk
+	void getTorrents(final String callID, @Nullable final Object ids,
+			final List<String> fields, @Nullable final int[] fileIndexes,
+			@Nullable String[] fileFields,
+			@Nullable final TorrentListReceivedListener l,
+			@Nullable RPCBatch batch) {
+
+		if (batch == null && AndroidUtilsUI.isUIThread()) {
+			OffThread.getWorkerHandler().post(
+					() -> getTorrents(callID, ids, fields, fileIndexes, fileFields, l));
+			return;
+		}
+
+		Object normalizedIDs = ids instanceof Number ? new long[] {
+			((Number) ids).longValue()
+		} : ids;
+		int priority = callID != null && callID.startsWith(CALLID_SESSION_REFRESH)
+				? RPCDispatcher.PRIORITY_BACKGROUND_REFRESH
+				: RPCDispatcher.PRIORITY_VISIBLE_REFRESH;
+		List<String> ourFields = fields == null ? Collections.emptyList()
+				: fields;
+
+		PendingTorrentGet pending = null;
+		synchronized (pendingTorrentGets) {
+			for (PendingTorrentGet existing : pendingTorrentGets) {
+				if (existing.merge(normalizedIDs, ourFields, fileIndexes, fileFields,
+						priority)) {
+					existing.waiters.add(new TorrentGetWaiter(callID, normalizedIDs, l));
+					numTorrentGetsCoalesced++;
+					if (AndroidUtils.DEBUG_RPC) {
+						Log.d(TAG, "getTorrents " + callID + " merged into "
+								+ existing.waiters.get(0).callID + "; "
+								+ existing.waiters.size() + " waiting");
+					}
+					return;
+				}
+			}
+			if (!isDestroyed) {
+				pending = new PendingTorrentGet(normalizedIDs, ourFields, fileIndexes,
+						fileFields, priority);
+				pending.waiters.add(new TorrentGetWaiter(callID, normalizedIDs, l));
+				pendingTorrentGets.add(pending);
+			}
+		}
+
+		if (pending != null) {
+			final PendingTorrentGet finalPending = pending;
+			if (batch != null) {
+				batch.add(() -> prepareTorrentGet(finalPending));
+				return;
+			}
+			if (dispatcher.submit("getTorrents " + callID, null, priority,
+					() -> sendTorrentGet(finalPending))) {
+				return;
+			}
+			synchronized (pendingTorrentGets) {
+				pendingTorrentGets.remove(pending);
+			}
+		}
+
+		// Destroyed.  Still trigger listener, with a fake list
+		if (AndroidUtils.DEBUG_RPC) {
+			Log.d(TAG, "getTorrents " + callID + "] ignored, RPC Destroyed");
+		}
+		if (l != null) {
+			l.rpcTorrentListReceived(callID, createFakeList(normalizedIDs),
+					ourFields, fileIndexes, null);
+		}
+	}
+
+	/**
+	 * List handed to torrent-get listeners when the request failed
+	 */
+	private static class FakeList
+		extends ArrayList<Map>
+	{
+	}
+
+	/**
+	 * @return true if list is a stand-in for a failed torrent-get, rather than
+	 * the remote's reply
+	 */
+	public static boolean isFakeList(@Nullable List<?> list) {
+		return list instanceof FakeList;
+	}
+
+	@Thunk
+	static List createFakeList(@Nullable Object ids) {
+		List<Map> list = new FakeList();
+		if (ids instanceof Number) {
+			HashMap<String, Object> map = new HashMap<>(2);
+			map.put("id", ids);
+			list.add(map);
+			return list;
+		}
+		if (ids instanceof long[]) {
+			for (long torrentID : (long[]) ids) {
+				HashMap<String, Object> map = new HashMap<>(2);
+				map.put("id", torrentID);
+				list.add(map);
+			}
+		}
+		return list;
+	}
 
-		if (AndroidUtilsUI.isUIThread()) {
-			new Thread(
-					() -> getTorrents(callID, ids, fields, fileIndexes, fileFields, l),
-					"getTorrents").start();
+	/**
+	 * Builds and sends a torrent-get for all merged callers.  Runs on a
+	 * {@link RPCDispatcher} thread.
+	 */
+	@Thunk
+	void sendTorrentGet(@NonNull final PendingTorrentGet pending) {
+		RPCBatch.Call call = prepareTorrentGet(pending);
+		if (call == null) {
+			return;
+		}
+		if (isDestroyed) {
+			if (call.l != null) {
+				call.l.rpcFailure(call.requestID, "RPC not available");
+			}
 			return;
 		}
+		sendRequestNow(call.requestID, null, pending.priority, call.data, call.l);
+	}
+
+	/**
+	 * Marks pending as sent and builds its torrent-get request and reply
+	 * listener.
+	 *
+	 * @return null if everyone waiting on pending has gone away
+	 */
+	@Thunk
+	@Nullable
+	RPCBatch.Call prepareTorrentGet(@NonNull final PendingTorrentGet pending) {
+		final Object ids;
+		final List<String> ourFields;
+		final int[] fileIndexes = pending.fileIndexes;
+		final String[] fileFields = pending.fileFields;
+		final String callID;
+		synchronized (pendingTorrentGets) {
+			if (pending.waiters.isEmpty()) {
+				pendingTorrentGets.remove(pending);
+				return null;
+			}
+			pending.sent = true;
+			ids = pending.ids;
+			ourFields = new ArrayList<>(pending.fields);
+			callID = pending.getPrimaryCallID();
+		}
 
-		List<String> ourFields = fields == null ? new ArrayList<>()
-				: new ArrayList<>(fields);
+		// Ranges are expanded in ascending order, so the reply's files (and hc)
+		// follow sentFileIndexes, not the caller's order
+		final int[] sentFileIndexes;
+		final Object encodedFileIndexes;
+		IntRangeSet ranges = fileIndexes == null ? null
+				: getFileIndexRanges(fileIndexes);
+		if (ranges != null) {
+			sentFileIndexes = ranges.toArray();
+			encodedFileIndexes = ranges.toRanges();
+		} else {
+			sentFileIndexes = fileIndexes;
+			encodedFileIndexes = fileIndexes;
+		}
 
 		Map<String, Object> map = new HashMap<>(2);
 		map.put(RPCKEY_METHOD, TransmissionVars.METHOD_TORRENT_GET);
@@ -458,14 +811,10 @@ public class TransmissionRPC
 			long[] torrentIDs = {};
 			if (ids instanceof long[]) {
 				torrentIDs = (long[]) ids;
-			} else if (ids instanceof Number) {
-				torrentIDs = new long[] {
-					((Number) ids).longValue()
-				};
 			}
 			for (long torrentID : torrentIDs) {
-				if (fileIndexes != null) {
-					mapArguments.put("file-indexes-" + torrentID, fileIndexes);
+				if (encodedFileIndexes != null) {
+					mapArguments.put("file-indexes-" + torrentID, encodedFileIndexes);
 				}
 
 				Map<?, ?> mapTorrent = session.torrent.getCachedTorrent(torrentID);
@@ -473,39 +822,16 @@ public class TransmissionRPC
 					List<Object> listFiles = MapUtils.getMapList(mapTorrent,
 							TransmissionVars.FIELD_TORRENT_FILES, null);
 					if (listFiles != null) {
-						if (rpcVersionAZ >= 7 && false) {
-							// Disabled.  Uses a lot of memory since strings are duplicated
-							// The old method, with hc as list, may take more bandwidth,
-							// but the strings are duplicated.
-							StringBuilder sb = new StringBuilder();
-							boolean first = true;
-							if (fileIndexes != null) {
-								for (int fileIndex : fileIndexes) {
-									if (first) {
-										first = false;
-									} else {
-										sb.append(",");
-									}
-									Map mapFile = (Map) listFiles.get(fileIndex);
-									sb.append(mapFile.get("hc"));
-								}
-							} else {
-								for (int i = 0; i < listFiles.size(); i++) {
-									if (first) {
-										first = false;
-									} else {
-										sb.append(",");
-									}
-									Map mapFile = (Map) listFiles.get(i);
-									sb.append(mapFile.get("hc"));
-								}
-							}
-							mapArguments.put("files-hc-" + torrentID, sb.toString());
+						if (rpcVersionAZ >= 7 && (listFiles instanceof TorrentFileTable)) {
+							// One string, built from the table's hc column.  Less
+							// bandwidth than the list, and no per-file boxing
+							mapArguments.put("files-hc-" + torrentID,
+									((TorrentFileTable) listFiles).joinHCs(sentFileIndexes));
 						} else {
 							int numFiles = listFiles.size();
 							List<Object> listHCs = new ArrayList<>();
-							if (fileIndexes != null) {
-								for (int fileIndex : fileIndexes) {
+							if (sentFileIndexes != null) {
+								for (int fileIndex : sentFileIndexes) {
 									if (fileIndex < 0 || fileIndex >= numFiles) {
 										continue;
 									}
@@ -538,11 +864,10 @@ public class TransmissionRPC
 
 		String idList = (ids instanceof long[]) ? Arrays.toString(((long[]) ids))
 				: "" + ids;
-		sendRequest(
-				"getTorrents " + callID + " t=" + idList + "/f="
-						+ Arrays.toString(fileIndexes) + ", " + ourFields.size() + "/"
-						+ (fileFields == null ? "null" : fileFields.length),
-				map, new ReplyMapReceivedListener() {
+		String requestID = "getTorrents " + callID + " t=" + idList + "/f="
+				+ Arrays.toString(fileIndexes) + ", " + ourFields.size() + "/"
+				+ (fileFields == null ? "null" : fileFields.length);
+		ReplyMapReceivedListener replyListener = new ReplyMapReceivedListener() {
 
 					@Override
 					public void rpcSuccess(String requestID, Map optionalMap) {
@@ -627,14 +952,16 @@ public class TransmissionRPC
 						TorrentListReceivedListener[] listReceivedListeners = getTorrentListReceivedListeners();
 						for (TorrentListReceivedListener torrentListReceivedListener : listReceivedListeners) {
 							torrentListReceivedListener.rpcTorrentListReceived(callID, list,
-									ourFields, fileIndexes, listRemoved);
+									ourFields, sentFileIndexes, listRemoved);
 						}
 
-						// trigger local listener after class listeners, since there's a special class listener
-						// than update's the torrent in Session.
-						if (l != null) {
-							l.rpcTorrentListReceived(callID, list, ourFields, fileIndexes,
-									listRemoved);
+						// trigger local listeners after class listeners, since there's a 
+						// special class listener than update's the torrent in Session.
+						for (TorrentGetWaiter waiter : takeWaiters(pending)) {
+							if (waiter.l != null) {
+								waiter.l.rpcTorrentListReceived(waiter.callID, list, ourFields,
+										sentFileIndexes, listRemoved);
+							}
 						}
 					}
 
@@ -645,41 +972,29 @@ public class TransmissionRPC
 						// of some sort to clean up (ie. files view progress bar), so
 						// we must fake a reply with those torrentIDs
 
-						List list = createFakeList(ids);
-
-						if (l != null) {
-							l.rpcTorrentListReceived(callID, list, ourFields, fileIndexes,
-									null);
-						}
-						TorrentListReceivedListener[] listReceivedListeners = getTorrentListReceivedListeners();
-						for (TorrentListReceivedListener torrentListReceivedListener : listReceivedListeners) {
-							torrentListReceivedListener.rpcTorrentListReceived(callID, list,
-									ourFields, fileIndexes, null);
-						}
+						List<TorrentGetWaiter> waiters = takeWaiters(pending);
+						List list = triggerFakeReply(waiters);
 
 						if (AndroidUtils.DEBUG_RPC) {
 							Log.d(TAG,
 									requestID + "] rpcFailure.  fake listener for "
-											+ listReceivedListeners.length + "/" + (l == null ? 0 : 1)
-											+ ", " + list);
+											+ waiters.size() + " waiters, " + list);
 						}
 					}
 
-					private List createFakeList(@Nullable Object ids) {
-						List<Map> list = new ArrayList<>();
-						if (ids instanceof Long) {
-							HashMap<String, Object> map = new HashMap<>(2);
-							map.put("id", ids);
-							list.add(map);
-							return list;
-						}
-						if (ids instanceof long[]) {
-							for (long torrentID : (long[]) ids) {
-								HashMap<String, Object> map = new HashMap<>(2);
-								map.put("id", torrentID);
-								list.add(map);
+					private List triggerFakeReply(List<TorrentGetWaiter> waiters) {
+						for (TorrentGetWaiter waiter : waiters) {
+							if (waiter.l != null) {
+								waiter.l.rpcTorrentListReceived(waiter.callID,
+										createFakeList(waiter.ids), ourFields, sentFileIndexes, null);
 							}
 						}
+						List list = createFakeList(ids);
+						TorrentListReceivedListener[] listReceivedListeners = getTorrentListReceivedListeners();
+						for (TorrentListReceivedListener torrentListReceivedListener : listReceivedListeners) {
+							torrentListReceivedListener.rpcTorrentListReceived(callID, list,
+									ourFields, sentFileIndexes, null);
+						}
 						return list;
 					}
 
@@ -690,23 +1005,13 @@ public class TransmissionRPC
 						// of some sort to clean up (ie. files view progress bar), so
 						// we must fake a reply with those torrentIDs
 
-						List list = createFakeList(ids);
-
-						if (l != null) {
-							l.rpcTorrentListReceived(callID, list, ourFields, fileIndexes,
-									null);
-						}
-						TorrentListReceivedListener[] listReceivedListeners = getTorrentListReceivedListeners();
-						for (TorrentListReceivedListener torrentListReceivedListener : listReceivedListeners) {
-							torrentListReceivedListener.rpcTorrentListReceived(callID, list,
-									ourFields, fileIndexes, null);
-						}
+						List<TorrentGetWaiter> waiters = takeWaiters(pending);
+						List list = triggerFakeReply(waiters);
 
 						if (AndroidUtils.DEBUG_RPC) {
 							Log.d(TAG,
 									requestID + "] rpcError.  fake listener for "
-											+ listReceivedListeners.length + "/" + (l == null ? 0 : 1)
-											+ ", " + list);
+											+ waiters.size() + " waiters, " + list);
 						}
 						FragmentActivity activity = session.getCurrentActivity();
 						if (activity != null) {
@@ -714,18 +1019,108 @@ public class TransmissionRPC
 									session.getRemoteProfile().getID(), e, true);
 						}
 					}
-				});
+				};
+
+		return new RPCBatch.Call(requestID, map, replyListener);
+	}
+
+	/**
+	 * Removes pending from the list of mergeable requests and returns everyone
+	 * that was waiting on it.
+	 */
+	@Thunk
+	@NonNull
+	List<TorrentGetWaiter> takeWaiters(@NonNull PendingTorrentGet pending) {
+		synchronized (pendingTorrentGets) {
+			pendingTorrentGets.remove(pending);
+			return new ArrayList<>(pending.waiters);
+		}
 	}
 
 	public void destroy() {
 		torrentListReceivedListeners.clear();
 		sessionSettingsReceivedListeners.clear();
 		isDestroyed = true;
+		dispatcher.shutdown();
+	}
+
+	/**
+	 * Removes any queued, not yet sent, requests that were made with callID.
+	 * Use when the view that requested them is going away.
+	 */
+	public int cancelRequests(@NonNull String callID) {
+		int num = 0;
+		synchronized (pendingTorrentGets) {
+			for (PendingTorrentGet pending : pendingTorrentGets) {
+				if (pending.sent) {
+					continue;
+				}
+				for (Iterator<TorrentGetWaiter> iter = pending.waiters.iterator(); iter.hasNext();) {
+					if (callID.equals(iter.next().callID)) {
+						iter.remove();
+						num++;
+					}
+				}
+			}
+		}
+		return num + dispatcher.cancel(callID);
+	}
+
+	/**
+	 * @return Total size of all (uncompressed) replies received
+	 */
+	public long getBytesReceived() {
+		return bytesReceived.get();
+	}
+
+	@NonNull
+	public RPCMetrics getRPCMetrics() {
+		return rpcMetrics;
+	}
+
+	/**
+	 * @return Number of getTorrents calls that were answered by another call's
+	 * torrent-get instead of their own
+	 */
+	public int getNumTorrentGetsCoalesced() {
+		return numTorrentGetsCoalesced;
+	}
+
+	@NonNull
+	public RPCDispatcher getDispatcher() {
+		return dispatcher;
+	}
+
+	private static int getDefaultPriority(@NonNull Map data) {
+		Object method = data.get(RPCKEY_METHOD);
+		if (!(method instanceof String)
+				|| TransmissionVars.METHOD_SESSION_GET.equals(method)) {
+			return RPCDispatcher.PRIORITY_USER_ACTION;
+		}
+		if (TransmissionVars.METHOD_SESSION_STATS.equals(method)) {
+			return RPCDispatcher.PRIORITY_BACKGROUND_REFRESH;
+		}
+		String s = (String) method;
+		if (s.contains("-get") || s.equals(TransmissionVars.METHOD_FREE_SPACE)
+				|| s.equals(TransmissionVars.METHOD_RCM_IS_ENABLED)) {
+			return RPCDispatcher.PRIORITY_VISIBLE_REFRESH;
+		}
+		return RPCDispatcher.PRIORITY_USER_ACTION;
 	}
 
 	@Thunk
 	void sendRequest(final String requestID, final Map data,
 			@Nullable final ReplyMapReceivedListener l) {
+		sendRequest(requestID, null,
+				data == null ? RPCDispatcher.PRIORITY_USER_ACTION
+						: getDefaultPriority(data),
+				data, l);
+	}
+
+	@Thunk
+	void sendRequest(final String requestID, @Nullable final String callID,
+			final int priority, final Map data,
+			@Nullable final ReplyMapReceivedListener l) {
 
 		if (AndroidUtils.DEBUG) {
 			RemoteProfile remoteProfile = session.getRemoteProfile();
@@ -765,75 +1160,208 @@ public class TransmissionRPC
 			return;
 		}
 
-		new Thread(() -> {
-			data.put("random", Integer.toHexString(cacheBuster++));
-			RemoteProfile remoteProfile = session.getRemoteProfile();
-			try {
-				if (restJsonClient == null) {
-					restJsonClient = RestJsonClient.getInstance(false, false);
+		boolean queued = dispatcher.submit(requestID, callID, priority,
+				() -> sendRequestNow(requestID, callID, priority, data, l));
+		if (!queued && l != null) {
+			// Destroyed between isDestroyed check and submit
+			OffThread.runOffUIThread(
+					() -> l.rpcFailure(requestID, "RPC not available"));
+		}
+	}
+
+	/**
+	 * Sends all calls in batch in one request when the remote supports it,
+	 * otherwise one after another on a single dispatcher thread.  Each call's
+	 * listener gets its own reply.
+	 */
+	public void sendBatch(@NonNull final RPCBatch batch) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		if (!isDestroyed && dispatcher.submit(TransmissionVars.METHOD_BATCH,
+				null, batch.priority, () -> sendBatchNow(batch))) {
+			return;
+		}
+		OffThread.runOffUIThread(() -> {
+			for (RPCBatch.Call call : batch.buildCalls()) {
+				if (call.l != null) {
+					call.l.rpcFailure(call.requestID, "RPC not available");
 				}
-				Map<?, ?> reply = restJsonClient.connect(requestID, rpcURL, data,
-						headers, remoteProfile.getUser(), remoteProfile.getAC());
-
-				String result = MapUtils.getMapString(reply, "result", "");
-				if (l != null) {
-					if ("success".equals(result)) {
-						l.rpcSuccess(requestID, MapUtils.getMapMap(reply, RPCKEY_ARGUMENTS,
-								Collections.emptyMap()));
-					} else {
-						if (AndroidUtils.DEBUG_RPC) {
-							Log.d(TAG, requestID + "] rpcFailure: " + result);
-						}
-						// clean up things like:
-						// org.gudy.azureus2.plugins.utils.resourcedownloader
-						// .ResourceDownloaderException: http://foo.torrent: I/O
-						// Exception while downloading 'http://foo.torrent', Operation
-						// timed out
-						result = result.replaceAll("org\\.[a-z.]+:", "");
-						result = result.replaceAll("com\\.[a-z.]+:", "");
-						l.rpcFailure(requestID, result);
+			}
+		});
+	}
+
+	@Thunk
+	@WorkerThread
+	void sendBatchNow(@NonNull RPCBatch batch) {
+		final List<RPCBatch.Call> calls = batch.buildCalls();
+		if (calls.isEmpty()) {
+			return;
+		}
+
+		if (calls.size() == 1 || !getSupports(RPCSupports.SUPPORTS_BATCH)) {
+			for (RPCBatch.Call call : calls) {
+				if (isDestroyed) {
+					if (call.l != null) {
+						call.l.rpcFailure(call.requestID, "RPC not available");
 					}
+					continue;
 				}
-			} catch (RPCException e) {
-				int statusCode = e.getResponseCode();
-				if (statusCode == 409) {
-					if (AndroidUtils.DEBUG_RPC) {
-						Log.d(TAG, "409: retrying");
+				sendRequestNow(call.requestID, null, batch.priority, call.data,
+						call.l);
+			}
+			return;
+		}
+
+		List<Map> listCalls = new ArrayList<>(calls.size());
+		StringBuilder requestID = new StringBuilder(TransmissionVars.METHOD_BATCH);
+		requestID.append(':');
+		for (RPCBatch.Call call : calls) {
+			listCalls.add(call.data);
+			requestID.append(' ').append(call.requestID).append(';');
+		}
+		Map<String, Object> mapArguments = new HashMap<>(2);
+		mapArguments.put("calls", listCalls);
+		Map<String, Object> map = new HashMap<>(2);
+		map.put(RPCKEY_METHOD, TransmissionVars.METHOD_BATCH);
+		map.put(RPCKEY_ARGUMENTS, mapArguments);
+
+		sendRequestNow(requestID.toString(), null, batch.priority, map,
+				new ReplyMapReceivedListener() {
+					@Override
+					public void rpcSuccess(String requestID, Map<?, ?> optionalMap) {
+						List<?> replies = MapUtils.getMapList(optionalMap, "replies",
+								Collections.emptyList());
+						for (int i = 0; i < calls.size(); i++) {
+							RPCBatch.Call call = calls.get(i);
+							if (call.l == null) {
+								continue;
+							}
+							Object o = i < replies.size() ? replies.get(i) : null;
+							if (!(o instanceof Map)) {
+								call.l.rpcFailure(call.requestID, "No reply in batch");
+								continue;
+							}
+							Map<?, ?> reply = (Map<?, ?>) o;
+							String result = MapUtils.getMapString(reply, "result", "");
+							if ("success".equals(result)) {
+								call.l.rpcSuccess(call.requestID, MapUtils.getMapMap(reply,
+										RPCKEY_ARGUMENTS, Collections.emptyMap()));
+							} else {
+								call.l.rpcFailure(call.requestID, result);
+							}
+						}
 					}
-					headers = e.getFirstHeader("X-Transmission-Session-Id");
-					if (TransmissionVars.METHOD_SESSION_GET.equals(requestID)) {
-						sendRequest(requestID, data, l);
-					} else {
-						updateSessionSettings(() -> sendRequest(requestID, data, l));
+
+					@Override
+					public void rpcFailure(String requestID, String message) {
+						for (RPCBatch.Call call : calls) {
+							if (call.l != null) {
+								call.l.rpcFailure(call.requestID, message);
+							}
+						}
 					}
-					return;
-				}
 
-				Throwable cause = e.getCause();
-				if (cause instanceof ConnectException) {
-					if (remoteProfile.getRemoteType() == RemoteProfile.TYPE_CORE
-							&& !BiglyCoreUtils.isCoreStarted()) {
-						BiglyCoreUtils.waitForCore();
-						sendRequest(requestID, data, l);
-						return;
+					@Override
+					public void rpcError(String requestID, Throwable e) {
+						for (RPCBatch.Call call : calls) {
+							if (call.l != null) {
+								call.l.rpcError(call.requestID, e);
+							}
+						}
 					}
-				}
+				});
+	}
 
+	/**
+	 * Sends request on the current thread, which should be a 
+	 * {@link RPCDispatcher} thread.
+	 */
+	@Thunk
+	@WorkerThread
+	void sendRequestNow(final String requestID, @Nullable final String callID,
+			final int priority, final Map data,
+			@Nullable final ReplyMapReceivedListener l) {
+		data.put("random", Integer.toHexString(cacheBuster++));
+		RemoteProfile remoteProfile = session.getRemoteProfile();
+		String method = MapUtils.getMapString(data, RPCKEY_METHOD, "?");
+		long startedOn = SystemClock.elapsedRealtime();
+		try {
+			if (restJsonClient == null) {
+				restJsonClient = RestJsonClient.getInstance(false, false);
+			}
+			RestJsonClient.ReplyDecoder decoder = TransmissionVars.METHOD_TORRENT_GET.equals(
+					method) ? torrentGetReplyDecoder : null;
+			RestJsonClient.ReplyStats stats = new RestJsonClient.ReplyStats();
+			Map<?, ?> reply = restJsonClient.connect(requestID, rpcURL, data,
+					headers, remoteProfile.getUser(), remoteProfile.getAC(), decoder,
+					stats);
+			bytesReceived.addAndGet(stats.bytesRead);
+
+			String result = MapUtils.getMapString(reply, "result", "");
+			rpcMetrics.recordReply(method,
+					SystemClock.elapsedRealtime() - startedOn, stats,
+					"success".equals(result));
+			if (l != null) {
+				if ("success".equals(result)) {
+					l.rpcSuccess(requestID, MapUtils.getMapMap(reply, RPCKEY_ARGUMENTS,
+							Collections.emptyMap()));
+				} else {
+					if (AndroidUtils.DEBUG_RPC) {
+						Log.d(TAG, requestID + "] rpcFailure: " + result);
+					}
+					// clean up things like:
+					// org.gudy.azureus2.plugins.utils.resourcedownloader
+					// .ResourceDownloaderException: http://foo.torrent: I/O
+					// Exception while downloading 'http://foo.torrent', Operation
+					// timed out
+					result = result.replaceAll("org\\.[a-z.]+:", "");
+					result = result.replaceAll("com\\.[a-z.]+:", "");
+					l.rpcFailure(requestID, result);
+				}
+			}
+		} catch (RPCException e) {
+			int statusCode = e.getResponseCode();
+			rpcMetrics.recordError(method, SystemClock.elapsedRealtime() - startedOn,
+					statusCode);
+			if (statusCode == 409) {
 				if (AndroidUtils.DEBUG_RPC) {
-					String s = JSONUtils.encodeToJSON(data);
-					Log.e(TAG,
-							"sendRequest(" + requestID + ","
-									+ (s.length() > 999 ? s.substring(0, 999) + "..." : s) + ","
-									+ l + ")",
-							e);
+					Log.d(TAG, "409: retrying");
+				}
+				headers = e.getFirstHeader("X-Transmission-Session-Id");
+				if (TransmissionVars.METHOD_SESSION_GET.equals(requestID)) {
+					sendRequest(requestID, callID, priority, data, l);
+				} else {
+					updateSessionSettings(
+							() -> sendRequest(requestID, callID, priority, data, l));
 				}
-				if (l != null) {
-					l.rpcError(requestID, e);
+				return;
+			}
+
+			Throwable cause = e.getCause();
+			if (cause instanceof ConnectException) {
+				if (remoteProfile.getRemoteType() == RemoteProfile.TYPE_CORE
+						&& !BiglyCoreUtils.isCoreStarted()) {
+					BiglyCoreUtils.waitForCore();
+					sendRequest(requestID, callID, priority, data, l);
+					return;
 				}
-				// TODO: trigger a generic error listener, so we can put a "Could
-				// not connect" status text somewhere
 			}
-		}, "sendRequest" + requestID).start();
+
+			if (AndroidUtils.DEBUG_RPC) {
+				String s = JSONUtils.encodeToJSON(data);
+				Log.e(TAG,
+						"sendRequest(" + requestID + ","
+								+ (s.length() > 999 ? s.substring(0, 999) + "..." : s) + ","
+								+ l + ")",
+						e);
+			}
+			if (l != null) {
+				l.rpcError(requestID, e);
+			}
+			// TODO: trigger a generic error listener, so we can put a "Could
+			// not connect" status text somewhere
+		}
 	}
 
 	@NonNull
@@ -884,6 +1412,31 @@ public class TransmissionRPC
 		return fields;
 	}
 
+	/**
+	 * Basic torrent fields, trimmed to the ones visible views registered with
+	 * {@link TorrentFieldRegistry}.  All basic fields when nothing is
+	 * registered.
+	 */
+	@NonNull
+	public List<String> getRefreshTorrentFieldIDs() {
+		List<String> basicFields = getBasicTorrentFieldIDs();
+		Set<String> wanted = session.torrent.getFieldRegistry().getWantedFields();
+		if (wanted == null) {
+			return basicFields;
+		}
+		List<String> fields = new ArrayList<>(wanted.size());
+		for (String fieldID : basicFields) {
+			// priorities are only requested to count files
+			String wantedID = TransmissionVars.FIELD_TORRENT_PRIORITIES.equals(
+					fieldID) || fieldID.equals(fileCountFieldName)
+							? TransmissionVars.FIELD_TORRENT_FILE_COUNT : fieldID;
+			if (wanted.contains(wantedID)) {
+				fields.add(fieldID);
+			}
+		}
+		return fields;
+	}
+
 	/**
 	 * Get recently-active torrents, or all torrents if there are no recents
 	 * <br>
@@ -891,7 +1444,16 @@ public class TransmissionRPC
 	 */
 	public void getRecentTorrents(String callID,
 			@Nullable final TorrentListReceivedListener l) {
-		getTorrents(callID, "recently-active", getBasicTorrentFieldIDs(), null,
+		getRecentTorrents(callID, l, null);
+	}
+
+	/**
+	 * @param batch When not null, call is added to batch instead of being sent
+	 */
+	public void getRecentTorrents(String callID,
+			@Nullable final TorrentListReceivedListener l,
+			@Nullable RPCBatch batch) {
+		getTorrents(callID, "recently-active", getRefreshTorrentFieldIDs(), null,
 				null, new TorrentListReceivedListener() {
 					boolean doingAll = false;
 
@@ -913,7 +1475,7 @@ public class TransmissionRPC
 									fileIndexes, removedTorrentIDs);
 						}
 					}
-				});
+				}, batch);
 	}
 
 	@NonNull
@@ -969,11 +1531,23 @@ public class TransmissionRPC
 
 	public void simpleRpcCall(String method, @Nullable Map arguments,
 			ReplyMapReceivedListener l) {
+		simpleRpcCall(method, arguments, l, null);
+	}
+
+	/**
+	 * @param batch When not null, call is added to batch instead of being sent
+	 */
+	public void simpleRpcCall(String method, @Nullable Map arguments,
+			ReplyMapReceivedListener l, @Nullable RPCBatch batch) {
 		Map<String, Object> map = new HashMap<>();
 		map.put(RPCKEY_METHOD, method);
 		if (arguments != null) {
 			map.put(RPCKEY_ARGUMENTS, arguments);
 		}
+		if (batch != null) {
+			batch.add(method, map, l);
+			return;
+		}
 		sendRequest(method, map, l);
 	}
 
@@ -1031,6 +1605,31 @@ public class TransmissionRPC
 				new ReplyMapReceivedListenerWithRefresh(callID, l, ids));
 	}
 
+	/**
+	 * @return fileIndexes as runs, when the remote takes them and they are
+	 * shorter than the plain list.  Otherwise null
+	 */
+	@Nullable
+	private IntRangeSet getFileIndexRanges(@NonNull int[] fileIndexes) {
+		if (fileIndexes.length < 3
+				|| !getSupports(RPCSupports.SUPPORTS_FILE_INDEX_RANGES)) {
+			return null;
+		}
+		IntRangeSet ranges = IntRangeSet.of(fileIndexes);
+		// Each run costs two numbers plus brackets
+		return ranges.getNumRanges() * 3 < fileIndexes.length ? ranges : null;
+	}
+
+	/**
+	 * @return File indexes argument; [[first, last], ...] runs when that's
+	 * supported and shorter, otherwise fileIndexes
+	 */
+	@NonNull
+	private Object encodeFileIndexes(@NonNull int[] fileIndexes) {
+		IntRangeSet ranges = getFileIndexRanges(fileIndexes);
+		return ranges == null ? fileIndexes : ranges.toRanges();
+	}
+
 	/**
 	 * Set's priority of files, and forces a torrent refresh
 	 */
@@ -1063,7 +1662,7 @@ public class TransmissionRPC
 				return;
 		}
 
-		mapArguments.put(key, fileIndexes);
+		mapArguments.put(key, encodeFileIndexes(fileIndexes));
 
 		sendRequest("setFilePriority", map, new ReplyMapReceivedListenerWithRefresh(
 				callID, l, ids, fileIndexes, null));
@@ -1082,7 +1681,7 @@ public class TransmissionRPC
 		String indexesKey = wanted ? "files-wanted"
 				: getSupports(RPCSupports.SUPPORTS_FILES_DELETE) ? "files-delete"
 						: "files-unwanted";
-		mapArguments.put(indexesKey, fileIndexes);
+		mapArguments.put(indexesKey, encodeFileIndexes(fileIndexes));
 
 		sendRequest("setWantState", map, new ReplyMapReceivedListenerWithRefresh(
 				callID, l, torrentIDs, fileIndexes, null));
@@ -1251,11 +1850,8 @@ public class TransmissionRPC
 
 					@Override
 					public void rpcSuccess(String requestID, Map<?, ?> optionalMap) {
-						try {
-							Thread.sleep(500);
-						} catch (InterruptedException ignore) {
-						}
-						getRecentTorrents(requestID, null);
+						OffThread.getWorkerHandler().postDelayed(
+								() -> getRecentTorrents(requestID, null), 500);
 						if (listener != null) {
 							listener.rpcSuccess(requestID, optionalMap);
 						}
@@ -1396,13 +1992,11 @@ public class TransmissionRPC
 											return;
 										}
 										if (!complete) {
-											try {
-												Thread.sleep(1500);
-											} catch (InterruptedException ignored) {
-											}
-											simpleRpcCall(
-													TransmissionVars.METHOD_VUZE_SEARCH_GET_RESULTS,
-													mapResultsRequest, this);
+											OffThread.getWorkerHandler().postDelayed(
+													() -> simpleRpcCall(
+															TransmissionVars.METHOD_VUZE_SEARCH_GET_RESULTS,
+															mapResultsRequest, this),
+													1500);
 										}
 
 									}
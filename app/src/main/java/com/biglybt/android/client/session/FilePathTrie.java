@@ -0,0 +1,198 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.biglybt.android.client.session;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Folders of a torrent's files, one node per unique folder.
+ * <p/>
+ * Files store the node id of their folder plus their short name, so a
+ * folder's path string exists once no matter how many files are in it.
+ * Node 0 ({@link #ROOT}) is "no folder".
+ * <p/>
+ * Not thread safe; {@link TorrentFileTable} guards access.
+ */
+public class FilePathTrie
+{
+	public static final int ROOT = 0;
+
+	private int size = 1;
+
+	private int[] parents = new int[16];
+
+	private int[] depths = new int[16];
+
+	/** Folder name, without slashes */
+	private String[] segments = new String[16];
+
+	/** Full folder path including trailing slash, as it was in the file name */
+	private String[] paths = new String[16];
+
+	/** Lazily created child lookup, by segment */
+	private Map<String, Integer>[] children = newMapArray(16);
+
+	/** Last node returned by {@link #addFolders}; files arrive grouped */
+	private int lastNode = ROOT;
+
+	public FilePathTrie() {
+		parents[ROOT] = -1;
+		segments[ROOT] = "";
+		paths[ROOT] = "";
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Integer>[] newMapArray(int len) {
+		return (Map<String, Integer>[]) new Map[len];
+	}
+
+	private static boolean isSlash(char c) {
+		return c == '/' || c == '\\';
+	}
+
+	/**
+	 * @return Position of the last slash, or -1.  Names whose only slash is
+	 * the first character have no folder.
+	 */
+	public static int folderBreak(@NonNull String name) {
+		for (int i = name.length() - 1; i > 0; i--) {
+			if (isSlash(name.charAt(i))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Adds the folders of name (everything up to and including the last
+	 * slash).
+	 *
+	 * @return Node of the deepest folder, or {@link #ROOT} if name has no
+	 * folder
+	 */
+	public int addFolders(@NonNull String name) {
+		int breakAt = folderBreak(name);
+		if (breakAt <= 0) {
+			return ROOT;
+		}
+		int pathLen = breakAt + 1;
+
+		// Most files are in the same folder as the previous one
+		String lastPath = paths[lastNode];
+		if (lastNode != ROOT && lastPath.length() == pathLen
+				&& name.startsWith(lastPath)) {
+			return lastNode;
+		}
+
+		int node = ROOT;
+		int start = isSlash(name.charAt(0)) ? 1 : 0;
+		for (int i = start; i < pathLen; i++) {
+			if (!isSlash(name.charAt(i))) {
+				continue;
+			}
+			node = child(node, name, start, i);
+			start = i + 1;
+		}
+		lastNode = node;
+		return node;
+	}
+
+	private int child(int parent, @NonNull String name, int start, int end) {
+		Map<String, Integer> map = children[parent];
+		String segment = name.substring(start, end);
+		if (map == null) {
+			map = new HashMap<>(4);
+			children[parent] = map;
+		} else {
+			Integer existing = map.get(segment);
+			if (existing != null) {
+				return existing;
+			}
+		}
+		if (size == parents.length) {
+			int capacity = size * 2;
+			parents = Arrays.copyOf(parents, capacity);
+			depths = Arrays.copyOf(depths, capacity);
+			segments = Arrays.copyOf(segments, capacity);
+			paths = Arrays.copyOf(paths, capacity);
+			children = Arrays.copyOf(children, capacity);
+		}
+		int node = size++;
+		parents[node] = parent;
+		depths[node] = depths[parent] + 1;
+		segments[node] = segment;
+		paths[node] = name.substring(0, end + 1);
+		map.put(segment, node);
+		return node;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return Rough heap use, for memory budgeting
+	 */
+	public long estimateBytes() {
+		long bytes = 64 + parents.length * 36L;
+		for (int node = 1; node < size; node++) {
+			bytes += 80 + (segments[node].length() + paths[node].length()) * 2L;
+			if (children[node] != null) {
+				bytes += 48 + children[node].size() * 40L;
+			}
+		}
+		return bytes;
+	}
+
+	public int getParent(int node) {
+		return parents[node];
+	}
+
+	/**
+	 * @return 0 for {@link #ROOT}, 1 for top level folders, ..
+	 */
+	public int getDepth(int node) {
+		return depths[node];
+	}
+
+	@NonNull
+	public String getSegment(int node) {
+		return segments[node];
+	}
+
+	/**
+	 * @return Folder path including trailing slash, "" for {@link #ROOT}
+	 */
+	@NonNull
+	public String getPath(int node) {
+		return paths[node];
+	}
+
+	/**
+	 * @return node's ancestor (or itself) at depth, or node if it's shallower
+	 */
+	public int getAncestor(int node, int depth) {
+		while (depths[node] > depth) {
+			node = parents[node];
+		}
+		return node;
+	}
+}
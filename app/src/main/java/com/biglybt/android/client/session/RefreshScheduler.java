@@ -0,0 +1,170 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.biglybt.android.client.session;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Stretches the user's refresh interval while the torrent list is idle.
+ * <p/>
+ * Each refresh that comes back with no changes grows the interval, up to
+ * {@link #MAX_MULTIPLIER} times the user's setting (and never past
+ * {@link #MAX_STRETCHED_SECS} unless the user's setting already is).  Any
+ * change, active transfers, or recent user interaction drops it straight
+ * back to the user's setting.  On metered networks the idle interval grows
+ * faster and further.
+ */
+public class RefreshScheduler
+{
+	private static final float GROWTH = 1.5f;
+
+	private static final float GROWTH_METERED = 2f;
+
+	private static final float MAX_MULTIPLIER = 6f;
+
+	private static final float MAX_MULTIPLIER_METERED = 10f;
+
+	private static final long MAX_STRETCHED_SECS = 300;
+
+	/** User interaction keeps interval at user's setting for this long */
+	private static final long INTERACTION_HOLD_MS = 30 * 1000;
+
+	private float multiplier = 1f;
+
+	private boolean transferring;
+
+	private long lastInteractionOn;
+
+	private long lastBaseInterval;
+
+	private long lastEffectiveInterval;
+
+	private long numRefreshes;
+
+	private long numNoChange;
+
+	private long totalBytes;
+
+	/** Polls a fixed interval would have made that we didn't */
+	private float pollsSaved;
+
+	/**
+	 * @param baseInterval User's refresh interval, in seconds
+	 * @param metered Whether the current network is metered
+	 * @return Interval, in seconds, until next refresh
+	 */
+	public synchronized long calcInterval(long baseInterval, boolean metered) {
+		if (baseInterval <= 0) {
+			return baseInterval;
+		}
+		long interval = baseInterval;
+		if (!isHeldAtBase()) {
+			float max = metered ? MAX_MULTIPLIER_METERED : MAX_MULTIPLIER;
+			interval = (long) (baseInterval * Math.min(multiplier, max));
+			long cap = Math.max(baseInterval, MAX_STRETCHED_SECS);
+			if (interval > cap) {
+				interval = cap;
+			}
+		}
+		lastBaseInterval = baseInterval;
+		lastEffectiveInterval = interval;
+		return interval;
+	}
+
+	/**
+	 * Call when a periodic refresh completes.
+	 *
+	 * @param changes Changes to torrent list from refresh
+	 * @param transferring Whether anything is downloading or uploading
+	 * @param bytes Bytes received for refresh
+	 */
+	public synchronized void refreshCompleted(
+			@NonNull TorrentListChanges changes, boolean transferring, boolean metered,
+			long bytes) {
+		numRefreshes++;
+		totalBytes += bytes;
+		if (lastBaseInterval > 0 && lastEffectiveInterval > lastBaseInterval) {
+			pollsSaved += ((float) lastEffectiveInterval / lastBaseInterval) - 1;
+		}
+
+		this.transferring = transferring;
+		if (changes.isEmpty()) {
+			numNoChange++;
+			if (!transferring) {
+				multiplier *= metered ? GROWTH_METERED : GROWTH;
+				float max = metered ? MAX_MULTIPLIER_METERED : MAX_MULTIPLIER;
+				if (multiplier > max) {
+					multiplier = max;
+				}
+				return;
+			}
+		}
+		multiplier = 1f;
+	}
+
+	/**
+	 * @return true if interval was stretched, and caller should reschedule
+	 */
+	public synchronized boolean userInteracted() {
+		lastInteractionOn = SystemClock.elapsedRealtime();
+		boolean wasStretched = lastEffectiveInterval > lastBaseInterval;
+		multiplier = 1f;
+		return wasStretched;
+	}
+
+	private boolean isHeldAtBase() {
+		return transferring || (lastInteractionOn > 0
+				&& SystemClock.elapsedRealtime()
+						- lastInteractionOn < INTERACTION_HOLD_MS);
+	}
+
+	/**
+	 * @return Interval, in seconds, the last scheduled refresh used
+	 */
+	public synchronized long getEffectiveInterval() {
+		return lastEffectiveInterval;
+	}
+
+	/**
+	 * @return 0..1, fraction of refreshes that returned no changes
+	 */
+	public synchronized float getNoChangeRatio() {
+		return numRefreshes == 0 ? 0 : (float) numNoChange / numRefreshes;
+	}
+
+	/**
+	 * @return Estimated bytes not downloaded because of stretched intervals,
+	 * based on average bytes per refresh
+	 */
+	public synchronized long getBytesSaved() {
+		if (numRefreshes == 0) {
+			return 0;
+		}
+		return (long) (pollsSaved * totalBytes / numRefreshes);
+	}
+
+	@NonNull
+	@Override
+	public synchronized String toString() {
+		return "RefreshScheduler{interval=" + lastEffectiveInterval + "/"
+				+ lastBaseInterval + "s, x" + multiplier + ", noChange="
+				+ numNoChange + "/" + numRefreshes + ", saved~" + getBytesSaved()
+				+ "b}";
+	}
+}
@@ -206,6 +206,16 @@ public class Session
 
 	private long lastRefreshInterval = -1;
 
+	@NonNull
+	private final RefreshScheduler refreshScheduler = new RefreshScheduler();
+
+	private long refreshStartBytes;
+
+	private boolean refreshProjected;
+
+	@NonNull
+	private final TorrentListCache torrentListCache;
+
 	@Thunk
 	final TorrentListReceivedListener doneRefreshingListListener = (callID,
 			addedTorrentMaps, fields, fileIndexes,
@@ -227,6 +237,34 @@ public class Session
 		}
 
 		BiglyBTApp.getNetworkState().addListener(this);
+
+		torrentListCache = new TorrentListCache(
+				BiglyBTApp.getContext().getCacheDir(), remoteProfile.getID());
+		OffThread.runOffUIThread(this::loadCachedList);
+	}
+
+	/**
+	 * Shows the torrent list, tags and stats from last run while we wait for
+	 * the remote.  Live data that arrived first wins.
+	 */
+	@WorkerThread
+	@Thunk
+	void loadCachedList() {
+		TorrentListCache.Contents contents = torrentListCache.load();
+		if (contents == null || destroyed) {
+			return;
+		}
+		if (AndroidUtils.DEBUG) {
+			logd("loadCachedList: " + contents.torrents.size() + " torrents from "
+					+ new Date(contents.savedOn));
+		}
+		if (!contents.tags.isEmpty() && tag.mapTags == null) {
+			tag.placeTagListIntoMap(contents.tags, false, true);
+		}
+		if (contents.sessionStats != null && mapSessionStats == null) {
+			updateSessionStats(contents.sessionStats);
+		}
+		torrent.loadFromCache(contents.torrents, contents.savedOn);
 	}
 
 	private void bindAndOpen() {
@@ -745,22 +783,106 @@ public class Session
 		if (AndroidUtils.DEBUG_ANNOY) {
 			logd("setupNextRefresh");
 		}
-		long interval = remoteProfile.calcUpdateInterval();
+		long interval = refreshScheduler.calcInterval(
+				remoteProfile.calcUpdateInterval(),
+				BiglyBTApp.getNetworkState().isMetered());
 		if (handler != null && interval == lastRefreshInterval) {
 			return;
 		}
 		lastRefreshInterval = interval;
 		if (AndroidUtils.DEBUG_ANNOY) {
-			logd("Handler fires every " + interval);
+			logd("Handler fires every " + interval + "; " + refreshScheduler);
 		}
+		// Interval changed: drop the pending run so we don't end up with two
+		cancelRefreshHandler();
 		if (interval <= 0) {
-			cancelRefreshHandler();
 			return;
 		}
 		handler = new Handler(Looper.getMainLooper());
 		handler.postDelayed(handlerRunnable, interval * 1000);
 	}
 
+	/**
+	 * User touched something.  Refresh at the user's interval again if we
+	 * were stretching it.
+	 */
+	@UiThread
+	public void userInteracted() {
+		if (refreshScheduler.userInteracted() && handler != null) {
+			cancelRefreshHandler();
+			setupNextRefresh();
+		}
+	}
+
+	/**
+	 * Called by {@link Session_Torrent} when a periodic refresh's torrent list
+	 * has been processed
+	 */
+	void refreshReceived(@NonNull TorrentListChanges changes) {
+		long dl = MapUtils.getMapLong(mapSessionStats,
+				TransmissionVars.TR_SESSION_STATS_DOWNLOAD_SPEED, 0);
+		long ul = MapUtils.getMapLong(mapSessionStats,
+				TransmissionVars.TR_SESSION_STATS_UPLOAD_SPEED, 0);
+		long bytes = getBytesReceived() - refreshStartBytes;
+		refreshScheduler.refreshCompleted(changes, dl > 0 || ul > 0,
+				BiglyBTApp.getNetworkState().isMetered(), bytes);
+		torrent.getFieldRegistry().refreshCompleted(refreshProjected, bytes);
+
+		if (torrentListCache.startSave(changes.isStructural())) {
+			TorrentListSnapshot snapshot = torrent.getListSnapshot();
+			// Refreshes keep updating tags and stats while we save, so copy them
+			List<Map<?, ?>> tags = new ArrayList<>();
+			Map<?, ?> sessionStats;
+			synchronized (mLock) {
+				for (Map<?, ?> mapTag : tag.getTags()) {
+					//noinspection SynchronizationOnLocalVariableOrMethodParameter
+					synchronized (mapTag) {
+						tags.add(new HashMap<>(mapTag));
+					}
+				}
+				sessionStats = mapSessionStats == null ? null
+						: new HashMap<>(mapSessionStats);
+			}
+			OffThread.runOffUIThread(
+					() -> torrentListCache.save(snapshot, tags, sessionStats));
+		}
+	}
+
+	/**
+	 * @return Scheduler stretching the refresh interval, for its stats
+	 */
+	@NonNull
+	public RefreshScheduler getRefreshScheduler() {
+		return refreshScheduler;
+	}
+
+	/**
+	 * @return Fields periodic torrent refreshes request, or null if not
+	 * connected
+	 */
+	@Nullable
+	public List<String> getRefreshTorrentFieldIDs() {
+		TransmissionRPC rpc = transmissionRPC;
+		return rpc == null ? null : rpc.getRefreshTorrentFieldIDs();
+	}
+
+	/**
+	 * @return Total reply bytes received from remote
+	 */
+	public long getBytesReceived() {
+		TransmissionRPC rpc = transmissionRPC;
+		return rpc == null ? 0 : rpc.getBytesReceived();
+	}
+
+	/**
+	 * @return Per method RPC timings, or null if not connected
+	 */
+	@Nullable
+	public RPCMetrics getRPCMetrics() {
+		TransmissionRPC rpc = transmissionRPC;
+		return rpc == null ? null : rpc.getRPCMetrics();
+	}
+
 	/**
 	 * Triggeres a refresh of:
 	 * <ul>
@@ -790,6 +912,13 @@ public class Session
 			}
 			torrent.setRefreshingList(true);
 		}
+		refreshStartBytes = transmissionRPC.getBytesReceived();
+		TorrentFieldRegistry fieldRegistry = torrent.getFieldRegistry();
+		if (fieldRegistry.checkFieldsAdded()) {
+			// Torrents outside of "recently-active" need the new fields too
+			torrent.needsFullTorrentRefresh = true;
+		}
+		refreshProjected = fieldRegistry.isProjecting();
 		if (AndroidUtils.DEBUG_ANNOY) {
 			logd("Refresh Triggered " + AndroidUtils.getCompressedStackTrace());
 		}
@@ -803,6 +932,11 @@ public class Session
 			return;
 		}
 
+		if (getSupports(RPCSupports.SUPPORTS_BATCH)) {
+			triggerRefreshBatched(recentOnly);
+			return;
+		}
+
 		if (tag.needsTagRefresh) {
 			tag.refreshTags(false);
 		}
@@ -825,7 +959,8 @@ public class Session
 							transmissionRPC.getRecentTorrents(TAG + ".Refresh",
 									doneRefreshingListListener);
 						} else {
-							transmissionRPC.getAllTorrents(TAG + ".Refresh",
+							transmissionRPC.getAllTorrents(
+									TransmissionRPC.CALLID_SESSION_REFRESH_FULL,
 									doneRefreshingListListener);
 							torrent.needsFullTorrentRefresh = false;
 						}
@@ -843,6 +978,36 @@ public class Session
 				});
 	}
 
+	/**
+	 * Same as the rest of {@link #triggerRefresh(boolean)}, but tags, session
+	 * stats and torrents go to the remote in one request.  Torrents are
+	 * requested without waiting for stats to succeed.
+	 */
+	private void triggerRefreshBatched(boolean recentOnly) {
+		RPCBatch batch = new RPCBatch(RPCDispatcher.PRIORITY_BACKGROUND_REFRESH);
+		if (tag.needsTagRefresh) {
+			tag.refreshTags(false, batch);
+		}
+
+		transmissionRPC.getSessionStats(SESSION_STATS_FIELDS,
+				(SuccessReplyMapRecievedListener) (
+						requestID, optionalMap) -> updateSessionStats(optionalMap),
+				batch);
+
+		String callID = TransmissionRPC.CALLID_SESSION_REFRESH;
+		if (recentOnly && !torrent.needsFullTorrentRefresh) {
+			transmissionRPC.getRecentTorrents(callID, doneRefreshingListListener,
+					batch);
+		} else {
+			transmissionRPC.getAllTorrents(
+					TransmissionRPC.CALLID_SESSION_REFRESH_FULL,
+					doneRefreshingListListener, batch);
+			torrent.needsFullTorrentRefresh = false;
+		}
+
+		transmissionRPC.sendBatch(batch);
+	}
+
 	@Thunk
 	void updateSessionStats(Map<?, ?> map) {
 		Map<?, ?> oldSessionStats = mapSessionStats;
@@ -1089,6 +1254,17 @@ public class Session
 		return baseURL;
 	}
 
+	/**
+	 * Drops queued RPC requests for callID that haven't been sent yet.
+	 * Requests already in progress will still complete.
+	 */
+	@AnyThread
+	public void cancelRpcCalls(@NonNull String callID) {
+		if (transmissionRPC != null) {
+			transmissionRPC.cancelRequests(callID);
+		}
+	}
+
 	@Thunk
 	static void showUrlFailedDialog(final FragmentActivity activity,
 			final String errMsg, final String url, final String sample) {
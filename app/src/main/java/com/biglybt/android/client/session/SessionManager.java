@@ -272,6 +272,25 @@ public class SessionManager
 		}
 	}
 
+	/**
+	 * Shrinks each session's cached file lists to fraction of their budget,
+	 * least recently used first
+	 */
+	public static void trimTorrentFilesCaches(float fraction) {
+		int numTrimmed = 0;
+		for (Session session : mapSessions.values()) {
+			numTrimmed += session.torrent.trimFilesCaches(fraction);
+			if (AndroidUtils.DEBUG) {
+				Log.d(TAG, "trimTorrentFilesCaches: "
+						+ session.torrent.getFilesCacheStats());
+			}
+		}
+		if (AndroidUtils.DEBUG) {
+			//noinspection DuplicateStringLiteralInspection
+			Log.d(TAG, "trimTorrentFilesCaches. " + numTrimmed + " removed");
+		}
+	}
+
 	public static void clearSubscriptionCaches(boolean keepLastUsed) {
 		int numClears = 0;
 		for (String key : mapSessions.keySet()) {
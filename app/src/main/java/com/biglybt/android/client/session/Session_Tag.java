@@ -24,6 +24,7 @@ import androidx.collection.LongSparseArray;
 import com.biglybt.android.client.AndroidUtils;
 import com.biglybt.android.client.BiglyBTApp;
 import com.biglybt.android.client.R;
+import com.biglybt.android.client.rpc.RPCBatch;
 import com.biglybt.android.client.rpc.RPCSupports;
 import com.biglybt.android.client.rpc.ReplyMapReceivedListener;
 import com.biglybt.android.client.rpc.TagListReceivedListener;
@@ -225,6 +226,20 @@ public class Session_Tag
 		return null;
 	}
 
+	/**
+	 * Same as {@link #hasStateTag(Map, int)} for a cached torrent, without
+	 * scanning its boxed tag list
+	 */
+	@Nullable
+	public Boolean hasStateTag(long torrentID, @StateID int stateID) {
+		Long tagUID = getDownloadStateUID(stateID);
+		if (tagUID == null) {
+			return null;
+		}
+		TorrentRow row = session.torrent.getListSnapshot().get(torrentID);
+		return row == null ? null : row.hasTag(tagUID);
+	}
+
 	public boolean hasCategories() {
 		return hasCategories;
 	}
@@ -369,9 +384,11 @@ public class Session_Tag
 			// TODO: Instead of using changedTags, use a list of tags that only
 			//       changed important files.  ie. 'count' change is irrelevant to
 			//       torrent since it's not displayed in any torrent view.
-			List<Long> changedTorrentTagUIDs = new ArrayList<>();
+			long[] changedTorrentTagUIDs = new long[changedTorrentsTags.size()];
+			int numChanged = 0;
 			for (Map<?, ?> tag : changedTorrentsTags) {
-				changedTorrentTagUIDs.add(MapUtils.getMapLong(tag, FIELD_TAG_UID, -1));
+				changedTorrentTagUIDs[numChanged++] = MapUtils.getMapLong(tag,
+						FIELD_TAG_UID, -1);
 			}
 
 			if (AndroidUtils.DEBUG_RPC && changedTags.size() > 0) {
@@ -383,23 +400,18 @@ public class Session_Tag
 				session.logd(changedTags.size() + " tags changed: " + sb.toString());
 			}
 
-			LongSparseArray<Map<?, ?>> listTorrents = session.torrent.getListAsSparseArray();
-			for (int i = 0, count = listTorrents.size(); i < count; i++) {
-				Map mapTorrent = listTorrents.valueAt(i);
-				List<?> listTagUIDs = MapUtils.getMapList(mapTorrent,
-						FIELD_TORRENT_TAG_UIDS, null);
-				if (listTagUIDs != null && !listTagUIDs.isEmpty()) {
-					if (!Collections.disjoint(listTagUIDs, changedTorrentTagUIDs)) {
-						if (AndroidUtils.DEBUG_RPC) {
-							List common = new ArrayList(listTagUIDs);
-							common.retainAll(changedTorrentTagUIDs);
-							session.logd(
-									"tagListReceived: '" + mapTorrent.get(FIELD_TORRENT_NAME)
-											+ "' tag change. common=" + common);
-						}
-						mapTorrent.put(FIELD_LAST_UPDATED, System.currentTimeMillis());
-					}
-				}
+			// Torrents with any changed tag, straight from the tag index
+			long[] torrentIDs = numChanged == 0 ? new long[0]
+					: session.torrent.getStore().getIDsWithTags(changedTorrentTagUIDs,
+							false);
+			if (AndroidUtils.DEBUG_RPC && torrentIDs.length > 0) {
+				session.logd("tagListReceived: " + torrentIDs.length
+						+ " torrents with changed tags "
+						+ Arrays.toString(changedTorrentTagUIDs));
+			}
+			if (torrentIDs.length > 0) {
+				session.torrent.setCachedTorrentField(torrentIDs, FIELD_LAST_UPDATED,
+						System.currentTimeMillis());
 			}
 
 			mapTags = mapNewTags;
@@ -430,6 +442,13 @@ public class Session_Tag
 	}
 
 	public void refreshTags(boolean onlyRefreshCount) {
+		refreshTags(onlyRefreshCount, null);
+	}
+
+	/**
+	 * @param batch When not null, call is added to batch instead of being sent
+	 */
+	public void refreshTags(boolean onlyRefreshCount, @Nullable RPCBatch batch) {
 		if (!session.getSupports(RPCSupports.SUPPORTS_TAGS)) {
 			return;
 		}
@@ -472,7 +491,7 @@ public class Session_Tag
 						placeTagListIntoMap(tagList, finalOnlyRefreshCount,
 								!finalOnlyRefreshCount);
 					}
-				});
+				}, batch);
 	}
 
 	public void removeTagListReceivedListener(TagListReceivedListener l) {
@@ -59,14 +59,28 @@ public class Session_Torrent
 
 	private static final boolean DEBUG_LISTENERS = false;
 
+	/** callID listeners get for torrents loaded from {@link TorrentListCache} */
+	public static final String CALLID_CACHE = "Session.Cache";
+
 	@Thunk
 	@NonNull
 	final Session session;
 
+	@NonNull
+	private final TorrentStore store = new TorrentStore();
+
+	/** Replaced, never modified; see {@link #publishSnapshot()} */
+	@NonNull
+	private volatile TorrentListSnapshot snapshot = TorrentListSnapshot.EMPTY;
+
+	private long snapshotVersion;
+
 	/**
-	 * <Key, TorrentMap>
+	 * IDs loaded from {@link TorrentListCache} that the remote hasn't
+	 * confirmed yet.  Cleared by the first full refresh.
 	 */
-	private final LongSparseArray<Map<?, ?>> mapOriginal;
+	@Nullable
+	private long[] unconfirmedCachedIDs;
 
 	/**
 	 * Store the last torrent id that was retrieved with file info, so when we
@@ -75,6 +89,11 @@ public class Session_Torrent
 	 */
 	private long lastTorrentWithFiles = -1;
 
+	/** Which torrents' file lists to drop when they use too much memory */
+	@NonNull
+	private final TorrentFilesLRU filesLRU = new TorrentFilesLRU(
+			TorrentFilesLRU.getDefaultBudget(BiglyBTApp.getContext()));
+
 	@Thunk
 	boolean needsFullTorrentRefresh = true;
 
@@ -87,9 +106,11 @@ public class Session_Torrent
 	@Thunk
 	long lastListReceivedOn;
 
+	@NonNull
+	private final TorrentFieldRegistry fieldRegistry = new TorrentFieldRegistry();
+
 	Session_Torrent(@NonNull Session session) {
 		this.session = session;
-		this.mapOriginal = new LongSparseArray<>();
 	}
 
 	private void activateOpenOptionsDialog(long torrentID, Map<?, ?> mapTorrent,
@@ -159,6 +180,7 @@ public class Session_Torrent
 			}
 		}
 		int numAddedOrRemoved = 0;
+		TorrentListChanges changes = new TorrentListChanges();
 		boolean requireStringUnescape = session.transmissionRPC.isRequireStringUnescape();
 		synchronized (session.mLock) {
 			if (addedTorrentIDs.size() > 0) {
@@ -182,8 +204,9 @@ public class Session_Torrent
 
 					long torrentID = ((Number) key).longValue();
 
-					Map<?, ?> old = mapOriginal.get(torrentID, null);
-					mapOriginal.put(torrentID, mapUpdatedTorrent);
+					// As readers last saw it.  Every store change is published, so
+					// this matches the store until store.update below
+					Map<?, ?> old = snapshot.get(torrentID);
 
 					if (mapUpdatedTorrent.containsKey(
 							TransmissionVars.FIELD_TORRENT_FILES)) {
@@ -201,23 +224,36 @@ public class Session_Torrent
 						}
 					}
 
-					if (old != null) {
-						// merge anything missing in new map with old
-						for (Object torrentKey : old.keySet()) {
-							if (!mapUpdatedTorrent.containsKey(torrentKey)) {
-								//System.out.println(key + " missing " + torrentKey);
-								mapUpdatedTorrent.put(torrentKey, old.get(torrentKey));
-							}
-						}
+					if (old == null) {
+						changes.torrentAdded(torrentID);
+					} else {
+						// fields missing from new map keep their values in store
+						changes.compare(torrentID, mapUpdatedTorrent, old);
 					}
 
 					mergeFiles(mapUpdatedTorrent, old, fileIndexes);
 
+					// Only bump when something changed, so rows that are the same
+					// aren't rebound
+					Object lastUpdated = old == null ? null
+							: old.get(TransmissionVars.FIELD_LAST_UPDATED);
+					if (lastUpdated == null || changes.isTorrentChanged(torrentID)) {
+						lastUpdated = System.currentTimeMillis();
+					}
 					mapUpdatedTorrent.put(TransmissionVars.FIELD_LAST_UPDATED,
-							System.currentTimeMillis());
+							lastUpdated);
+
+					store.update(torrentID, mapUpdatedTorrent);
+
+					Object files = mapUpdatedTorrent.get(
+							TransmissionVars.FIELD_TORRENT_FILES);
+					if (files instanceof TorrentFileTable) {
+						filesLRU.touch(torrentID,
+								((TorrentFileTable) files).estimateBytes());
+					}
 
 					if (!addTorrentSilently) {
-						activateOpenOptionsDialog(torrentID, mapUpdatedTorrent,
+						activateOpenOptionsDialog(torrentID, store.getMap(torrentID),
 								listOpenOptionHashes);
 					}
 				}
@@ -227,14 +263,17 @@ public class Session_Torrent
 				// because it's "too old" when the user hasn't opened our app in a long
 				// time)
 				session.remoteProfile.cleanupOpenOptionsWaiterList();
+
+				evictFileLists(filesLRU.getBudget());
 			}
 
 			if (removedTorrentIDs != null) {
 				for (Object removedItem : removedTorrentIDs) {
 					if (removedItem instanceof Number) {
 						long torrentID = ((Number) removedItem).longValue();
-						if (mapOriginal.indexOfKey(torrentID) >= 0) {
-							mapOriginal.remove(torrentID);
+						if (store.remove(torrentID)) {
+							filesLRU.remove(torrentID);
+							changes.torrentRemoved(torrentID);
 							numAddedOrRemoved++;
 						} else {
 							if (AndroidUtils.DEBUG) {
@@ -245,6 +284,38 @@ public class Session_Torrent
 					}
 				}
 			}
+
+			boolean fullRefresh = TransmissionRPC.CALLID_SESSION_REFRESH_FULL.equals(
+					callID);
+			if (fullRefresh && TransmissionRPC.isFakeList(addedTorrentIDs)) {
+				// Failed.  Ask for everything again next refresh, since a recent-only
+				// list can't confirm the cached torrents
+				needsFullTorrentRefresh = true;
+			} else if (fullRefresh && unconfirmedCachedIDs != null) {
+				// Remote sent every torrent; anything it didn't have is gone
+				Set<Long> liveIDs = new HashSet<>();
+				for (Object item : addedTorrentIDs) {
+					Object key = (item instanceof Map) ? ((Map) item).get("id") : null;
+					if (key instanceof Number) {
+						liveIDs.add(((Number) key).longValue());
+					}
+				}
+				for (long torrentID : unconfirmedCachedIDs) {
+					if (!liveIDs.contains(torrentID) && store.remove(torrentID)) {
+						filesLRU.remove(torrentID);
+						changes.torrentRemoved(torrentID);
+						numAddedOrRemoved++;
+					}
+				}
+				unconfirmedCachedIDs = null;
+			}
+
+			// Also picks up file lists evicted above
+			publishSnapshot();
+		}
+
+		if (callID.startsWith(TransmissionRPC.CALLID_SESSION_REFRESH)) {
+			session.refreshReceived(changes);
 		}
 
 		if (numAddedOrRemoved > 0 && callID.startsWith("Session.Refresh")) {
@@ -256,100 +327,107 @@ public class Session_Torrent
 
 		for (TorrentListReceivedListener l : receivedListeners) {
 			l.rpcTorrentListReceived(callID, addedTorrentIDs, fields, fileIndexes,
-					removedTorrentIDs);
+					removedTorrentIDs, changes);
+		}
+	}
+
+	/**
+	 * Fills an empty cache with torrents saved by {@link TorrentListCache}.
+	 * Does nothing if the remote already sent a list.
+	 */
+	void loadFromCache(@NonNull List<Map<String, Object>> torrents,
+			long savedOn) {
+		TorrentListChanges changes = new TorrentListChanges();
+		List<Map<String, Object>> added = new ArrayList<>();
+		synchronized (session.mLock) {
+			if (store.size() > 0 || lastListReceivedOn > 0) {
+				return;
+			}
+			for (Map<String, Object> map : torrents) {
+				Object key = map.get("id");
+				if (!(key instanceof Number)) {
+					continue;
+				}
+				long torrentID = ((Number) key).longValue();
+				store.update(torrentID, map);
+				changes.torrentAdded(torrentID);
+				added.add(map);
+			}
+			if (changes.isEmpty()) {
+				return;
+			}
+			unconfirmedCachedIDs = store.getIDs();
+			lastListReceivedOn = savedOn;
+			publishSnapshot();
+		}
+
+		for (TorrentListReceivedListener l : receivedListeners) {
+			l.rpcTorrentListReceived(CALLID_CACHE, added, null, null, null,
+					changes);
 		}
 	}
 
+	/**
+	 * @return true while the list shown came from {@link TorrentListCache}
+	 * and the remote hasn't sent its own yet
+	 */
+	public boolean isShowingCachedList() {
+		return unconfirmedCachedIDs != null;
+	}
+
+	/**
+	 * Turns mapUpdatedTorrent's "files" into a {@link TorrentFileTable}, and
+	 * patches it into the old torrent's table when there is one
+	 */
 	private static void mergeFiles(Map mapUpdatedTorrent, Map old,
 			final int[] fileIndexes) {
-		List<?> listUpdatedFiles = MapUtils.getMapList(mapUpdatedTorrent,
-				TransmissionVars.FIELD_TORRENT_FILES, null);
-
-		if (listUpdatedFiles != null) {
+		Object oFiles = mapUpdatedTorrent.get(TransmissionVars.FIELD_TORRENT_FILES);
+		if (oFiles == null) {
+			return;
+		}
 
+		TorrentFileTable updatedTable;
+		if (oFiles instanceof TorrentFileTable) {
+			updatedTable = (TorrentFileTable) oFiles;
+		} else if (oFiles instanceof List) {
 			// Compact mode has an array per file instead of a map. All arrays
 			// are in the same order, and the keys are stored in "fileKeys"
 			// This saves a lot of bandwidth when you have 10k files.
+			// Normally TorrentGetReplyDecoder has already built the table.
 			List fileKeys = MapUtils.getMapList(mapUpdatedTorrent, "fileKeys", null);
-			int numUpdatedFiles = listUpdatedFiles.size();
-			if (fileKeys != null && fileKeys.size() > 0) {
-				mapUpdatedTorrent.remove("fileKeys");
-				String[] keys = (String[]) fileKeys.toArray(new String[0]);
-				List<Map> listFilesNew = new ArrayList<>(numUpdatedFiles);
-				for (int i = 0; i < numUpdatedFiles; i++) {
-					List fileNoKeys = (List) listUpdatedFiles.get(i);
-
-					if (fileNoKeys.size() != keys.length) {
-						Log.e(TAG, "addRemoveTorrents: fileKeys size mismatch keys= "
-								+ Arrays.toString(keys) + ", fileNoKeys=" + fileNoKeys);
-						break;
-					}
-
-					Map<String, Object> mapFile = new HashMap<>();
-					listFilesNew.add(mapFile);
-					for (int j = 0; j < keys.length; j++) {
-						mapFile.put(keys[j], fileNoKeys.get(j));
-					}
-				}
-
-				if (listFilesNew.size() == listUpdatedFiles.size()) {
-					listUpdatedFiles = listFilesNew;
-					mapUpdatedTorrent.put(TransmissionVars.FIELD_TORRENT_FILES,
-							listUpdatedFiles);
-				}
-//		} else {
-//			Log.w(TAG, "addRemoveTorrents: NOT USING FILEKEYS " + numUpdatedFiles + "/" + callID);
-			}
-
-			// merge "fileStats" into "files"
-			List<?> listFileStats = MapUtils.getMapList(mapUpdatedTorrent,
-					TransmissionVars.FIELD_TORRENT_FILESTATS, null);
-			if (listFileStats != null) {
-				for (int i = 0; i < numUpdatedFiles; i++) {
-					Map mapFile = (Map) listUpdatedFiles.get(i);
-					Map mapFileStats = (Map) listFileStats.get(i);
-					mapFile.putAll(mapFileStats);
-				}
-				mapUpdatedTorrent.remove(TransmissionVars.FIELD_TORRENT_FILESTATS);
-			}
-
-			// add an "index" key, for places that only get the file map
-			// and has no reference to index
-			for (int i = 0; i < numUpdatedFiles; i++) {
-				Map mapFile = (Map) listUpdatedFiles.get(i);
-				if (!mapFile.containsKey(TransmissionVars.FIELD_FILES_INDEX)) {
-					int index = fileIndexes != null && i < fileIndexes.length
-							? fileIndexes[i] : i;
-					mapFile.put(TransmissionVars.FIELD_FILES_INDEX, index);
-				} else {
-					// assume if one has index, they all do
-					break;
-				}
-			}
-
-			// hack to remove .dnd_az! path
-			// The proper way to do this would be to get the "dnd" directory
-			// name from RPC, or have the RPC not include the "dnd" part of the
-			// path.  The latter would be preferable.
-			for (int i = 0; i < numUpdatedFiles; i++) {
-				Map mapFile = (Map) listUpdatedFiles.get(i);
-				final Object o = mapFile.get(TransmissionVars.FIELD_FILES_NAME);
-				if (o instanceof String) {
-					String name = (String) o;
-
-					final int posDND = name.indexOf(".dnd_az!");
-					if (posDND >= 0 && posDND + 8 < name.length()) {
-						String s = name.substring(0, posDND) + name.substring(posDND + 9);
-						mapFile.put(TransmissionVars.FIELD_FILES_NAME, s);
-					}
-				}
+			String[] keys = fileKeys == null || fileKeys.isEmpty() ? null
+					: (String[]) fileKeys.toArray(new String[0]);
+			updatedTable = TorrentFileTable.fromRows((List) oFiles, keys);
+			if (updatedTable == null) {
+				return;
 			}
+		} else {
+			return;
 		}
-
-		if (old != null) {
-			mergeList(TransmissionVars.FIELD_TORRENT_FILES, mapUpdatedTorrent, old);
+		mapUpdatedTorrent.remove("fileKeys");
+
+		// merge "fileStats" into "files"
+		List<?> listFileStats = MapUtils.getMapList(mapUpdatedTorrent,
+				TransmissionVars.FIELD_TORRENT_FILESTATS, null);
+		if (listFileStats != null) {
+			updatedTable.mergeFileStats(listFileStats);
+			mapUpdatedTorrent.remove(TransmissionVars.FIELD_TORRENT_FILESTATS);
 		}
 
+		updatedTable.assignFileIndexes(fileIndexes);
+
+		Object oOldFiles = old == null ? null
+				: old.get(TransmissionVars.FIELD_TORRENT_FILES);
+		if (oOldFiles instanceof TorrentFileTable) {
+			TorrentFileTable oldTable = (TorrentFileTable) oOldFiles;
+			// Full list with a different file count replaces the old one
+			if (fileIndexes != null || oldTable.size() == updatedTable.size()) {
+				// Keep the old table (and its row maps) across merges
+				oldTable.patch(updatedTable);
+				updatedTable = oldTable;
+			}
+		}
+		mapUpdatedTorrent.put(TransmissionVars.FIELD_TORRENT_FILES, updatedTable);
 	}
 
 	public boolean addListReceivedListener(String callID,
@@ -403,8 +481,7 @@ public class Session_Torrent
 				Log.d(TAG, "addTorrentListRefreshingListener " + l);
 			}
 			refreshingListeners.add(l);
-			List<Map<?, ?>> torrentList = getList();
-			if (torrentList.size() > 0 && fire) {
+			if (snapshot.size() > 0 && fire) {
 				l.rpcTorrentListRefreshingChanged(refreshingList);
 			}
 		}
@@ -415,35 +492,104 @@ public class Session_Torrent
 		session.ensureNotDestroyed();
 
 		synchronized (session.mLock) {
-			mapOriginal.clear();
+			store.clear();
+			filesLRU.clear();
+			publishSnapshot();
 			needsFullTorrentRefresh = true;
 		}
 	}
 
+	/**
+	 * Replaces the snapshot readers get from {@link #getListSnapshot()}, if
+	 * the store changed.  Call with session.mLock held, after a batch of store
+	 * changes.
+	 */
+	private void publishSnapshot() {
+		if (store.isSnapshotStale()) {
+			snapshot = store.snapshot(++snapshotVersion);
+		}
+	}
+
+	/**
+	 * Current torrent list.  Doesn't lock, and doesn't copy.
+	 */
+	@NonNull
+	public TorrentListSnapshot getListSnapshot() {
+		return snapshot;
+	}
+
 	public int clearFilesCaches(boolean keepLastUsedTorrentFiles) {
 		session.ensureNotDestroyed();
 
 		int num = 0;
 		synchronized (session.mLock) {
-			int size = mapOriginal.size();
-			if (size == 0) {
-				return num;
-			}
-			for (int i = size - 1; i >= 0; i--) {
-				long torrentID = mapOriginal.keyAt(i);
+			for (long torrentID : store.getIDs()) {
 				if (keepLastUsedTorrentFiles && lastTorrentWithFiles == torrentID) {
 					continue;
 				}
-				Map<?, ?> map = mapOriginal.valueAt(i);
-				if (map.containsKey(TransmissionVars.FIELD_TORRENT_FILES)) {
-					map.remove(TransmissionVars.FIELD_TORRENT_FILES);
+				if (store.removeField(torrentID, TransmissionVars.FIELD_TORRENT_FILES)) {
 					num++;
 				}
+				filesLRU.remove(torrentID);
 			}
+			publishSnapshot();
 		}
 		return num;
 	}
 
+	/**
+	 * Drops least recently used file lists until they use no more than
+	 * fraction of their budget.  The last torrent with files is kept.
+	 *
+	 * @return Number of file lists dropped
+	 */
+	public int trimFilesCaches(float fraction) {
+		session.ensureNotDestroyed();
+
+		synchronized (session.mLock) {
+			int num = evictFileLists((long) (filesLRU.getBudget() * fraction));
+			publishSnapshot();
+			return num;
+		}
+	}
+
+	/**
+	 * Call with session.mLock held, and publish after
+	 */
+	private int evictFileLists(long limit) {
+		long[] evicted = filesLRU.evict(limit, lastTorrentWithFiles);
+		for (long torrentID : evicted) {
+			store.removeField(torrentID, TransmissionVars.FIELD_TORRENT_FILES);
+		}
+		if (AndroidUtils.DEBUG && evicted.length > 0) {
+			Log.d(TAG, "evictFileLists: dropped " + Arrays.toString(evicted) + "; "
+					+ filesLRU);
+		}
+		return evicted.length;
+	}
+
+	/**
+	 * @return Occupancy and eviction count of the file list cache
+	 */
+	@NonNull
+	public String getFilesCacheStats() {
+		synchronized (session.mLock) {
+			return filesLRU.toString();
+		}
+	}
+
+	/**
+	 * Sets how many bytes cached file lists may use before the least recently
+	 * used are dropped
+	 */
+	public void setFilesCacheBudget(long bytes) {
+		synchronized (session.mLock) {
+			filesLRU.setBudget(bytes);
+			evictFileLists(filesLRU.getBudget());
+			publishSnapshot();
+		}
+	}
+
 	public void destroy() {
 		refreshingListeners.clear();
 		lastListReceivedOn = 0;
@@ -453,16 +599,53 @@ public class Session_Torrent
 		return lastListReceivedOn;
 	}
 
-	public Map<String, Object> getCachedTorrent(long id) {
+	/**
+	 * @return Torrent's cached fields, from {@link #getListSnapshot()}.  Use
+	 * {@link #setCachedTorrentField(long, String, Object)} to change one.
+	 */
+	@Nullable
+	public TorrentRow getCachedTorrent(long id) {
+		return snapshot.get(id);
+	}
+
+	/**
+	 * Changes a cached field locally, without telling the remote
+	 */
+	public void setCachedTorrentField(long id, @NonNull String fieldID,
+			@Nullable Object value) {
+		setCachedTorrentField(new long[] {
+			id
+		}, fieldID, value);
+	}
+
+	/**
+	 * Changes a cached field of several torrents, publishing once
+	 */
+	public void setCachedTorrentField(@NonNull long[] ids,
+			@NonNull String fieldID, @Nullable Object value) {
 		synchronized (session.mLock) {
-			//noinspection unchecked
-			return (Map<String, Object>) mapOriginal.get(id, null);
+			for (long id : ids) {
+				store.setField(id, fieldID, value);
+			}
+			publishSnapshot();
 		}
 	}
 
+	/**
+	 * Torrent list by column.  Locks on every call; readers should use
+	 * {@link #getListSnapshot()} instead.
+	 */
+	@NonNull
+	public TorrentStore getStore() {
+		return store;
+	}
+
 	public void clearTorrentFromCache(long id) {
 		synchronized (session.mLock) {
-			mapOriginal.remove(id);
+			if (store.remove(id)) {
+				filesLRU.remove(id);
+				publishSnapshot();
+			}
 		}
 	}
 
@@ -476,40 +659,44 @@ public class Session_Torrent
 	}
 
 	/**
-	 * Get all torrent maps.  Might be slow (walks tree)
+	 * Get all torrent maps
 	 */
 	private List<Map<?, ?>> getList() {
 		session.ensureNotDestroyed();
 
-		ArrayList<Map<?, ?>> list = new ArrayList<>();
-
-		synchronized (session.mLock) {
-			for (int i = 0, num = mapOriginal.size(); i < num; i++) {
-				list.add(mapOriginal.valueAt(i));
-			}
-		}
-		return list;
+		return snapshot.toList();
 	}
 
 	public int getCount() {
 		session.ensureNotDestroyed();
 
-		return mapOriginal.size();
+		return snapshot.size();
 	}
 
+	/**
+	 * @return New array of immutable torrent rows, keyed by torrent id.
+	 * Built from {@link #getListSnapshot()} without locking.
+	 */
 	@NonNull
 	public LongSparseArray<Map<?, ?>> getListAsSparseArray() {
 		session.ensureNotDestroyed();
 
-		synchronized (session.mLock) {
-			return mapOriginal.clone();
-		}
+		return snapshot.toSparseArray();
 	}
 
 	public boolean isRefreshingList() {
 		return refreshingList;
 	}
 
+	/**
+	 * Views register the torrent fields they show here, so periodic refreshes
+	 * can skip the rest
+	 */
+	@NonNull
+	public TorrentFieldRegistry getFieldRegistry() {
+		return fieldRegistry;
+	}
+
 	public void moveDataTo(final long id, final String s) {
 		session.ensureNotDestroyed();
 
@@ -846,48 +1033,6 @@ public class Session_Torrent
 		}
 	}
 
-	/**
-	 * <p>Map objects for mapTorrent[key][0..n] are retained, but updated with
-	 * new values.</p>
-	 *
-	 */
-	@SuppressWarnings({
-		"rawtypes",
-		"unchecked"
-	})
-	private static void mergeList(String key, Map mapTorrent, Map mapTorrentOld) {
-		// listUpdatedFiles: mapTorrent[key]. values are Map
-		// listNewFiles: copy of mapTorrentOld[key].  values are Map
-		// walk through listUpdatedFiles, putting all map values into corresponding listNewFiles map,
-		// thus maintaining Map object accross merges
-		List listOldFiles = MapUtils.getMapList(mapTorrentOld, key, null);
-		if (listOldFiles != null) {
-			// files: merge special case
-			List listUpdatedFiles = MapUtils.getMapList(mapTorrent, key, null);
-			if (listUpdatedFiles != null) {
-				List listNewFiles = new ArrayList(listOldFiles);
-				for (Object oUpdatedFile : listUpdatedFiles) {
-					if (!(oUpdatedFile instanceof Map)) {
-						continue;
-					}
-					Map mapUpdatedFile = (Map) oUpdatedFile;
-					int index = MapUtils.getMapInt(mapUpdatedFile,
-							TransmissionVars.FIELD_FILES_INDEX, -1);
-					if (index < 0 || index >= listNewFiles.size()) {
-						continue;
-					}
-					Map mapNewFile = (Map) listNewFiles.get(index);
-					synchronized (mapUpdatedFile) {
-						for (Object fileKey : mapUpdatedFile.keySet()) {
-							mapNewFile.put(fileKey, mapUpdatedFile.get(fileKey));
-						}
-					}
-				}
-				mapTorrent.put(key, listNewFiles);
-			}
-		}
-	}
-
 	public void stopTorrents(@Nullable final long[] ids) {
 		session._executeRpc(rpc -> rpc.stopTorrents(TAG, ids, null));
 	}
@@ -0,0 +1,186 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.biglybt.android.client.session;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.biglybt.android.client.TransmissionVars;
+
+import java.util.*;
+
+/**
+ * Torrent fields that currently visible views need from a periodic refresh.
+ * <p/>
+ * Views register a {@link FieldProvider} while shown and unregister when
+ * hidden.  Refreshes then only request the union of those fields (plus
+ * {@link #ALWAYS_FIELDS}), instead of every basic field for every torrent.
+ * With nothing registered, refreshes request all basic fields as before.
+ * <p/>
+ * Providers are asked on every refresh, so a view whose needs change (ie.
+ * new sort order) doesn't need to re-register.
+ */
+public class TorrentFieldRegistry
+{
+	public interface FieldProvider
+	{
+		/**
+		 * @return Torrent field IDs the view reads from the cached torrent map
+		 */
+		@NonNull
+		Collection<String> getTorrentFieldIDs();
+	}
+
+	/**
+	 * Needed by session logic and action menus regardless of what's visible
+	 */
+	public static final List<String> ALWAYS_FIELDS = Collections.unmodifiableList(
+			Arrays.asList(TransmissionVars.FIELD_TORRENT_ID,
+					TransmissionVars.FIELD_TORRENT_HASH_STRING,
+					TransmissionVars.FIELD_TORRENT_NAME,
+					TransmissionVars.FIELD_TORRENT_STATUS,
+					TransmissionVars.FIELD_TORRENT_PERCENT_DONE,
+					TransmissionVars.FIELD_TORRENT_METADATA_PERCENT_DONE,
+					TransmissionVars.FIELD_TORRENT_LEFT_UNTIL_DONE,
+					TransmissionVars.FIELD_TORRENT_ERROR,
+					TransmissionVars.FIELD_TORRENT_IS_FORCED,
+					TransmissionVars.FIELD_TORRENT_SEQUENTIAL));
+
+	private final Map<Object, FieldProvider> providers = new HashMap<>();
+
+	private boolean enabled = true;
+
+	/** Union returned by last {@link #getWantedFields()} */
+	private Set<String> lastWanted;
+
+	private boolean fieldsAdded;
+
+	private long numFullRefreshes;
+
+	private long bytesFullRefreshes;
+
+	private long numProjectedRefreshes;
+
+	private long bytesProjectedRefreshes;
+
+	public synchronized void register(@NonNull Object owner,
+			@NonNull FieldProvider provider) {
+		providers.put(owner, provider);
+	}
+
+	public synchronized void unregister(@NonNull Object owner) {
+		providers.remove(owner);
+	}
+
+	/**
+	 * @return Fields to request on a refresh, or null if all basic fields
+	 * should be requested
+	 */
+	@Nullable
+	public synchronized Set<String> getWantedFields() {
+		if (!enabled || providers.isEmpty()) {
+			// All fields will be requested; nothing can be missing
+			lastWanted = null;
+			return null;
+		}
+		Set<String> wanted = new HashSet<>(ALWAYS_FIELDS);
+		for (FieldProvider provider : providers.values()) {
+			wanted.addAll(provider.getTorrentFieldIDs());
+		}
+		if (lastWanted != null && !lastWanted.containsAll(wanted)) {
+			fieldsAdded = true;
+		}
+		lastWanted = wanted;
+		return wanted;
+	}
+
+	/**
+	 * @return true if a view started needing a field since the last call.
+	 * Torrents not in a "recently-active" refresh won't have a current value
+	 * for it, so caller should do a full refresh.
+	 */
+	synchronized boolean checkFieldsAdded() {
+		getWantedFields();
+		boolean added = fieldsAdded;
+		fieldsAdded = false;
+		return added;
+	}
+
+	public synchronized boolean isProjecting() {
+		return enabled && !providers.isEmpty();
+	}
+
+	public synchronized boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Turning off makes refreshes request all basic fields, which gives
+	 * a "before" number for {@link #getAvgBytesFullRefresh()}
+	 */
+	public synchronized void setEnabled(boolean enabled) {
+		if (this.enabled == enabled) {
+			return;
+		}
+		this.enabled = enabled;
+		if (enabled) {
+			lastWanted = null;
+		}
+	}
+
+	synchronized void refreshCompleted(boolean projected, long bytes) {
+		if (projected) {
+			numProjectedRefreshes++;
+			bytesProjectedRefreshes += bytes;
+		} else {
+			numFullRefreshes++;
+			bytesFullRefreshes += bytes;
+		}
+	}
+
+	/**
+	 * @return Average bytes received per refresh that requested all basic
+	 * fields, or -1 if there hasn't been one
+	 */
+	public synchronized long getAvgBytesFullRefresh() {
+		return numFullRefreshes == 0 ? -1 : bytesFullRefreshes / numFullRefreshes;
+	}
+
+	/**
+	 * @return Average bytes received per refresh that requested only the
+	 * registered fields, or -1 if there hasn't been one
+	 */
+	public synchronized long getAvgBytesProjectedRefresh() {
+		return numProjectedRefreshes == 0 ? -1
+				: bytesProjectedRefreshes / numProjectedRefreshes;
+	}
+
+	public synchronized long getNumFullRefreshes() {
+		return numFullRefreshes;
+	}
+
+	public synchronized long getNumProjectedRefreshes() {
+		return numProjectedRefreshes;
+	}
+
+	@NonNull
+	@Override
+	public synchronized String toString() {
+		return "TorrentFieldRegistry{" + (enabled ? "" : "disabled, ")
+				+ providers.size() + " views, wanted=" + lastWanted + "}";
+	}
+}
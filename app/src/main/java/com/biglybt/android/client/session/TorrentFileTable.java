@@ -0,0 +1,660 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.biglybt.android.client.session;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.biglybt.android.client.TransmissionVars;
+
+import java.util.*;
+
+/**
+ * A torrent's file list, stored by column.
+ * <p/>
+ * name, length, bytesCompleted, priority, wanted and hc are kept in
+ * parallel arrays, one row per file.  Names are split into a folder node of
+ * a {@link FilePathTrie} and a short name, so folder paths aren't repeated
+ * for every file.  Anything else (fullPath, contentURL, ..) goes into a
+ * per-row side map, which is usually never created.
+ * <p/>
+ * The table is a {@link List} of {@link Map} views, so code that walks
+ * "files" as maps keeps working.  Views are cached per row and write through
+ * to the table.  Hot loops can use the typed getters instead.
+ * <p/>
+ * A partial refresh (file-indexes) is merged with {@link #patch}, which
+ * copies only the rows and columns in the update.
+ */
+public class TorrentFileTable
+	extends AbstractList<Map<String, Object>>
+	implements RandomAccess
+{
+	private static final String TAG = "TorrentFileTable";
+
+	/** BiglyBT: file's hash code, used to detect changed files */
+	public static final String FIELD_HC = "hc";
+
+	private static final int BIT_NAME = 1;
+
+	private static final int BIT_LENGTH = 1 << 1;
+
+	private static final int BIT_BYTES_COMPLETED = 1 << 2;
+
+	private static final int BIT_PRIORITY = 1 << 3;
+
+	private static final int BIT_WANTED = 1 << 4;
+
+	private static final int BIT_HC = 1 << 5;
+
+	/** "index" was in the reply, instead of assumed from row */
+	private static final int BIT_INDEX = 1 << 6;
+
+	private static final Map<String, Integer> COLUMN_BITS = new HashMap<>();
+
+	static {
+		COLUMN_BITS.put(TransmissionVars.FIELD_FILES_NAME, BIT_NAME);
+		COLUMN_BITS.put(TransmissionVars.FIELD_FILES_LENGTH, BIT_LENGTH);
+		COLUMN_BITS.put(TransmissionVars.FIELD_FILESTATS_BYTES_COMPLETED,
+				BIT_BYTES_COMPLETED);
+		COLUMN_BITS.put(TransmissionVars.FIELD_FILESTATS_PRIORITY, BIT_PRIORITY);
+		COLUMN_BITS.put(TransmissionVars.FIELD_FILESTATS_WANTED, BIT_WANTED);
+		COLUMN_BITS.put(FIELD_HC, BIT_HC);
+		COLUMN_BITS.put(TransmissionVars.FIELD_FILES_INDEX, BIT_INDEX);
+	}
+
+	private static final String[] COLUMN_NAMES = {
+		TransmissionVars.FIELD_FILES_NAME,
+		TransmissionVars.FIELD_FILES_LENGTH,
+		TransmissionVars.FIELD_FILESTATS_BYTES_COMPLETED,
+		TransmissionVars.FIELD_FILESTATS_PRIORITY,
+		TransmissionVars.FIELD_FILESTATS_WANTED,
+		FIELD_HC
+	};
+
+	private int size;
+
+	private int[] fileIndexes;
+
+	/** Folder part of name, as a node of {@link #trie} */
+	private int[] folderNodes;
+
+	/** name without its folder */
+	private String[] shortNames;
+
+	@NonNull
+	private final FilePathTrie trie = new FilePathTrie();
+
+	private long[] lengths;
+
+	private long[] bytesCompleted;
+
+	private int[] priorities;
+
+	private boolean[] wanted;
+
+	private long[] hcs;
+
+	private int[] present;
+
+	private Map<String, Object>[] others;
+
+	private FileMapView[] views;
+
+	public TorrentFileTable() {
+		this(16);
+	}
+
+	public TorrentFileTable(int capacity) {
+		if (capacity < 1) {
+			capacity = 1;
+		}
+		fileIndexes = new int[capacity];
+		folderNodes = new int[capacity];
+		shortNames = new String[capacity];
+		lengths = new long[capacity];
+		bytesCompleted = new long[capacity];
+		priorities = new int[capacity];
+		wanted = new boolean[capacity];
+		hcs = new long[capacity];
+		present = new int[capacity];
+		others = newMapArray(capacity);
+		views = new FileMapView[capacity];
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object>[] newMapArray(int len) {
+		return (Map<String, Object>[]) new Map[len];
+	}
+
+	/**
+	 * Builds a table from a decoded "files" list.  Rows can be Maps, or
+	 * Lists/arrays of values in fileKeys order (compact mode).
+	 *
+	 * @return null if a compact row doesn't match fileKeys
+	 */
+	@Nullable
+	public static TorrentFileTable fromRows(@NonNull List<?> rows,
+			@Nullable String[] fileKeys) {
+		int numRows = rows.size();
+		TorrentFileTable table = new TorrentFileTable(numRows);
+		for (int i = 0; i < numRows; i++) {
+			Object o = rows.get(i);
+			int row = table.appendRow();
+			if (o instanceof Map) {
+				for (Map.Entry<?, ?> entry : ((Map<?, ?>) o).entrySet()) {
+					Object key = entry.getKey();
+					if (key instanceof String) {
+						table.set(row, (String) key, entry.getValue());
+					}
+				}
+				continue;
+			}
+			List<?> values = (o instanceof Object[]) ? Arrays.asList((Object[]) o)
+					: (o instanceof List) ? (List<?>) o : null;
+			if (values == null || fileKeys == null
+					|| values.size() != fileKeys.length) {
+				Log.e(TAG, "fromRows: fileKeys size mismatch keys= "
+						+ Arrays.toString(fileKeys) + ", row=" + o);
+				return null;
+			}
+			for (int j = 0; j < fileKeys.length; j++) {
+				table.set(row, fileKeys[j], values.get(j));
+			}
+		}
+		return table;
+	}
+
+	@Override
+	public synchronized int size() {
+		return size;
+	}
+
+	@NonNull
+	@Override
+	public synchronized Map<String, Object> get(int row) {
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("row " + row + " of " + size);
+		}
+		FileMapView view = views[row];
+		if (view == null) {
+			view = new FileMapView(this, row);
+			views[row] = view;
+		}
+		return view;
+	}
+
+	/**
+	 * Adds an empty row.  Its file index is the row number until
+	 * {@link #assignFileIndexes(int[])} or an "index" value says otherwise.
+	 *
+	 * @return new row
+	 */
+	public synchronized int appendRow() {
+		if (size == fileIndexes.length) {
+			grow(size * 2);
+		}
+		int row = size++;
+		fileIndexes[row] = row;
+		folderNodes[row] = FilePathTrie.ROOT;
+		shortNames[row] = null;
+		present[row] = 0;
+		others[row] = null;
+		views[row] = null;
+		return row;
+	}
+
+	private void grow(int capacity) {
+		fileIndexes = Arrays.copyOf(fileIndexes, capacity);
+		folderNodes = Arrays.copyOf(folderNodes, capacity);
+		shortNames = Arrays.copyOf(shortNames, capacity);
+		lengths = Arrays.copyOf(lengths, capacity);
+		bytesCompleted = Arrays.copyOf(bytesCompleted, capacity);
+		priorities = Arrays.copyOf(priorities, capacity);
+		wanted = Arrays.copyOf(wanted, capacity);
+		hcs = Arrays.copyOf(hcs, capacity);
+		present = Arrays.copyOf(present, capacity);
+		others = Arrays.copyOf(others, capacity);
+		views = Arrays.copyOf(views, capacity);
+	}
+
+	/**
+	 * Sets rows' file index from the file-indexes a partial refresh asked
+	 * for.  Rows that had an "index" in the reply keep it.
+	 */
+	public synchronized void assignFileIndexes(@Nullable int[] requested) {
+		if (requested == null) {
+			return;
+		}
+		for (int row = 0; row < size && row < requested.length; row++) {
+			if ((present[row] & BIT_INDEX) == 0) {
+				fileIndexes[row] = requested[row];
+			}
+		}
+	}
+
+	/**
+	 * Merges "fileStats" (list of maps, same order as rows) into the table
+	 */
+	public synchronized void mergeFileStats(@NonNull List<?> listFileStats) {
+		for (int row = 0, num = Math.min(size,
+				listFileStats.size()); row < num; row++) {
+			Object o = listFileStats.get(row);
+			if (!(o instanceof Map)) {
+				continue;
+			}
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) o).entrySet()) {
+				Object key = entry.getKey();
+				if (key instanceof String) {
+					set(row, (String) key, entry.getValue());
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return row holding file, or -1
+	 */
+	public synchronized int rowOf(int fileIndex) {
+		// Full lists have row == fileIndex
+		if (fileIndex >= 0 && fileIndex < size
+				&& fileIndexes[fileIndex] == fileIndex) {
+			return fileIndex;
+		}
+		for (int row = 0; row < size; row++) {
+			if (fileIndexes[row] == fileIndex) {
+				return row;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Copies the values in update into the matching rows of this table, in
+	 * place.  Rows of update with no matching file here are skipped.
+	 */
+	public void patch(@NonNull TorrentFileTable update) {
+		if (update == this) {
+			return;
+		}
+		synchronized (update) {
+			synchronized (this) {
+				for (int src = 0; src < update.size; src++) {
+					int dst = rowOf(update.fileIndexes[src]);
+					if (dst >= 0) {
+						copyRow(update, src, dst);
+					}
+				}
+			}
+		}
+	}
+
+	private void copyRow(@NonNull TorrentFileTable src, int srcRow, int dstRow) {
+		int bits = src.present[srcRow];
+		if ((bits & BIT_NAME) != 0) {
+			String srcShortName = src.shortNames[srcRow];
+			int srcNode = src.folderNodes[srcRow];
+			if (srcNode == FilePathTrie.ROOT) {
+				folderNodes[dstRow] = FilePathTrie.ROOT;
+			} else if (!(srcShortName.equals(shortNames[dstRow])
+					&& src.trie.getPath(srcNode).equals(
+							trie.getPath(folderNodes[dstRow])))) {
+				// renamed, or first time we see the name
+				folderNodes[dstRow] = trie.addFolders(
+						src.trie.getPath(srcNode) + srcShortName);
+			}
+			shortNames[dstRow] = srcShortName;
+		}
+		if ((bits & BIT_LENGTH) != 0) {
+			lengths[dstRow] = src.lengths[srcRow];
+		}
+		if ((bits & BIT_BYTES_COMPLETED) != 0) {
+			bytesCompleted[dstRow] = src.bytesCompleted[srcRow];
+		}
+		if ((bits & BIT_PRIORITY) != 0) {
+			priorities[dstRow] = src.priorities[srcRow];
+		}
+		if ((bits & BIT_WANTED) != 0) {
+			wanted[dstRow] = src.wanted[srcRow];
+		}
+		if ((bits & BIT_HC) != 0) {
+			hcs[dstRow] = src.hcs[srcRow];
+		}
+		present[dstRow] |= bits;
+
+		Map<String, Object> srcOther = src.others[srcRow];
+		if (srcOther != null && !srcOther.isEmpty()) {
+			for (Map.Entry<String, Object> entry : srcOther.entrySet()) {
+				set(dstRow, entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	public synchronized void set(int row, @NonNull String key,
+			@Nullable Object value) {
+		Integer bit = COLUMN_BITS.get(key);
+		if (bit != null && setColumn(row, bit, value)) {
+			Map<String, Object> other = others[row];
+			if (other != null) {
+				other.remove(key);
+			}
+			return;
+		}
+		if (bit != null) {
+			// null or unexpected type; keep it as-is in the side map
+			present[row] &= ~bit;
+		}
+		Map<String, Object> other = others[row];
+		if (other == null) {
+			other = new HashMap<>(4);
+			others[row] = other;
+		}
+		other.put(key, value);
+	}
+
+	private boolean setColumn(int row, int bit, @Nullable Object value) {
+		switch (bit) {
+			case BIT_NAME:
+				if (!(value instanceof String)) {
+					return false;
+				}
+				setName(row, stripDND((String) value));
+				break;
+			case BIT_WANTED:
+				if (value instanceof Boolean) {
+					wanted[row] = (Boolean) value;
+				} else if (value instanceof Number) {
+					wanted[row] = ((Number) value).intValue() != 0;
+				} else {
+					return false;
+				}
+				break;
+			default:
+				if (!(value instanceof Number)) {
+					return false;
+				}
+				Number n = (Number) value;
+				if (bit == BIT_LENGTH) {
+					lengths[row] = n.longValue();
+				} else if (bit == BIT_BYTES_COMPLETED) {
+					bytesCompleted[row] = n.longValue();
+				} else if (bit == BIT_PRIORITY) {
+					priorities[row] = n.intValue();
+				} else if (bit == BIT_HC) {
+					hcs[row] = n.longValue();
+				} else if (bit == BIT_INDEX) {
+					fileIndexes[row] = n.intValue();
+				}
+				break;
+		}
+		present[row] |= bit;
+		return true;
+	}
+
+	/**
+	 * hack to remove .dnd_az! path
+	 * The proper way to do this would be to get the "dnd" directory
+	 * name from RPC, or have the RPC not include the "dnd" part of the
+	 * path.  The latter would be preferable.
+	 * <p/>
+	 * Only done when a name is set, not on every refresh.
+	 */
+	@NonNull
+	private static String stripDND(@NonNull String name) {
+		final int posDND = name.indexOf(".dnd_az!");
+		if (posDND >= 0 && posDND + 8 < name.length()) {
+			return name.substring(0, posDND) + name.substring(posDND + 9);
+		}
+		return name;
+	}
+
+	private void setName(int row, @NonNull String name) {
+		int node = trie.addFolders(name);
+		folderNodes[row] = node;
+		shortNames[row] = node == FilePathTrie.ROOT ? name
+				: name.substring(trie.getPath(node).length());
+	}
+
+	public synchronized int getFileIndex(int row) {
+		return fileIndexes[row];
+	}
+
+	@Nullable
+	public synchronized String getName(int row) {
+		if ((present[row] & BIT_NAME) == 0) {
+			return null;
+		}
+		int node = folderNodes[row];
+		return node == FilePathTrie.ROOT ? shortNames[row]
+				: trie.getPath(node).concat(shortNames[row]);
+	}
+
+	/**
+	 * @return name without its folder.  Doesn't build a new String.
+	 */
+	@Nullable
+	public synchronized String getShortName(int row) {
+		return (present[row] & BIT_NAME) == 0 ? null : shortNames[row];
+	}
+
+	/**
+	 * @return Node of file's folder in {@link #getTrie()}
+	 */
+	public synchronized int getFolderNode(int row) {
+		return folderNodes[row];
+	}
+
+	/**
+	 * @return Rough heap use of the table, for memory budgeting
+	 */
+	public synchronized long estimateBytes() {
+		int capacity = fileIndexes.length;
+		// primitive columns plus references, views counted when created
+		long bytes = 64 + capacity * 64L;
+		for (int row = 0; row < size; row++) {
+			String shortName = shortNames[row];
+			if (shortName != null) {
+				bytes += 40 + (shortName.length() * 2L);
+			}
+			if (others[row] != null) {
+				bytes += 64 + others[row].size() * 48L;
+			}
+			if (views[row] != null) {
+				bytes += 24;
+			}
+		}
+		return bytes + trie.estimateBytes();
+	}
+
+	/**
+	 * Folder paths of this table's files.  Only grows; callers should
+	 * synchronize on the table while walking it.
+	 */
+	@NonNull
+	public FilePathTrie getTrie() {
+		return trie;
+	}
+
+	public synchronized long getLength(int row, long def) {
+		return (present[row] & BIT_LENGTH) == 0 ? def : lengths[row];
+	}
+
+	public synchronized long getBytesCompleted(int row, long def) {
+		return (present[row] & BIT_BYTES_COMPLETED) == 0 ? def
+				: bytesCompleted[row];
+	}
+
+	public synchronized int getPriority(int row, int def) {
+		return (present[row] & BIT_PRIORITY) == 0 ? def : priorities[row];
+	}
+
+	public synchronized boolean isWanted(int row, boolean def) {
+		return (present[row] & BIT_WANTED) == 0 ? def : wanted[row];
+	}
+
+	public synchronized long getHC(int row, long def) {
+		return (present[row] & BIT_HC) == 0 ? def : hcs[row];
+	}
+
+	/**
+	 * Builds the compact "files-hc-" argument straight from the hc column.
+	 *
+	 * @param fileIndexes null for every row
+	 * @return hc of each file, comma separated.  Files without an hc are
+	 * "null", like the null entries of the list form
+	 */
+	@NonNull
+	public synchronized String joinHCs(@Nullable int[] fileIndexes) {
+		int num = fileIndexes == null ? size : fileIndexes.length;
+		StringBuilder sb = new StringBuilder(num * 11);
+		for (int i = 0; i < num; i++) {
+			int row = fileIndexes == null ? i : rowOf(fileIndexes[i]);
+			if (i > 0) {
+				sb.append(',');
+			}
+			if (row < 0 || (present[row] & BIT_HC) == 0) {
+				sb.append("null");
+			} else {
+				sb.append(hcs[row]);
+			}
+		}
+		return sb.toString();
+	}
+
+	@Nullable
+	synchronized Object getValue(int row, @NonNull Object key) {
+		if (TransmissionVars.FIELD_FILES_INDEX.equals(key)) {
+			return fileIndexes[row];
+		}
+		Integer bit = COLUMN_BITS.get(key);
+		if (bit != null && (present[row] & bit) != 0) {
+			return columnValue(row, bit);
+		}
+		Map<String, Object> other = others[row];
+		return other == null ? null : other.get(key);
+	}
+
+	synchronized boolean containsField(int row, @NonNull Object key) {
+		if (TransmissionVars.FIELD_FILES_INDEX.equals(key)) {
+			return true;
+		}
+		Integer bit = COLUMN_BITS.get(key);
+		if (bit != null && (present[row] & bit) != 0) {
+			return true;
+		}
+		Map<String, Object> other = others[row];
+		return other != null && other.containsKey(key);
+	}
+
+	@Nullable
+	synchronized Object removeField(int row, @NonNull Object key) {
+		Object old = getValue(row, key);
+		Integer bit = COLUMN_BITS.get(key);
+		if (bit != null && bit != BIT_INDEX) {
+			present[row] &= ~bit;
+		}
+		Map<String, Object> other = others[row];
+		if (other != null) {
+			other.remove(key);
+		}
+		return old;
+	}
+
+	@NonNull
+	synchronized Map<String, Object> rowToMap(int row) {
+		Map<String, Object> other = others[row];
+		Map<String, Object> map = new HashMap<>(
+				(other == null ? 0 : other.size()) + COLUMN_NAMES.length + 1);
+		if (other != null) {
+			map.putAll(other);
+		}
+		map.put(TransmissionVars.FIELD_FILES_INDEX, fileIndexes[row]);
+		for (String name : COLUMN_NAMES) {
+			int bit = COLUMN_BITS.get(name);
+			if ((present[row] & bit) != 0) {
+				map.put(name, columnValue(row, bit));
+			}
+		}
+		return map;
+	}
+
+	@NonNull
+	private Object columnValue(int row, int bit) {
+		switch (bit) {
+			case BIT_NAME:
+				return getName(row);
+			case BIT_LENGTH:
+				return lengths[row];
+			case BIT_BYTES_COMPLETED:
+				return bytesCompleted[row];
+			case BIT_PRIORITY:
+				return priorities[row];
+			case BIT_WANTED:
+				return wanted[row];
+			case BIT_HC:
+				return hcs[row];
+			default:
+				return fileIndexes[row];
+		}
+	}
+
+	/**
+	 * One file's row as a Map.  Reads and writes go to the table.
+	 */
+	private static final class FileMapView
+		extends AbstractMap<String, Object>
+	{
+		@NonNull
+		private final TorrentFileTable table;
+
+		private final int row;
+
+		FileMapView(@NonNull TorrentFileTable table, int row) {
+			this.table = table;
+			this.row = row;
+		}
+
+		@Override
+		public Object get(Object key) {
+			return key == null ? null : table.getValue(row, key);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return key != null && table.containsField(row, key);
+		}
+
+		@Override
+		public Object put(String key, Object value) {
+			Object old = table.getValue(row, key);
+			table.set(row, key, value);
+			return old;
+		}
+
+		@Override
+		public Object remove(Object key) {
+			return key == null ? null : table.removeField(row, key);
+		}
+
+		@NonNull
+		@Override
+		public Set<Entry<String, Object>> entrySet() {
+			return Collections.unmodifiableMap(table.rowToMap(row)).entrySet();
+		}
+	}
+}
@@ -0,0 +1,148 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.biglybt.android.client.session;
+
+import android.app.ActivityManager;
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.*;
+
+/**
+ * Tracks which torrents have a file list cached, how big each list is, and
+ * which was used least recently.
+ * <p/>
+ * Only does the accounting; {@link Session_Torrent} drops the file lists of
+ * the ids {@link #evict(long, long)} returns.  Not thread safe, guarded by
+ * session.mLock.
+ */
+public class TorrentFilesLRU
+{
+	/** Share of the app's heap file lists may use, as 1/n */
+	private static final int HEAP_DIVISOR = 16;
+
+	private static final long MIN_BUDGET = 2 * 1024 * 1024;
+
+	/** torrent id to estimated bytes, least recently used first */
+	private final LinkedHashMap<Long, Long> entries = new LinkedHashMap<>(16,
+			0.75f, true);
+
+	private long budget;
+
+	private long bytesUsed;
+
+	private long numEvictions;
+
+	public TorrentFilesLRU(long budget) {
+		this.budget = Math.max(MIN_BUDGET, budget);
+	}
+
+	/**
+	 * @return 1/{@link #HEAP_DIVISOR} of the device's per-app memory class
+	 */
+	public static long getDefaultBudget(@Nullable Context context) {
+		ActivityManager am = context == null ? null
+				: (ActivityManager) context.getSystemService(
+						Context.ACTIVITY_SERVICE);
+		int memoryClassMB = am == null ? 32 : am.getMemoryClass();
+		return Math.max(MIN_BUDGET, memoryClassMB * 1024L * 1024L / HEAP_DIVISOR);
+	}
+
+	public long getBudget() {
+		return budget;
+	}
+
+	public void setBudget(long budget) {
+		this.budget = Math.max(MIN_BUDGET, budget);
+	}
+
+	/**
+	 * Records that torrentID's file list was just used, and its current size
+	 */
+	public void touch(long torrentID, long bytes) {
+		Long old = entries.put(torrentID, bytes);
+		if (old != null) {
+			bytesUsed -= old;
+		}
+		bytesUsed += bytes;
+	}
+
+	public void remove(long torrentID) {
+		Long old = entries.remove(torrentID);
+		if (old != null) {
+			bytesUsed -= old;
+		}
+	}
+
+	public void clear() {
+		entries.clear();
+		bytesUsed = 0;
+	}
+
+	/**
+	 * Removes least recently used entries until no more than limit bytes are
+	 * used.
+	 *
+	 * @param keepID Never evicted, even if over limit.  -1 for none
+	 * @return IDs of torrents whose file list should be dropped
+	 */
+	@NonNull
+	public long[] evict(long limit, long keepID) {
+		if (bytesUsed <= limit) {
+			return new long[0];
+		}
+		long[] evicted = new long[entries.size()];
+		int num = 0;
+		Iterator<Map.Entry<Long, Long>> iter = entries.entrySet().iterator();
+		while (bytesUsed > limit && iter.hasNext()) {
+			Map.Entry<Long, Long> entry = iter.next();
+			long torrentID = entry.getKey();
+			if (torrentID == keepID) {
+				continue;
+			}
+			bytesUsed -= entry.getValue();
+			iter.remove();
+			evicted[num++] = torrentID;
+		}
+		numEvictions += num;
+		return Arrays.copyOf(evicted, num);
+	}
+
+	public long getBytesUsed() {
+		return bytesUsed;
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return Number of file lists evicted, not counting {@link #clear()}
+	 */
+	public long getEvictionCount() {
+		return numEvictions;
+	}
+
+	@NonNull
+	@Override
+	public String toString() {
+		return "TorrentFilesLRU{" + entries.size() + " lists, " + bytesUsed + "/"
+				+ budget + " bytes, " + numEvictions + " evicted}";
+	}
+}
@@ -0,0 +1,356 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.biglybt.android.client.session;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.biglybt.android.client.AndroidUtils;
+import com.biglybt.android.client.TransmissionVars;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.*;
+
+/**
+ * Last torrent list, tags and session stats of a {@link RemoteProfile},
+ * kept in a small binary file so the next launch can show something before
+ * the remote answers.
+ * <p/>
+ * Written off the UI thread after refreshes (at most every
+ * {@link #MIN_SAVE_INTERVAL_MS}); read back through a memory mapped buffer.
+ * Per-torrent file and peer lists aren't stored.
+ */
+public class TorrentListCache
+{
+	private static final String TAG = "TorrentListCache";
+
+	private static final int MAGIC = 0x42544c43; // BTLC
+
+	private static final int FORMAT_VERSION = 1;
+
+	private static final long MIN_SAVE_INTERVAL_MS = 30 * 1000;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final Set<String> SKIP_FIELDS = new HashSet<>(
+			Arrays.asList(TransmissionVars.FIELD_TORRENT_FILES,
+					TransmissionVars.FIELD_TORRENT_FILESTATS,
+					TransmissionVars.FIELD_TORRENT_PEERS));
+
+	private static final byte T_NULL = 0;
+
+	private static final byte T_FALSE = 1;
+
+	private static final byte T_TRUE = 2;
+
+	private static final byte T_LONG = 3;
+
+	private static final byte T_DOUBLE = 4;
+
+	private static final byte T_STRING = 5;
+
+	private static final byte T_LIST = 6;
+
+	private static final byte T_MAP = 7;
+
+	public static class Contents
+	{
+		public long savedOn;
+
+		@NonNull
+		public List<Map<String, Object>> torrents = new ArrayList<>();
+
+		@NonNull
+		public List<Map<String, Object>> tags = new ArrayList<>();
+
+		@Nullable
+		public Map<String, Object> sessionStats;
+	}
+
+	@NonNull
+	private final File file;
+
+	@NonNull
+	private final String profileID;
+
+	private long lastSavedOn;
+
+	private boolean saving;
+
+	public TorrentListCache(@NonNull File dir, @NonNull String profileID) {
+		this.profileID = profileID;
+		this.file = getFile(dir, profileID);
+	}
+
+	@NonNull
+	private static File getFile(@NonNull File dir, @NonNull String profileID) {
+		return new File(dir,
+				"torrentlist-" + Integer.toHexString(profileID.hashCode()) + ".bin");
+	}
+
+	/**
+	 * Removes the saved list of a profile that's going away
+	 */
+	public static void delete(@NonNull File dir, @NonNull String profileID) {
+		File file = getFile(dir, profileID);
+		if (file.exists() && !file.delete()) {
+			Log.w(TAG, "delete: Couldn't delete " + file);
+		}
+	}
+
+	/**
+	 * @return true if enough time passed since the last save
+	 */
+	synchronized boolean startSave(boolean force) {
+		long now = System.currentTimeMillis();
+		if (saving || (!force && now - lastSavedOn < MIN_SAVE_INTERVAL_MS)) {
+			return false;
+		}
+		saving = true;
+		lastSavedOn = now;
+		return true;
+	}
+
+	private synchronized void saveDone() {
+		saving = false;
+	}
+
+	@WorkerThread
+	void save(@NonNull TorrentListSnapshot snapshot,
+			@NonNull List<Map<?, ?>> tags, @Nullable Map<?, ?> sessionStats) {
+		File tmpFile = new File(file.getPath() + ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(tmpFile), 32768))) {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				writeString(out, profileID);
+				out.writeLong(System.currentTimeMillis());
+
+				int num = snapshot.size();
+				out.writeInt(num);
+				for (int i = 0; i < num; i++) {
+					// view's entrySet is a copy, taken under the store lock
+					writeMap(out, snapshot.mapAt(i), SKIP_FIELDS);
+				}
+
+				out.writeInt(tags.size());
+				for (Map<?, ?> tag : tags) {
+					writeMap(out, tag, null);
+				}
+
+				writeValue(out, sessionStats);
+			}
+			if (!tmpFile.renameTo(file)) {
+				Log.w(TAG, "save: Couldn't rename to " + file);
+				//noinspection ResultOfMethodCallIgnored
+				tmpFile.delete();
+			} else if (AndroidUtils.DEBUG) {
+				Log.d(TAG, "save: " + snapshot.size() + " torrents, "
+						+ file.length() + " bytes");
+			}
+		} catch (IOException e) {
+			Log.w(TAG, "save", e);
+			//noinspection ResultOfMethodCallIgnored
+			tmpFile.delete();
+		} finally {
+			saveDone();
+		}
+	}
+
+	/**
+	 * @return null if there is no usable cache
+	 */
+	@WorkerThread
+	@Nullable
+	Contents load() {
+		if (!file.exists()) {
+			return null;
+		}
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+				FileChannel channel = raf.getChannel()) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					channel.size());
+			if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+				return null;
+			}
+			if (!profileID.equals(readString(buffer))) {
+				return null;
+			}
+			Contents contents = new Contents();
+			contents.savedOn = buffer.getLong();
+
+			int num = buffer.getInt();
+			for (int i = 0; i < num; i++) {
+				Map<String, Object> map = readMap(buffer);
+				if (map != null) {
+					contents.torrents.add(map);
+				}
+			}
+
+			int numTags = buffer.getInt();
+			for (int i = 0; i < numTags; i++) {
+				Map<String, Object> map = readMap(buffer);
+				if (map != null) {
+					contents.tags.add(map);
+				}
+			}
+
+			Object stats = readValue(buffer);
+			//noinspection unchecked
+			contents.sessionStats = (stats instanceof Map)
+					? (Map<String, Object>) stats : null;
+			return contents;
+		} catch (Throwable t) {
+			// truncated or corrupt; start over
+			Log.w(TAG, "load", t);
+			delete();
+			return null;
+		}
+	}
+
+	void delete() {
+		//noinspection ResultOfMethodCallIgnored
+		file.delete();
+	}
+
+	private static void writeString(@NonNull DataOutputStream out,
+			@NonNull String s)
+			throws IOException {
+		byte[] bytes = s.getBytes(UTF8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	@NonNull
+	private static String readString(@NonNull ByteBuffer buffer) {
+		int len = buffer.getInt();
+		byte[] bytes = new byte[len];
+		buffer.get(bytes);
+		return new String(bytes, UTF8);
+	}
+
+	private static void writeMap(@NonNull DataOutputStream out,
+			@NonNull Map<?, ?> map, @Nullable Set<String> skipKeys)
+			throws IOException {
+		out.writeByte(T_MAP);
+		List<Map.Entry<?, ?>> entries = new ArrayList<>(map.entrySet());
+		int num = 0;
+		for (Map.Entry<?, ?> entry : entries) {
+			if (isWritableKey(entry.getKey(), skipKeys)) {
+				num++;
+			}
+		}
+		out.writeInt(num);
+		for (Map.Entry<?, ?> entry : entries) {
+			Object key = entry.getKey();
+			if (isWritableKey(key, skipKeys)) {
+				writeString(out, (String) key);
+				writeValue(out, entry.getValue());
+			}
+		}
+	}
+
+	private static boolean isWritableKey(Object key,
+			@Nullable Set<String> skipKeys) {
+		return (key instanceof String)
+				&& (skipKeys == null || !skipKeys.contains(key));
+	}
+
+	private static void writeValue(@NonNull DataOutputStream out,
+			@Nullable Object value)
+			throws IOException {
+		if (value == null) {
+			out.writeByte(T_NULL);
+		} else if (value instanceof Boolean) {
+			out.writeByte((Boolean) value ? T_TRUE : T_FALSE);
+		} else if ((value instanceof Float) || (value instanceof Double)
+				|| (value instanceof java.math.BigDecimal)) {
+			out.writeByte(T_DOUBLE);
+			out.writeDouble(((Number) value).doubleValue());
+		} else if (value instanceof Number) {
+			out.writeByte(T_LONG);
+			out.writeLong(((Number) value).longValue());
+		} else if (value instanceof Map) {
+			writeMap(out, (Map<?, ?>) value, null);
+		} else if (value instanceof List) {
+			List<?> list = new ArrayList<>((List<?>) value);
+			out.writeByte(T_LIST);
+			out.writeInt(list.size());
+			for (Object o : list) {
+				writeValue(out, o);
+			}
+		} else {
+			out.writeByte(T_STRING);
+			writeString(out, value.toString());
+		}
+	}
+
+	@Nullable
+	private static Map<String, Object> readMap(@NonNull ByteBuffer buffer)
+			throws IOException {
+		Object o = readValue(buffer);
+		//noinspection unchecked
+		return (o instanceof Map) ? (Map<String, Object>) o : null;
+	}
+
+	@Nullable
+	private static Object readValue(@NonNull ByteBuffer buffer)
+			throws IOException {
+		byte type = buffer.get();
+		switch (type) {
+			case T_NULL:
+				return null;
+			case T_FALSE:
+				return Boolean.FALSE;
+			case T_TRUE:
+				return Boolean.TRUE;
+			case T_LONG:
+				return buffer.getLong();
+			case T_DOUBLE:
+				return buffer.getDouble();
+			case T_STRING:
+				return readString(buffer);
+			case T_LIST: {
+				int num = buffer.getInt();
+				List<Object> list = new ArrayList<>(num);
+				for (int i = 0; i < num; i++) {
+					list.add(readValue(buffer));
+				}
+				return list;
+			}
+			case T_MAP: {
+				int num = buffer.getInt();
+				Map<String, Object> map = new HashMap<>(num * 2);
+				for (int i = 0; i < num; i++) {
+					String key = readString(buffer);
+					map.put(key, readValue(buffer));
+				}
+				return map;
+			}
+			default:
+				throw new IOException("Bad type " + type);
+		}
+	}
+}
@@ -0,0 +1,258 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.biglybt.android.client.session;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.LongSparseArray;
+
+import com.biglybt.android.client.TransmissionVars;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Which torrents, and which of their fields, changed in one torrent list
+ * update (or several, when {@link #addAll(TorrentListChanges)}'d together).
+ * <p/>
+ * Built by {@link Session_Torrent} while merging a torrent-get reply into the
+ * cached torrent maps.  Views can use it to skip refiltering, resorting or
+ * rebinding when none of the fields they show changed.
+ */
+public class TorrentListChanges
+{
+	/**
+	 * torrentID -> { fieldID -> [before, after] }
+	 * <br/>
+	 * Newly added torrents have an empty field map
+	 */
+	private final LongSparseArray<Map<String, Object[]>> changes = new LongSparseArray<>();
+
+	private final Set<String> changedFields = new HashSet<>();
+
+	private final Set<Long> removedIDs = new HashSet<>();
+
+	private int numAdded;
+
+	private int numRemoved;
+
+	void torrentAdded(long torrentID) {
+		numAdded++;
+		changes.put(torrentID, new HashMap<>(0));
+		removedIDs.remove(torrentID);
+	}
+
+	void torrentRemoved(long torrentID) {
+		numRemoved++;
+		changes.remove(torrentID);
+		removedIDs.add(torrentID);
+	}
+
+	/**
+	 * Compares fields in a new torrent map against the old one and records any
+	 * that differ.  Keys missing from mapUpdated are not compared, since
+	 * they will be merged in from old unchanged.  File lists are always
+	 * recorded as changed.
+	 */
+	void compare(long torrentID, @NonNull Map<?, ?> mapUpdated,
+			@NonNull Map<?, ?> old) {
+		Map<String, Object[]> torrentChanges = null;
+		for (Map.Entry<?, ?> entry : mapUpdated.entrySet()) {
+			Object key = entry.getKey();
+			if (!(key instanceof String)
+					|| TransmissionVars.FIELD_LAST_UPDATED.equals(key)) {
+				continue;
+			}
+			Object after = entry.getValue();
+			Object before = old.get(key);
+			// File lists may be partial and are merged later; too big to compare
+			boolean isFileList = TransmissionVars.FIELD_TORRENT_FILES.equals(key)
+					|| TransmissionVars.FIELD_TORRENT_FILESTATS.equals(key);
+			if (!isFileList && valuesEqual(before, after)) {
+				continue;
+			}
+			if (torrentChanges == null) {
+				torrentChanges = changes.get(torrentID);
+				if (torrentChanges == null) {
+					torrentChanges = new HashMap<>();
+					changes.put(torrentID, torrentChanges);
+				}
+			}
+			torrentChanges.put((String) key, new Object[] {
+				before,
+				after
+			});
+			changedFields.add((String) key);
+		}
+	}
+
+	private static boolean valuesEqual(@Nullable Object a, @Nullable Object b) {
+		if (a == b) {
+			return true;
+		}
+		if (a == null || b == null) {
+			return false;
+		}
+		if ((a instanceof Number) && (b instanceof Number)) {
+			// JSON decoding may give Integer one time, Long the next
+			if (a instanceof BigDecimal || b instanceof BigDecimal
+					|| a instanceof Double || b instanceof Double
+					|| a instanceof Float || b instanceof Float) {
+				return Double.compare(((Number) a).doubleValue(),
+						((Number) b).doubleValue()) == 0;
+			}
+			return ((Number) a).longValue() == ((Number) b).longValue();
+		}
+		return a.equals(b);
+	}
+
+	/**
+	 * Merge another set of changes into this one.  "before" values of
+	 * this set are kept.
+	 */
+	public void addAll(@NonNull TorrentListChanges other) {
+		numAdded += other.numAdded;
+		numRemoved += other.numRemoved;
+		changedFields.addAll(other.changedFields);
+		for (Long torrentID : other.removedIDs) {
+			changes.remove(torrentID);
+			removedIDs.add(torrentID);
+		}
+		for (int i = 0, size = other.changes.size(); i < size; i++) {
+			long torrentID = other.changes.keyAt(i);
+			removedIDs.remove(torrentID);
+			Map<String, Object[]> otherChanges = other.changes.valueAt(i);
+			Map<String, Object[]> torrentChanges = changes.get(torrentID);
+			if (torrentChanges == null) {
+				changes.put(torrentID, new HashMap<>(otherChanges));
+				continue;
+			}
+			for (Map.Entry<String, Object[]> entry : otherChanges.entrySet()) {
+				Object[] existing = torrentChanges.get(entry.getKey());
+				if (existing == null) {
+					torrentChanges.put(entry.getKey(), entry.getValue());
+				} else {
+					torrentChanges.put(entry.getKey(), new Object[] {
+						existing[0],
+						entry.getValue()[1]
+					});
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return true if torrents were added or removed
+	 */
+	public boolean isStructural() {
+		return numAdded > 0 || numRemoved > 0;
+	}
+
+	public boolean isEmpty() {
+		return !isStructural() && changedFields.isEmpty();
+	}
+
+	/**
+	 * Forget all changes, so the object can collect the next ones
+	 */
+	public void clear() {
+		changes.clear();
+		changedFields.clear();
+		removedIDs.clear();
+		numAdded = 0;
+		numRemoved = 0;
+	}
+
+	public int getNumAdded() {
+		return numAdded;
+	}
+
+	public int getNumRemoved() {
+		return numRemoved;
+	}
+
+	/**
+	 * @return Union of field IDs that changed in any torrent
+	 */
+	@NonNull
+	public Set<String> getChangedFields() {
+		return Collections.unmodifiableSet(changedFields);
+	}
+
+	public boolean hasChangedAny(@NonNull String... fieldIDs) {
+		for (String fieldID : fieldIDs) {
+			if (changedFields.contains(fieldID)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public boolean hasChangedAny(@NonNull Collection<String> fieldIDs) {
+		for (String fieldID : fieldIDs) {
+			if (changedFields.contains(fieldID)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return IDs of torrents that were added or had a field change
+	 */
+	@NonNull
+	public long[] getChangedTorrentIDs() {
+		long[] ids = new long[changes.size()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = changes.keyAt(i);
+		}
+		return ids;
+	}
+
+	/**
+	 * @return IDs of torrents that were removed
+	 */
+	@NonNull
+	public long[] getRemovedTorrentIDs() {
+		long[] ids = new long[removedIDs.size()];
+		int i = 0;
+		for (Long torrentID : removedIDs) {
+			ids[i++] = torrentID;
+		}
+		return ids;
+	}
+
+	public boolean isTorrentChanged(long torrentID) {
+		return changes.indexOfKey(torrentID) >= 0;
+	}
+
+	/**
+	 * @return fieldID -> [before, after] for torrent, or null if torrent
+	 * didn't change.  Empty map if torrent was newly added.
+	 */
+	@Nullable
+	public Map<String, Object[]> getTorrentChanges(long torrentID) {
+		return changes.get(torrentID);
+	}
+
+	@NonNull
+	@Override
+	public String toString() {
+		return "TorrentListChanges{added=" + numAdded + ", removed=" + numRemoved
+				+ ", torrents=" + changes.size() + ", fields=" + changedFields + "}";
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.biglybt.android.client.session;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.LongSparseArray;
+
+import java.util.*;
+
+/**
+ * Immutable list of torrents, published by {@link Session_Torrent} after
+ * every batch of changes.
+ * <p/>
+ * Readers get the current snapshot without locking.  Neither the torrents
+ * in it nor their {@link TorrentRow}s change; rows of torrents that didn't
+ * change are shared with the previous snapshot.  {@link #getVersion()} goes
+ * up with each publish, so a reader can skip work when nothing changed since
+ * its last pass.
+ */
+public final class TorrentListSnapshot
+{
+	static final TorrentListSnapshot EMPTY = new TorrentListSnapshot(0,
+			new long[0], new TorrentRow[0]);
+
+	private final long version;
+
+	/** Ascending */
+	@NonNull
+	private final long[] ids;
+
+	@NonNull
+	private final TorrentRow[] rows;
+
+	TorrentListSnapshot(long version, @NonNull long[] ids,
+			@NonNull TorrentRow[] rows) {
+		this.version = version;
+		this.ids = ids;
+		this.rows = rows;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public int size() {
+		return ids.length;
+	}
+
+	public long idAt(int i) {
+		return ids[i];
+	}
+
+	@NonNull
+	public TorrentRow mapAt(int i) {
+		return rows[i];
+	}
+
+	public boolean contains(long id) {
+		return Arrays.binarySearch(ids, id) >= 0;
+	}
+
+	@Nullable
+	public TorrentRow get(long id) {
+		int i = Arrays.binarySearch(ids, id);
+		return i < 0 ? null : rows[i];
+	}
+
+	/**
+	 * @return Copy of torrent IDs, ascending
+	 */
+	@NonNull
+	public long[] getIDs() {
+		return ids.clone();
+	}
+
+	/**
+	 * @return New, modifiable array of the torrent maps, keyed by torrent id
+	 */
+	@NonNull
+	public LongSparseArray<Map<?, ?>> toSparseArray() {
+		int num = ids.length;
+		LongSparseArray<Map<?, ?>> list = new LongSparseArray<>(num);
+		for (int i = 0; i < num; i++) {
+			// ids are ascending, so append is safe
+			list.append(ids[i], rows[i]);
+		}
+		return list;
+	}
+
+	@NonNull
+	public List<Map<?, ?>> toList() {
+		return new ArrayList<>(Arrays.asList(rows));
+	}
+}
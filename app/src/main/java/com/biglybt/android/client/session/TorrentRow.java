@@ -0,0 +1,230 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.biglybt.android.client.session;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.biglybt.android.client.TransmissionVars;
+import com.biglybt.android.util.MapUtils;
+
+import java.util.*;
+
+/**
+ * One torrent's fields, as a {@link TorrentStore} row was when built.
+ * <p/>
+ * Never changes.  The store builds a new row when the torrent changes, and
+ * {@link TorrentListSnapshot}s share rows that didn't.  Field values
+ * (lists, file tables) are shared with the store, not copied.
+ * <p/>
+ * Hot paths should use the typed getters, which read column fields without
+ * boxing.  Readers of several rows can look a field's column up once with
+ * {@link #columnOf(String)}.  The {@link Map} methods box, and are for code
+ * written against torrent maps.
+ */
+public final class TorrentRow
+	extends AbstractMap<String, Object>
+{
+	private final long id;
+
+	/** One per {@link TorrentStore#LONG_COLUMNS} */
+	@NonNull
+	private final long[] longs;
+
+	private final double percentDone;
+
+	private final int status;
+
+	/** Bit per column, set when row has a value for it */
+	private final int present;
+
+	/** Non-column fields; never modified */
+	@NonNull
+	private final Map<String, Object> others;
+
+	/** "tag-uids" as longs, or null if row has none */
+	@Nullable
+	private final long[] tagUIDs;
+
+	TorrentRow(long id, @NonNull long[] longs, double percentDone, int status,
+			int present, @NonNull Map<String, Object> others,
+			@Nullable long[] tagUIDs) {
+		this.id = id;
+		this.longs = longs;
+		this.percentDone = percentDone;
+		this.status = status;
+		this.present = present;
+		this.others = others;
+		this.tagUIDs = tagUIDs;
+	}
+
+	/**
+	 * @return Column for fieldID, for the column getters, or -1 if fieldID
+	 * isn't stored in a column
+	 */
+	public static int columnOf(@NonNull String fieldID) {
+		Integer col = TorrentStore.COLUMN_INDEX.get(fieldID);
+		return col == null ? -1 : col;
+	}
+
+	public long getID() {
+		return id;
+	}
+
+	/**
+	 * @param col from {@link #columnOf(String)}
+	 * @return false if row has no numeric value for the column
+	 */
+	public boolean hasColumn(int col) {
+		return (present & (1 << col)) != 0;
+	}
+
+	/**
+	 * @param col from {@link #columnOf(String)}
+	 */
+	public long getLong(int col, long def) {
+		if (!hasColumn(col)) {
+			return def;
+		}
+		if (col == TorrentStore.COL_PERCENT_DONE) {
+			return (long) percentDone;
+		}
+		if (col == TorrentStore.COL_STATUS) {
+			return status;
+		}
+		return longs[col];
+	}
+
+	/**
+	 * @param col from {@link #columnOf(String)}
+	 */
+	public double getDouble(int col, double def) {
+		if (!hasColumn(col)) {
+			return def;
+		}
+		return col == TorrentStore.COL_PERCENT_DONE ? percentDone
+				: getLong(col, 0);
+	}
+
+	/**
+	 * Same result as {@link MapUtils#getMapLong(Map, String, long)}, without
+	 * boxing column fields
+	 */
+	public long getLong(@NonNull String fieldID, long def) {
+		int col = columnOf(fieldID);
+		if (col >= 0 && hasColumn(col)) {
+			return getLong(col, def);
+		}
+		if (TransmissionVars.FIELD_TORRENT_ID.equals(fieldID)) {
+			return id;
+		}
+		return MapUtils.getMapLong(others, fieldID, def);
+	}
+
+	public int getInt(@NonNull String fieldID, int def) {
+		int col = columnOf(fieldID);
+		if (col >= 0 && hasColumn(col)) {
+			return (int) getLong(col, def);
+		}
+		if (TransmissionVars.FIELD_TORRENT_ID.equals(fieldID)) {
+			return (int) id;
+		}
+		return MapUtils.getMapInt(others, fieldID, def);
+	}
+
+	public float getFloat(@NonNull String fieldID, float def) {
+		int col = columnOf(fieldID);
+		if (col >= 0 && hasColumn(col)) {
+			return (float) getDouble(col, def);
+		}
+		if (TransmissionVars.FIELD_TORRENT_ID.equals(fieldID)) {
+			return id;
+		}
+		return MapUtils.getMapFloat(others, fieldID, def);
+	}
+
+	/**
+	 * @return null if torrent has no "tag-uids"
+	 */
+	@Nullable
+	public Boolean hasTag(long tagUID) {
+		if (tagUIDs == null) {
+			return null;
+		}
+		for (long uid : tagUIDs) {
+			if (uid == tagUID) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@NonNull
+	private Object columnValue(int col) {
+		if (col == TorrentStore.COL_PERCENT_DONE) {
+			return percentDone;
+		}
+		if (col == TorrentStore.COL_STATUS) {
+			return status;
+		}
+		return longs[col];
+	}
+
+	@Override
+	public Object get(Object key) {
+		if (TransmissionVars.FIELD_TORRENT_ID.equals(key)) {
+			return id;
+		}
+		Integer col = TorrentStore.COLUMN_INDEX.get(key);
+		if (col != null && hasColumn(col)) {
+			return columnValue(col);
+		}
+		return others.get(key);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		if (TransmissionVars.FIELD_TORRENT_ID.equals(key)) {
+			return true;
+		}
+		Integer col = TorrentStore.COLUMN_INDEX.get(key);
+		if (col != null && hasColumn(col)) {
+			return true;
+		}
+		return others.containsKey(key);
+	}
+
+	@Override
+	public int size() {
+		// store keeps a field in a column or in others, never both
+		return 1 + Integer.bitCount(present) + others.size();
+	}
+
+	@NonNull
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		Map<String, Object> map = new HashMap<>(size());
+		map.putAll(others);
+		map.put(TransmissionVars.FIELD_TORRENT_ID, id);
+		for (int col = 0; col < TorrentStore.NUM_COLUMNS; col++) {
+			if (hasColumn(col)) {
+				map.put(TorrentStore.columnName(col), columnValue(col));
+			}
+		}
+		return Collections.unmodifiableMap(map).entrySet();
+	}
+}
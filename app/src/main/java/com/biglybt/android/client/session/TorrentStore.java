@@ -0,0 +1,381 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.biglybt.android.client.session;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.biglybt.android.client.TransmissionVars;
+
+import java.util.*;
+
+/**
+ * Cached torrent list, stored by column.
+ * <p/>
+ * Fields that every refresh touches and every sort/filter reads (id,
+ * percentDone, rates, status, eta, sizeWhenDone, dateAdded) live in
+ * primitive arrays, one row per torrent, rows ordered by torrent id.  All
+ * other fields go into a small per-row side map.
+ * <p/>
+ * Each row's fields are also kept as an immutable {@link TorrentRow}, built
+ * when first asked for after the row changes.  {@link #snapshot(long)} only
+ * builds rows that changed, and shares the rest with earlier snapshots.
+ * Readers should use the rows, through {@link TorrentListSnapshot}, and
+ * their typed getters.
+ * <p/>
+ * All methods synchronize on the store.
+ */
+public class TorrentStore
+{
+	static final String[] LONG_COLUMNS = {
+		TransmissionVars.FIELD_TORRENT_RATE_DOWNLOAD,
+		TransmissionVars.FIELD_TORRENT_RATE_UPLOAD,
+		TransmissionVars.FIELD_TORRENT_ETA,
+		TransmissionVars.FIELD_TORRENT_SIZE_WHEN_DONE,
+		TransmissionVars.FIELD_TORRENT_DATE_ADDED
+	};
+
+	static final int COL_PERCENT_DONE = LONG_COLUMNS.length;
+
+	static final int COL_STATUS = COL_PERCENT_DONE + 1;
+
+	static final int NUM_COLUMNS = COL_STATUS + 1;
+
+	/** fieldID -> column */
+	static final Map<String, Integer> COLUMN_INDEX = new HashMap<>();
+
+	static {
+		for (int i = 0; i < LONG_COLUMNS.length; i++) {
+			COLUMN_INDEX.put(LONG_COLUMNS[i], i);
+		}
+		COLUMN_INDEX.put(TransmissionVars.FIELD_TORRENT_PERCENT_DONE,
+				COL_PERCENT_DONE);
+		COLUMN_INDEX.put(TransmissionVars.FIELD_TORRENT_STATUS, COL_STATUS);
+	}
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private int size;
+
+	private long[] ids = new long[INITIAL_CAPACITY];
+
+	private long[][] longs = new long[LONG_COLUMNS.length][INITIAL_CAPACITY];
+
+	private double[] percentDone = new double[INITIAL_CAPACITY];
+
+	private int[] status = new int[INITIAL_CAPACITY];
+
+	/** Bit per column, set when row has a value for it */
+	private int[] present = new int[INITIAL_CAPACITY];
+
+	/** Non-column fields */
+	private Map<String, Object>[] others = newMapArray(INITIAL_CAPACITY);
+
+	/** Row as last built; null once the row changes */
+	private TorrentRow[] rows = new TorrentRow[INITIAL_CAPACITY];
+
+	/** Set when anything changes after {@link #snapshot(long)} */
+	private boolean snapshotStale;
+
+	/** Rows by "tag-uids" entry */
+	private final TorrentTagIndex tagIndex = new TorrentTagIndex();
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object>[] newMapArray(int len) {
+		return (Map<String, Object>[]) new Map[len];
+	}
+
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * @return row for torrent, or negative if not in store
+	 */
+	public synchronized int indexOf(long id) {
+		return Arrays.binarySearch(ids, 0, size, id);
+	}
+
+	public synchronized boolean contains(long id) {
+		return indexOf(id) >= 0;
+	}
+
+	public synchronized long idAt(int row) {
+		return ids[row];
+	}
+
+	/**
+	 * @return Torrent IDs, in ascending order
+	 */
+	@NonNull
+	public synchronized long[] getIDs() {
+		return Arrays.copyOf(ids, size);
+	}
+
+	/**
+	 * @return Torrent's current fields, or null if not in store.  Later
+	 * changes don't show in the returned row.
+	 */
+	@Nullable
+	public synchronized TorrentRow getMap(long id) {
+		int row = indexOf(id);
+		return row < 0 ? null : rowAt(row);
+	}
+
+	@NonNull
+	private TorrentRow rowAt(int row) {
+		TorrentRow torrentRow = rows[row];
+		if (torrentRow == null) {
+			long[] values = new long[LONG_COLUMNS.length];
+			for (int col = 0; col < values.length; col++) {
+				values[col] = longs[col][row];
+			}
+			Map<String, Object> other = others[row];
+			torrentRow = new TorrentRow(ids[row], values, percentDone[row],
+					status[row], present[row],
+					other == null ? Collections.emptyMap()
+							: Collections.unmodifiableMap(new HashMap<>(other)),
+					tagIndex.getTags(row));
+			rows[row] = torrentRow;
+		}
+		return torrentRow;
+	}
+
+	/**
+	 * @return Immutable list of the torrents currently in the store
+	 */
+	@NonNull
+	synchronized TorrentListSnapshot snapshot(long version) {
+		TorrentRow[] snapshotRows = new TorrentRow[size];
+		for (int row = 0; row < size; row++) {
+			snapshotRows[row] = rowAt(row);
+		}
+		snapshotStale = false;
+		return new TorrentListSnapshot(version, Arrays.copyOf(ids, size),
+				snapshotRows);
+	}
+
+	/**
+	 * @return true if store changed since the last {@link #snapshot(long)}
+	 */
+	synchronized boolean isSnapshotStale() {
+		return snapshotStale;
+	}
+
+	private void rowChanged(int row) {
+		rows[row] = null;
+		snapshotStale = true;
+	}
+
+	/**
+	 * Sets the fields in mapUpdated, adding the torrent if needed.  Fields
+	 * not in mapUpdated keep their current values.
+	 *
+	 * @return true if torrent was added
+	 */
+	public synchronized boolean update(long id, @NonNull Map<?, ?> mapUpdated) {
+		int row = indexOf(id);
+		boolean added = row < 0;
+		if (added) {
+			row = insertRow(-(row + 1), id);
+		}
+		for (Map.Entry<?, ?> entry : mapUpdated.entrySet()) {
+			Object key = entry.getKey();
+			if (key instanceof String) {
+				setAt(row, (String) key, entry.getValue());
+			}
+		}
+		return added;
+	}
+
+	public synchronized void setField(long id, @NonNull String fieldID,
+			@Nullable Object value) {
+		int row = indexOf(id);
+		if (row >= 0) {
+			setAt(row, fieldID, value);
+		}
+	}
+
+	/**
+	 * @return true if field was present
+	 */
+	public synchronized boolean removeField(long id, @NonNull String fieldID) {
+		int row = indexOf(id);
+		if (row < 0) {
+			return false;
+		}
+		Integer col = COLUMN_INDEX.get(fieldID);
+		if (col != null && (present[row] & (1 << col)) != 0) {
+			present[row] &= ~(1 << col);
+			rowChanged(row);
+			return true;
+		}
+		Map<String, Object> other = others[row];
+		if (other == null || !other.containsKey(fieldID)) {
+			return false;
+		}
+		other.remove(fieldID);
+		rowChanged(row);
+		if (TransmissionVars.FIELD_TORRENT_TAG_UIDS.equals(fieldID)) {
+			tagIndex.setTags(row, null);
+		}
+		return true;
+	}
+
+	/**
+	 * @return true if torrent was in store
+	 */
+	public synchronized boolean remove(long id) {
+		int row = indexOf(id);
+		if (row < 0) {
+			return false;
+		}
+		tagIndex.rowRemoved(row, size);
+		int numMoved = size - row - 1;
+		if (numMoved > 0) {
+			System.arraycopy(ids, row + 1, ids, row, numMoved);
+			for (long[] column : longs) {
+				System.arraycopy(column, row + 1, column, row, numMoved);
+			}
+			System.arraycopy(percentDone, row + 1, percentDone, row, numMoved);
+			System.arraycopy(status, row + 1, status, row, numMoved);
+			System.arraycopy(present, row + 1, present, row, numMoved);
+			System.arraycopy(others, row + 1, others, row, numMoved);
+			System.arraycopy(rows, row + 1, rows, row, numMoved);
+		}
+		size--;
+		others[size] = null;
+		rows[size] = null;
+		snapshotStale = true;
+		return true;
+	}
+
+	public synchronized void clear() {
+		Arrays.fill(others, 0, size, null);
+		Arrays.fill(rows, 0, size, null);
+		tagIndex.clear();
+		size = 0;
+		snapshotStale = true;
+	}
+
+	/**
+	 * @param all true for torrents with every tag, false for any of them
+	 * @return IDs of matching torrents, ascending
+	 */
+	@NonNull
+	public synchronized long[] getIDsWithTags(@NonNull long[] tagUIDs,
+			boolean all) {
+		long[] bits = tagIndex.match(tagUIDs, all);
+		long[] result = new long[TorrentTagIndex.countBits(bits)];
+		int num = 0;
+		for (int w = 0; w < bits.length; w++) {
+			long word = bits[w];
+			while (word != 0) {
+				int row = (w << 6) + Long.numberOfTrailingZeros(word);
+				result[num++] = ids[row];
+				word &= word - 1;
+			}
+		}
+		return result;
+	}
+
+	private int insertRow(int row, long id) {
+		if (size == ids.length) {
+			grow(size * 2);
+		}
+		tagIndex.rowInserted(row, size);
+		int numMoved = size - row;
+		if (numMoved > 0) {
+			System.arraycopy(ids, row, ids, row + 1, numMoved);
+			for (long[] column : longs) {
+				System.arraycopy(column, row, column, row + 1, numMoved);
+			}
+			System.arraycopy(percentDone, row, percentDone, row + 1, numMoved);
+			System.arraycopy(status, row, status, row + 1, numMoved);
+			System.arraycopy(present, row, present, row + 1, numMoved);
+			System.arraycopy(others, row, others, row + 1, numMoved);
+			System.arraycopy(rows, row, rows, row + 1, numMoved);
+		}
+		ids[row] = id;
+		present[row] = 0;
+		others[row] = null;
+		size++;
+		rowChanged(row);
+		return row;
+	}
+
+	private void grow(int capacity) {
+		ids = Arrays.copyOf(ids, capacity);
+		for (int i = 0; i < longs.length; i++) {
+			longs[i] = Arrays.copyOf(longs[i], capacity);
+		}
+		percentDone = Arrays.copyOf(percentDone, capacity);
+		status = Arrays.copyOf(status, capacity);
+		present = Arrays.copyOf(present, capacity);
+		others = Arrays.copyOf(others, capacity);
+		rows = Arrays.copyOf(rows, capacity);
+	}
+
+	private void setAt(int row, @NonNull String fieldID, @Nullable Object value) {
+		if (TransmissionVars.FIELD_TORRENT_ID.equals(fieldID)) {
+			// row key; can't change
+			return;
+		}
+		rowChanged(row);
+		Integer col = COLUMN_INDEX.get(fieldID);
+		if (col != null && (value instanceof Number)) {
+			Number n = (Number) value;
+			if (col == COL_PERCENT_DONE) {
+				percentDone[row] = n.doubleValue();
+			} else if (col == COL_STATUS) {
+				status[row] = n.intValue();
+			} else {
+				longs[col][row] = n.longValue();
+			}
+			present[row] |= 1 << col;
+			Map<String, Object> other = others[row];
+			if (other != null) {
+				other.remove(fieldID);
+			}
+			return;
+		}
+		if (col != null) {
+			// null or unexpected type; keep it as-is in the side map
+			present[row] &= ~(1 << col);
+		}
+		Map<String, Object> other = others[row];
+		if (other == null) {
+			other = new HashMap<>();
+			others[row] = other;
+		}
+		other.put(fieldID, value);
+		if (TransmissionVars.FIELD_TORRENT_TAG_UIDS.equals(fieldID)) {
+			tagIndex.setTags(row, value);
+		}
+	}
+
+	@NonNull
+	static String columnName(int col) {
+		if (col == COL_PERCENT_DONE) {
+			return TransmissionVars.FIELD_TORRENT_PERCENT_DONE;
+		}
+		if (col == COL_STATUS) {
+			return TransmissionVars.FIELD_TORRENT_STATUS;
+		}
+		return LONG_COLUMNS[col];
+	}
+}
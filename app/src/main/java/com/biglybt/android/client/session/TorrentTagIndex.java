@@ -0,0 +1,216 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.biglybt.android.client.session;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.LongSparseArray;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Which {@link TorrentStore} rows have which tag, one bit set per tag.
+ * <p/>
+ * Kept up to date by the store as "tag-uids" values are set, and as rows are
+ * inserted or removed.  Matching several tags works a 64 bit word at a
+ * time.  Single torrent checks go through {@link TorrentRow#hasTag(long)}.
+ * <p/>
+ * Not thread safe; the store guards it.
+ */
+public class TorrentTagIndex
+{
+	/** tag uid -> rows with tag */
+	private final LongSparseArray<long[]> bitsByTag = new LongSparseArray<>();
+
+	/** uids each row's bits were set from, so a change can clear them */
+	private long[][] rowTags = new long[64][];
+
+	private static int wordsFor(int numBits) {
+		return (numBits + 63) >>> 6;
+	}
+
+	@NonNull
+	private static long[] set(@NonNull long[] bits, int row) {
+		int word = row >>> 6;
+		if (word >= bits.length) {
+			bits = Arrays.copyOf(bits, Math.max(word + 1, bits.length * 2));
+		}
+		bits[word] |= 1L << row;
+		return bits;
+	}
+
+	private static void clear(@NonNull long[] bits, int row) {
+		int word = row >>> 6;
+		if (word < bits.length) {
+			bits[word] &= ~(1L << row);
+		}
+	}
+
+	/**
+	 * Moves bits at row and above up by one, leaving row clear
+	 */
+	@NonNull
+	private static long[] insertBit(@NonNull long[] bits, int row, int numRows) {
+		int lastWord = wordsFor(numRows + 1) - 1;
+		if (lastWord >= bits.length) {
+			bits = Arrays.copyOf(bits, lastWord + 1);
+		}
+		int word = row >>> 6;
+		if (word >= bits.length) {
+			return bits;
+		}
+		for (int w = lastWord; w > word; w--) {
+			bits[w] = (bits[w] << 1) | (bits[w - 1] >>> 63);
+		}
+		long lowMask = (1L << row) - 1; // bits below row, within word
+		long v = bits[word];
+		bits[word] = (v & lowMask) | ((v & ~lowMask) << 1);
+		return bits;
+	}
+
+	/**
+	 * Moves bits above row down by one, dropping row's bit
+	 */
+	private static void removeBit(@NonNull long[] bits, int row) {
+		int word = row >>> 6;
+		if (word >= bits.length) {
+			return;
+		}
+		long lowMask = (1L << row) - 1;
+		long v = bits[word];
+		long high = (v >>> 1) & ~lowMask;
+		bits[word] = (v & lowMask) | high;
+		for (int w = word; w < bits.length - 1; w++) {
+			bits[w] |= bits[w + 1] << 63;
+			bits[w + 1] >>>= 1;
+		}
+	}
+
+	void rowInserted(int row, int numRowsBefore) {
+		for (int i = 0, num = bitsByTag.size(); i < num; i++) {
+			bitsByTag.setValueAt(i,
+					insertBit(bitsByTag.valueAt(i), row, numRowsBefore));
+		}
+		if (numRowsBefore + 1 > rowTags.length) {
+			rowTags = Arrays.copyOf(rowTags, rowTags.length * 2);
+		}
+		System.arraycopy(rowTags, row, rowTags, row + 1, numRowsBefore - row);
+		rowTags[row] = null;
+	}
+
+	void rowRemoved(int row, int numRowsBefore) {
+		for (int i = 0, num = bitsByTag.size(); i < num; i++) {
+			removeBit(bitsByTag.valueAt(i), row);
+		}
+		System.arraycopy(rowTags, row + 1, rowTags, row,
+				numRowsBefore - row - 1);
+		rowTags[numRowsBefore - 1] = null;
+	}
+
+	void clear() {
+		bitsByTag.clear();
+		Arrays.fill(rowTags, null);
+	}
+
+	/**
+	 * @param value row's new "tag-uids" value.  Anything but a List removes
+	 *              row from the index
+	 */
+	void setTags(int row, @Nullable Object value) {
+		long[] oldUIDs = rowTags[row];
+		if (oldUIDs != null) {
+			for (long uid : oldUIDs) {
+				long[] bits = bitsByTag.get(uid);
+				if (bits != null) {
+					clear(bits, row);
+				}
+			}
+		}
+		if (!(value instanceof List)) {
+			rowTags[row] = null;
+			return;
+		}
+		List<?> list = (List<?>) value;
+		long[] uids = new long[list.size()];
+		int num = 0;
+		for (Object o : list) {
+			if (!(o instanceof Number)) {
+				continue;
+			}
+			long uid = ((Number) o).longValue();
+			uids[num++] = uid;
+			long[] bits = bitsByTag.get(uid);
+			bitsByTag.put(uid, set(bits == null ? new long[1] : bits, row));
+		}
+		rowTags[row] = num == uids.length ? uids : Arrays.copyOf(uids, num);
+	}
+
+	/**
+	 * @return Row's tag uids, or null if row has no "tag-uids".  A new array
+	 * is set on each change, so the returned one never changes.
+	 */
+	@Nullable
+	long[] getTags(int row) {
+		return rowTags[row];
+	}
+
+	/**
+	 * @param all true for rows with every tag, false for rows with any
+	 * @return Rows matching, as bits.  Empty array when none
+	 */
+	@NonNull
+	long[] match(@NonNull long[] tagUIDs, boolean all) {
+		long[] result = null;
+		for (long uid : tagUIDs) {
+			long[] bits = bitsByTag.get(uid);
+			if (bits == null) {
+				if (all) {
+					return new long[0];
+				}
+				continue;
+			}
+			if (result == null) {
+				result = bits.clone();
+				continue;
+			}
+			if (all) {
+				int len = Math.min(result.length, bits.length);
+				for (int w = 0; w < len; w++) {
+					result[w] &= bits[w];
+				}
+				Arrays.fill(result, len, result.length, 0);
+			} else {
+				if (bits.length > result.length) {
+					result = Arrays.copyOf(result, bits.length);
+				}
+				for (int w = 0; w < bits.length; w++) {
+					result[w] |= bits[w];
+				}
+			}
+		}
+		return result == null ? new long[0] : result;
+	}
+
+	static int countBits(@NonNull long[] bits) {
+		int count = 0;
+		for (long word : bits) {
+			count += Long.bitCount(word);
+		}
+		return count;
+	}
+}
@@ -0,0 +1,251 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.biglybt.android.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Set of ints, stored as sorted runs of consecutive values.
+ * <p/>
+ * Made for file indexes, where "all files in this folder" is usually one or
+ * a few runs.  {@link #toRanges()} gives the [[first, last], ...] form
+ * sent over RPC.
+ * <p/>
+ * Not thread safe.
+ */
+public class IntRangeSet
+{
+	/** First value of each run, ascending */
+	private int[] starts;
+
+	/** Last value (inclusive) of each run */
+	private int[] ends;
+
+	private int numRanges;
+
+	public IntRangeSet() {
+		starts = new int[4];
+		ends = new int[4];
+	}
+
+	/**
+	 * @param values In any order, duplicates allowed
+	 */
+	@NonNull
+	public static IntRangeSet of(@NonNull int[] values) {
+		int[] sorted = values.clone();
+		Arrays.sort(sorted);
+		IntRangeSet set = new IntRangeSet();
+		for (int value : sorted) {
+			// Sorted, so only ever extends or appends the last run
+			int last = set.numRanges - 1;
+			if (last >= 0 && value <= set.ends[last] + 1L) {
+				if (value > set.ends[last]) {
+					set.ends[last] = value;
+				}
+			} else {
+				set.insertRange(set.numRanges, value, value);
+			}
+		}
+		return set;
+	}
+
+	/**
+	 * Builds a set from the [[first, last], ...] form.  Malformed ranges are
+	 * skipped.
+	 */
+	@NonNull
+	public static IntRangeSet ofRanges(@NonNull int[][] ranges) {
+		IntRangeSet set = new IntRangeSet();
+		for (int[] range : ranges) {
+			if (range != null && range.length == 2 && range[0] <= range[1]) {
+				set.addRange(range[0], range[1]);
+			}
+		}
+		return set;
+	}
+
+	public void add(int value) {
+		addRange(value, value);
+	}
+
+	/**
+	 * Adds start to end, inclusive
+	 */
+	public void addRange(int start, int end) {
+		if (start > end) {
+			return;
+		}
+		// first run that ends at or after start - 1, so touching runs join
+		int first = searchEnds(start - 1L);
+		// runs from first up to (not including) after start no later than end + 1
+		int after = first;
+		while (after < numRanges && starts[after] <= end + 1L) {
+			after++;
+		}
+		if (first == after) {
+			insertRange(first, start, end);
+			return;
+		}
+		int newStart = Math.min(start, starts[first]);
+		int newEnd = Math.max(end, ends[after - 1]);
+		starts[first] = newStart;
+		ends[first] = newEnd;
+		int removed = after - first - 1;
+		if (removed > 0) {
+			System.arraycopy(starts, after, starts, first + 1, numRanges - after);
+			System.arraycopy(ends, after, ends, first + 1, numRanges - after);
+			numRanges -= removed;
+		}
+	}
+
+	public void addAll(@NonNull IntRangeSet other) {
+		for (int i = 0; i < other.numRanges; i++) {
+			addRange(other.starts[i], other.ends[i]);
+		}
+	}
+
+	public boolean contains(int value) {
+		int i = searchEnds(value);
+		return i < numRanges && starts[i] <= value;
+	}
+
+	/**
+	 * @return Index of the first run whose end is at least value
+	 */
+	private int searchEnds(long value) {
+		int low = 0;
+		int high = numRanges;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (ends[mid] < value) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private void insertRange(int index, int start, int end) {
+		if (numRanges == starts.length) {
+			int capacity = numRanges * 2;
+			starts = Arrays.copyOf(starts, capacity);
+			ends = Arrays.copyOf(ends, capacity);
+		}
+		System.arraycopy(starts, index, starts, index + 1, numRanges - index);
+		System.arraycopy(ends, index, ends, index + 1, numRanges - index);
+		starts[index] = start;
+		ends[index] = end;
+		numRanges++;
+	}
+
+	public boolean isEmpty() {
+		return numRanges == 0;
+	}
+
+	public int getNumRanges() {
+		return numRanges;
+	}
+
+	/**
+	 * @return Number of values in the set
+	 */
+	public long size() {
+		long size = 0;
+		for (int i = 0; i < numRanges; i++) {
+			size += (long) ends[i] - starts[i] + 1;
+		}
+		return size;
+	}
+
+	/**
+	 * @return Every value, ascending
+	 */
+	@NonNull
+	public int[] toArray() {
+		int[] values = new int[(int) size()];
+		int pos = 0;
+		for (int i = 0; i < numRanges; i++) {
+			for (int value = starts[i]; value <= ends[i]; value++) {
+				values[pos++] = value;
+				if (value == Integer.MAX_VALUE) {
+					break;
+				}
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * @return Runs as [[first, last], ...], last inclusive, ascending
+	 */
+	@NonNull
+	public int[][] toRanges() {
+		int[][] ranges = new int[numRanges][];
+		for (int i = 0; i < numRanges; i++) {
+			ranges[i] = new int[] {
+				starts[i],
+				ends[i]
+			};
+		}
+		return ranges;
+	}
+
+	@Override
+	public boolean equals(@Nullable Object obj) {
+		if (!(obj instanceof IntRangeSet)) {
+			return false;
+		}
+		IntRangeSet other = (IntRangeSet) obj;
+		if (numRanges != other.numRanges) {
+			return false;
+		}
+		for (int i = 0; i < numRanges; i++) {
+			if (starts[i] != other.starts[i] || ends[i] != other.ends[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = 1;
+		for (int i = 0; i < numRanges; i++) {
+			result = 31 * result + starts[i];
+			result = 31 * result + ends[i];
+		}
+		return result;
+	}
+
+	@NonNull
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < numRanges; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append('[').append(starts[i]).append(',').append(ends[i]).append(']');
+		}
+		return sb.append(']').toString();
+	}
+}
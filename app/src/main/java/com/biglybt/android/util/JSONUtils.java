@@ -16,15 +16,19 @@
 
 package com.biglybt.android.util;
 
+import java.io.IOException;
 import java.io.Reader;
+import java.io.Writer;
 import java.util.*;
 
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONReader;
+import com.alibaba.fastjson.JSONWriter;
 import com.alibaba.fastjson.parser.Feature;
 import com.alibaba.fastjson.serializer.SerializerFeature;
 import com.biglybt.android.client.AnalyticsTracker;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import android.util.Log;
 
@@ -44,7 +48,7 @@ public class JSONUtils
 	private static final int features = Feature.SortFeidFastMatch.mask
 			| Feature.IgnoreNotMatch.mask | Feature.DisableSpecialKeyDetect.mask;
 
-	private static final String DEFAULT_MAP_KEY = "value";
+	public static final String DEFAULT_MAP_KEY = "value";
 
 	/**
 	 * decodes JSON formatted text into a map.
@@ -142,6 +146,19 @@ public class JSONUtils
 		return JSON.toJSONString(map, SerializerFeature.WriteMapNullValue);
 	}
 
+	/**
+	 * Encodes map straight into writer, without building the JSON String.
+	 * Writer is flushed, but not closed.
+	 */
+	public static void encodeToJSON(@Nullable Map<?, ?> map,
+			@NonNull Writer writer)
+			throws IOException {
+		JSONWriter jsonWriter = new JSONWriter(writer);
+		jsonWriter.config(SerializerFeature.WriteMapNullValue, true);
+		jsonWriter.writeObject(map);
+		jsonWriter.flush();
+	}
+
 	public static String encodeToJSON(Collection<?> list) {
 		return JSON.toJSONString(list);
 	}
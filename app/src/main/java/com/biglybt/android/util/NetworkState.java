@@ -35,6 +35,7 @@ import android.net.wifi.WifiManager;
 import android.os.Build;
 import androidx.annotation.Nullable;
 import androidx.annotation.WorkerThread;
+import androidx.core.net.ConnectivityManagerCompat;
 
 import android.util.Log;
 
@@ -223,6 +224,25 @@ public class NetworkState
 		return false;
 	}
 
+	/**
+	 * @return true if the active network may charge by usage
+	 */
+	public boolean isMetered() {
+		ConnectivityManager cm = (ConnectivityManager) applicationContext.getSystemService(
+				Context.CONNECTIVITY_SERVICE);
+		if (cm == null) {
+			return false;
+		}
+		try {
+			return ConnectivityManagerCompat.isActiveNetworkMetered(cm);
+		} catch (Throwable t) { // Seen: DeadSystemException
+			if (AndroidUtils.DEBUG) {
+				Log.e(TAG, "isMetered: ", t);
+			}
+			return false;
+		}
+	}
+
 	private NetworkInfo getActiveNetworkInfo() {
 		ConnectivityManager cm = (ConnectivityManager) applicationContext.getSystemService(
 			Context.CONNECTIVITY_SERVICE);